@@ -0,0 +1,110 @@
+package de.datev.samples.loadtest.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.jetty.server.ConnectionLimit;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.jetty.JettyServletWebServerFactory;
+import org.springframework.boot.web.embedded.jetty.JettyWebServer;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Applies app-config.server-* to Jetty (maven profile "jetty"). Runs after Spring Boot's own customizers, so the
+ * settings win over server.jetty.*, if they are set (> 0). Jetty 9.4 cannot run requests on virtual threads, its
+ * QueuedThreadPool is kept, if server-virtual-threads is set.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class EmbeddedServerConfiguration {
+
+    private static final Logger LOGGER = LogManager.getLogger(EmbeddedServerConfiguration.class);
+
+    @Bean
+    public WebServerFactoryCustomizer<JettyServletWebServerFactory> embeddedServerCustomizer(
+            LoadTestConfiguration loadTestConfiguration) {
+
+        return factory -> {
+            if (loadTestConfiguration.isServerVirtualThreads()) {
+                LOGGER.warn("Virtual threads are not supported with Jetty, Jetty keeps its thread pool");
+            }
+            if (loadTestConfiguration.getServerAcceptors() > 0) {
+                factory.setAcceptors(loadTestConfiguration.getServerAcceptors());
+            }
+            if (loadTestConfiguration.getServerSelectors() > 0) {
+                factory.setSelectors(loadTestConfiguration.getServerSelectors());
+            }
+            factory.addServerCustomizers(server -> {
+                final ThreadPool threadPool = server.getThreadPool();
+                if (threadPool instanceof QueuedThreadPool) {
+                    if (loadTestConfiguration.getServerMaxThreads() > 0) {
+                        ((QueuedThreadPool) threadPool).setMaxThreads(loadTestConfiguration.getServerMaxThreads());
+                    }
+                    if (loadTestConfiguration.getServerMinSpareThreads() > 0) {
+                        ((QueuedThreadPool) threadPool).setMinThreads(loadTestConfiguration.getServerMinSpareThreads());
+                    }
+                } else {
+                    LOGGER.warn("Cannot tune Jetty thread pool {}", threadPool);
+                }
+                if (loadTestConfiguration.getServerMaxConnections() > 0) {
+                    server.addBean(new ConnectionLimit(loadTestConfiguration.getServerMaxConnections(), server));
+                }
+                for (Connector connector : server.getConnectors()) {
+                    if (loadTestConfiguration.getServerAcceptCount() > 0 && connector instanceof ServerConnector) {
+                        ((ServerConnector) connector).setAcceptQueueSize(loadTestConfiguration.getServerAcceptCount());
+                    }
+                    final HttpConfiguration httpConfiguration = httpConfiguration(connector);
+                    if (loadTestConfiguration.getServerBufferSize() > 0 && httpConfiguration != null) {
+                        httpConfiguration.setOutputBufferSize(loadTestConfiguration.getServerBufferSize());
+                    }
+                }
+            });
+        };
+    }
+
+    @Bean
+    public EmbeddedServerInspector embeddedServerInspector() {
+
+        return (webServer, configuration) -> {
+            if (!(webServer instanceof JettyWebServer)) {
+                return;
+            }
+            final Server server = ((JettyWebServer) webServer).getServer();
+            final ThreadPool threadPool = server.getThreadPool();
+            if (threadPool instanceof QueuedThreadPool) {
+                configuration.put("maxThreads", Integer.toString(((QueuedThreadPool) threadPool).getMaxThreads()));
+                configuration.put("minSpareThreads", Integer.toString(((QueuedThreadPool) threadPool).getMinThreads()));
+            }
+            final ConnectionLimit connectionLimit = server.getBean(ConnectionLimit.class);
+            configuration.put("maxConnections", connectionLimit == null ? "unlimited"
+                    : Integer.toString(connectionLimit.getMaxConnections()));
+            for (Connector connector : server.getConnectors()) {
+                if (connector instanceof ServerConnector) {
+                    final ServerConnector serverConnector = (ServerConnector) connector;
+                    configuration.put("acceptors", Integer.toString(serverConnector.getAcceptors()));
+                    configuration.put("selectors", Integer.toString(serverConnector.getSelectorManager().getSelectorCount()));
+                    configuration.put("acceptCount", Integer.toString(serverConnector.getAcceptQueueSize()));
+                }
+                final HttpConfiguration httpConfiguration = httpConfiguration(connector);
+                if (httpConfiguration != null) {
+                    configuration.put("bufferSize", Integer.toString(httpConfiguration.getOutputBufferSize()));
+                }
+            }
+            configuration.put("executor", threadPool.getClass().getName());
+        };
+    }
+
+    private static HttpConfiguration httpConfiguration(Connector connector) {
+
+        final HttpConnectionFactory connectionFactory = connector.getConnectionFactory(HttpConnectionFactory.class);
+        return connectionFactory == null ? null : connectionFactory.getHttpConfiguration();
+    }
+}
@@ -0,0 +1,255 @@
+package de.datev.samples.loadtest.control;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.datev.samples.loadtest.config.LoadTestConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Cost of the LoadGeneratorService methods behind the facets, without the servlet container and Spring MVC. The
+ * parameters cover the ranges, which the facets are usually called with. Run with the maven profile "jmh", which
+ * adds the GC profiler, so that the allocated bytes per call (gc.alloc.rate.norm) are reported, too:
+ * <pre>
+ * mvn -P jmh -DskipTests test-compile exec:exec
+ * mvn -P jmh -DskipTests test-compile exec:exec -Djmh.args="-prof gc fibonacci"
+ * </pre>
+ * A baseline is kept in src/jmh/results. createLargeObjectFast is included as reference for createLargeObject. The
+ * written bytes are copied into a sink buffer, like a servlet response buffers them, so that the write cannot be
+ * optimized away. The heap is fixed, so that the GC heuristics do not vary between the forks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = { "-Xms1g", "-Xmx1g" })
+public class LoadGeneratorServiceBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Service {
+
+        LoadGeneratorServiceImpl loadGeneratorService;
+
+        @Setup
+        public void setup() {
+
+            final LoadTestConfiguration loadTestConfiguration = new LoadTestConfiguration();
+            loadGeneratorService = new LoadGeneratorServiceImpl(new SharedScheduler(loadTestConfiguration),
+                    new BlockCache(loadTestConfiguration), new ObjectMapper(), loadTestConfiguration);
+            loadGeneratorService.init();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class FibonacciInput {
+
+        @Param({ "10", "20", "30" })
+        int input;
+    }
+
+    @State(Scope.Thread)
+    public static class FibonacciModeInput {
+
+        // RECURSIVE is the fibonacci benchmark
+        @Param({ "ITERATIVE", "MEMOIZED", "MATRIX" })
+        FibonacciMode mode;
+
+        @Param({ "30", "100" })
+        int input;
+    }
+
+    @State(Scope.Thread)
+    public static class FibonacciParallelInput {
+
+        @Param({ "1", "2" })
+        int parallelism;
+    }
+
+    @State(Scope.Thread)
+    public static class CpuTime {
+
+        @Param({ "10", "100", "1000" })
+        long micros;
+    }
+
+    @State(Scope.Thread)
+    public static class StringSize {
+
+        @Param({ "1024", "65536", "1048576" })
+        int size;
+    }
+
+    @State(Scope.Thread)
+    public static class LargeObjectFactor {
+
+        @Param({ "10", "100", "300" })
+        int factor;
+
+        Map<String, List<String>> largeObject;
+
+        @Setup(Level.Trial)
+        public void setup(Service service) {
+            largeObject = service.loadGeneratorService.createLargeObjectFast(factor);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class StreamBlocks {
+
+        @Param({ "1", "64", "1024" })
+        int numberOfKiloByteBlocks;
+
+        BlackholeSink sink;
+
+        @Setup(Level.Trial)
+        public void setup(Blackhole blackhole) {
+            sink = new BlackholeSink(blackhole);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Upload {
+
+        @Param({ "65536", "1048576" })
+        int size;
+
+        byte[] body;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            body = new byte[size];
+            Arrays.fill(body, (byte) 'a');
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class LargeObjectSink {
+
+        @Param({ "10", "100", "300" })
+        int factor;
+
+        BlackholeSink sink;
+
+        @Setup(Level.Trial)
+        public void setup(Blackhole blackhole) {
+            sink = new BlackholeSink(blackhole);
+        }
+    }
+
+    @Benchmark
+    public long fibonacci(Service service, FibonacciInput fibonacciInput) {
+        return service.loadGeneratorService.computeFibonacciRecursive(fibonacciInput.input);
+    }
+
+    @Benchmark
+    public BigInteger fibonacciMode(Service service, FibonacciModeInput fibonacciModeInput) {
+        return service.loadGeneratorService.computeFibonacci(fibonacciModeInput.input, fibonacciModeInput.mode);
+    }
+
+    @Benchmark
+    public ParallelComputation fibonacciParallel(Service service, FibonacciParallelInput fibonacciParallelInput) {
+        return service.loadGeneratorService.computeFibonacciParallel(25, fibonacciParallelInput.parallelism, 15);
+    }
+
+    @Benchmark
+    public long burnCpu(Service service, CpuTime cpuTime) {
+        return service.loadGeneratorService.burnCpu(cpuTime.micros);
+    }
+
+    @Benchmark
+    public String stringOfSize(Service service, StringSize stringSize) {
+        return service.loadGeneratorService.createStringOfSize(stringSize.size);
+    }
+
+    @Benchmark
+    public Map<String, List<String>> largeObject(Service service, LargeObjectFactor largeObjectFactor) {
+        return service.loadGeneratorService.createLargeObject(largeObjectFactor.factor);
+    }
+
+    @Benchmark
+    public Map<String, List<String>> largeObjectFast(Service service, LargeObjectFactor largeObjectFactor) {
+        return service.loadGeneratorService.createLargeObjectFast(largeObjectFactor.factor);
+    }
+
+    @Benchmark
+    public int sizeOfLargeObject(Service service, LargeObjectFactor largeObjectFactor) {
+        return service.loadGeneratorService.calculateSizeOfLargeObject(largeObjectFactor.largeObject);
+    }
+
+    @Benchmark
+    public void writeLargeObject(Service service, LargeObjectSink largeObjectSink) throws IOException {
+        service.loadGeneratorService.writeLargeObject(largeObjectSink.factor, false, largeObjectSink.sink);
+    }
+
+    @Benchmark
+    public void writeLargeObjectFast(Service service, LargeObjectSink largeObjectSink) throws IOException {
+        service.loadGeneratorService.writeLargeObject(largeObjectSink.factor, true, largeObjectSink.sink);
+    }
+
+    @Benchmark
+    public long stream(Service service, StreamBlocks streamBlocks) throws IOException {
+        return service.loadGeneratorService.stream(streamBlocks.sink, streamBlocks.numberOfKiloByteBlocks);
+    }
+
+    @Benchmark
+    public long streamLargeBlocks(Service service, StreamBlocks streamBlocks) throws IOException {
+        return service.loadGeneratorService.stream(streamBlocks.sink,
+                1024L * streamBlocks.numberOfKiloByteBlocks, 65536);
+    }
+
+    @Benchmark
+    public long consume(Service service, Upload upload) throws IOException {
+
+        final CRC32 crc32 = new CRC32();
+        return service.loadGeneratorService.consume(new ByteArrayInputStream(upload.body), crc32) + crc32.getValue();
+    }
+
+    // Copies the written bytes into a buffer of the size of a servlet response buffer and hands it to the blackhole
+    private static final class BlackholeSink extends OutputStream {
+
+        private final Blackhole blackhole;
+        private final byte[] buffer = new byte[8192];
+
+        BlackholeSink(Blackhole blackhole) {
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer[0] = (byte) b;
+            blackhole.consume(buffer);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+
+            while (len > 0) {
+                final int chunk = Math.min(len, buffer.length);
+                System.arraycopy(b, off, buffer, 0, chunk);
+                blackhole.consume(buffer);
+                off += chunk;
+                len -= chunk;
+            }
+        }
+    }
+}
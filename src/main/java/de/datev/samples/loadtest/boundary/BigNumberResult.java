@@ -0,0 +1,26 @@
+package de.datev.samples.loadtest.boundary;
+
+import java.math.BigInteger;
+
+/**
+ * Same JSON structure as NumberResult, but for numbers exceeding the range of long.
+ */
+public class BigNumberResult {
+
+    BigInteger result;
+
+    public BigNumberResult() {
+    }
+
+    public BigNumberResult(BigInteger result) {
+        this.result = result;
+    }
+
+    public BigInteger getResult() {
+        return result;
+    }
+
+    public void setResult(BigInteger result) {
+        this.result = result;
+    }
+}
@@ -0,0 +1,68 @@
+package de.datev.samples.loadtest.boundary;
+
+/**
+ * The outcome of one branch of the scatter facet.
+ */
+public class BranchResult {
+
+    int branch;
+    String url;
+    int status;
+    long latencyMilliseconds;
+    String error;
+
+    public BranchResult() {
+    }
+
+    public BranchResult(int branch, String url, int status, long latencyMilliseconds, String error) {
+        this.branch = branch;
+        this.url = url;
+        this.status = status;
+        this.latencyMilliseconds = latencyMilliseconds;
+        this.error = error;
+    }
+
+    public int getBranch() {
+        return branch;
+    }
+
+    public void setBranch(int branch) {
+        this.branch = branch;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public long getLatencyMilliseconds() {
+        return latencyMilliseconds;
+    }
+
+    public void setLatencyMilliseconds(long latencyMilliseconds) {
+        this.latencyMilliseconds = latencyMilliseconds;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    boolean isSuccessful() {
+        return status >= 200 && status < 300;
+    }
+}
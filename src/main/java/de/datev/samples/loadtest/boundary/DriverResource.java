@@ -0,0 +1,322 @@
+package de.datev.samples.loadtest.boundary;
+
+import de.datev.samples.loadtest.config.LoadTestConfiguration;
+import de.datev.samples.loadtest.control.LatencyHistograms;
+import de.datev.samples.loadtest.control.LoadDriverPlan;
+import de.datev.samples.loadtest.control.LoadDriverReport;
+import de.datev.samples.loadtest.control.LoadDriverService;
+import de.datev.samples.loadtest.control.UrlReplacer;
+import de.datev.samples.loadtest.control.WorkloadModel;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletRequest;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The built-in load driver: one instance sends load to a target URL (usually a facet of another instance) and
+ * reports latency and throughput. The target URL may contain the placeholders of "/api/test/remote". A coordinator
+ * instance can start the same run on several worker instances at once and merge their results.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/driver")
+public class DriverResource {
+
+    private final Logger log = LoggerFactory.getLogger(DriverResource.class);
+
+    private static final long ASYNC_TIMEOUT_MARGIN_MILLISECONDS = 10000L;
+
+    private LoadTestConfiguration loadTestConfiguration;
+    private LoadDriverService loadDriverService;
+    private UrlReplacer urlReplacer;
+    private WebClient webClient;
+
+    @Autowired
+    public DriverResource(LoadTestConfiguration loadTestConfiguration, LoadDriverService loadDriverService,
+                          UrlReplacer urlReplacer, WebClient.Builder webClientBuilder) {
+        this.loadTestConfiguration = loadTestConfiguration;
+        this.loadDriverService = loadDriverService;
+        this.urlReplacer = urlReplacer;
+        // Not the shared WebClient of the remote facets: a worker answers only after its run, which may take longer
+        // than the read timeout of the shared client. The coordinator uses an explicit timeout per worker instead.
+        this.webClient = webClientBuilder.build();
+    }
+
+    // Runs an open (rate requests per second) or closed (concurrency clients, optionally paced to rate in sum)
+    // workload against url for durationMs and returns the report, when the run is finished.
+    @GetMapping(path = "/run")
+    public DeferredResult<ResponseEntity<DriverResult>> runRequest(
+            @RequestParam(value = "url") String url,
+            @RequestParam(value = "model", required = false, defaultValue = "closed") String model,
+            @RequestParam(value = "concurrency", required = false, defaultValue = "1") int concurrency,
+            @RequestParam(value = "rate", required = false, defaultValue = "0") int rate,
+            @RequestParam(value = "durationMs", required = false) Long durationMs,
+            @RequestParam(value = "timeoutMs", required = false) Long timeoutMs,
+            @RequestParam(value = "startAt", required = false, defaultValue = "0") long startAt,
+            @RequestParam(value = "histogram", required = false, defaultValue = "false") boolean histogram,
+            HttpServletRequest request) {
+
+        if (durationMs == null) {
+            durationMs = this.loadTestConfiguration.getDefaultDriverDurationMilliseconds();
+        }
+        if (timeoutMs == null) {
+            timeoutMs = this.loadTestConfiguration.getDefaultDriverTimeoutMilliseconds();
+        }
+        final String targetUrl = this.urlReplacer.replace(url, request.getRequestURL().toString());
+        log.debug("runRequest: url={}, targetUrl={}, model={}, concurrency={}, rate={}, durationMs={}, timeoutMs={}, "
+                + "startAt={}", url, targetUrl, model, concurrency, rate, durationMs, timeoutMs, startAt);
+        final long startDelayMs = Math.max(0, startAt - System.currentTimeMillis());
+        final DeferredResult<ResponseEntity<DriverResult>> deferredResult =
+                new DeferredResult<>(startDelayMs + durationMs + timeoutMs + ASYNC_TIMEOUT_MARGIN_MILLISECONDS);
+
+        final LoadDriverPlan plan;
+        try {
+            new URI(targetUrl);
+            plan = new LoadDriverPlan(targetUrl, WorkloadModel.fromString(model), concurrency, rate, durationMs, timeoutMs);
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            log.warn("runRequest url or model was bad (open|closed): {}, {}", targetUrl, model);
+            deferredResult.setResult(ResponseEntity.badRequest().build());
+            return deferredResult;
+        }
+        final int maxConnections = this.loadTestConfiguration.getWebClientMaxConnections();
+        final int maxRate = this.loadTestConfiguration.getDriverMaxRate();
+        if (startDelayMs > this.loadTestConfiguration.getDriverMaxStartDelayMilliseconds()) {
+            log.warn("runRequest startAt was bad (at most {} ms in the future): {}",
+                    this.loadTestConfiguration.getDriverMaxStartDelayMilliseconds(), startAt);
+            deferredResult.setResult(ResponseEntity.badRequest().build());
+            return deferredResult;
+        }
+        if (durationMs < 1 || durationMs > this.loadTestConfiguration.getDriverMaxDurationMilliseconds() || timeoutMs < 1
+                || rate < 0 || rate > maxRate || (plan.getModel() == WorkloadModel.OPEN && rate < 1)
+                || (plan.getModel() == WorkloadModel.CLOSED && (concurrency < 1 || concurrency > maxConnections))) {
+            log.warn("runRequest input was bad (1 <= durationMs <= {}, timeoutMs >= 1, 0 <= rate <= {}, open: rate >= 1, "
+                            + "closed: 1 <= concurrency <= {}): {}, {}, {}, {}",
+                    this.loadTestConfiguration.getDriverMaxDurationMilliseconds(), maxRate, maxConnections,
+                    durationMs, timeoutMs, rate, concurrency);
+            deferredResult.setResult(ResponseEntity.badRequest().build());
+            return deferredResult;
+        }
+
+        try {
+            this.loadDriverService.run(plan, startAt).thenAccept(report -> {
+                final DriverResult result = toResult(report);
+                if (histogram) {
+                    result.setHistogram(LatencyHistograms.encode(report.getHistogram()));
+                }
+                deferredResult.setResult(ResponseEntity.ok().body(result));
+            });
+        } catch (IllegalStateException e) {
+            log.warn("runRequest rejected: {}", e.getMessage());
+            deferredResult.setResult(ResponseEntity.status(HttpStatus.CONFLICT).build());
+        }
+        return deferredResult;
+    }
+
+    // Coordinator: sends the run parameters to all workers (base URLs given by "worker"), which start together
+    // startDelayMs after now, and merges their reports and histograms. url, concurrency and rate are per worker,
+    // they are resolved and applied by each worker. Worker clocks should be synchronized (NTP).
+    @GetMapping(path = "/coordinate")
+    public DeferredResult<ResponseEntity<DriverResult>> coordinateRequest(
+            @RequestParam(value = "worker") List<String> workers,
+            @RequestParam(value = "url") String url,
+            @RequestParam(value = "model", required = false, defaultValue = "closed") String model,
+            @RequestParam(value = "concurrency", required = false, defaultValue = "1") int concurrency,
+            @RequestParam(value = "rate", required = false, defaultValue = "0") int rate,
+            @RequestParam(value = "durationMs", required = false) Long durationMs,
+            @RequestParam(value = "timeoutMs", required = false) Long timeoutMs,
+            @RequestParam(value = "startDelayMs", required = false) Long startDelayMs,
+            HttpServletRequest request) {
+
+        if (durationMs == null) {
+            durationMs = this.loadTestConfiguration.getDefaultDriverDurationMilliseconds();
+        }
+        if (timeoutMs == null) {
+            timeoutMs = this.loadTestConfiguration.getDefaultDriverTimeoutMilliseconds();
+        }
+        if (startDelayMs == null) {
+            startDelayMs = this.loadTestConfiguration.getDefaultDriverStartDelayMilliseconds();
+        }
+        log.debug("coordinateRequest: workers={}, url={}, model={}, concurrency={}, rate={}, durationMs={}, timeoutMs={}, "
+                + "startDelayMs={}", workers, url, model, concurrency, rate, durationMs, timeoutMs, startDelayMs);
+        final long workerTimeoutMs = startDelayMs + durationMs + timeoutMs + ASYNC_TIMEOUT_MARGIN_MILLISECONDS;
+        final DeferredResult<ResponseEntity<DriverResult>> deferredResult =
+                new DeferredResult<>(workerTimeoutMs + ASYNC_TIMEOUT_MARGIN_MILLISECONDS);
+        if (startDelayMs < 0 || startDelayMs > this.loadTestConfiguration.getDriverMaxStartDelayMilliseconds()
+                || durationMs < 1 || timeoutMs < 1) {
+            log.warn("coordinateRequest input was bad (0 <= startDelayMs <= {}, durationMs >= 1, timeoutMs >= 1): {}, {}, {}",
+                    this.loadTestConfiguration.getDriverMaxStartDelayMilliseconds(), startDelayMs, durationMs, timeoutMs);
+            deferredResult.setResult(ResponseEntity.badRequest().build());
+            return deferredResult;
+        }
+
+        if (workers.isEmpty() || workers.size() > this.loadTestConfiguration.getDriverMaxWorkers()) {
+            log.warn("coordinateRequest workers were bad (1 <= workers <= {}): {}",
+                    this.loadTestConfiguration.getDriverMaxWorkers(), workers.size());
+            deferredResult.setResult(ResponseEntity.badRequest().build());
+            return deferredResult;
+        }
+
+        final long startAt = System.currentTimeMillis() + startDelayMs;
+        final List<String> workerUrls = new ArrayList<>();
+        final List<URI> runUris = new ArrayList<>();
+        for (String worker : workers) {
+            final String workerUrl = this.urlReplacer.replace(worker, request.getRequestURL().toString());
+            URI runUri;
+            try {
+                runUri = UriComponentsBuilder.fromHttpUrl(workerUrl)
+                        .path("/api/driver/run")
+                        .queryParam("url", "{url}")
+                        .queryParam("model", model)
+                        .queryParam("concurrency", concurrency)
+                        .queryParam("rate", rate)
+                        .queryParam("durationMs", durationMs)
+                        .queryParam("timeoutMs", timeoutMs)
+                        .queryParam("startAt", startAt)
+                        .queryParam("histogram", true)
+                        .encode()
+                        .buildAndExpand(url)
+                        .toUri();
+            } catch (IllegalArgumentException e) {
+                runUri = null;
+            }
+            if (runUri == null || runUri.getHost() == null) {
+                log.warn("coordinateRequest worker was bad (http(s)://host[:port]): {}", workerUrl);
+                deferredResult.setResult(ResponseEntity.badRequest().build());
+                return deferredResult;
+            }
+            workerUrls.add(workerUrl);
+            runUris.add(runUri);
+        }
+
+        // all workers are valid, only now the runs are started
+        final List<Mono<DriverResult>> workerResults = new ArrayList<>();
+        for (int i = 0; i < runUris.size(); i++) {
+            final String workerUrl = workerUrls.get(i);
+            workerResults.add(webClient.get().uri(runUris.get(i))
+                    .retrieve().bodyToMono(DriverResult.class)
+                    .timeout(Duration.ofMillis(workerTimeoutMs))
+                    .onErrorResume(e -> {
+                        log.warn("coordinateRequest: worker {} failed: {}", workerUrl, e.toString());
+                        final DriverResult failed = new DriverResult();
+                        failed.setError(e.toString());
+                        return Mono.just(failed);
+                    })
+                    .doOnNext(result -> result.setWorker(workerUrl)));
+        }
+        Flux.mergeSequential(workerResults).collectList().subscribe(results -> {
+            final DriverResult merged = merge(results);
+            deferredResult.setResult(merged.getError() == null
+                    ? ResponseEntity.ok().body(merged)
+                    : ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(merged));
+        });
+        return deferredResult;
+    }
+
+    //------------------------------------------------------------------------------------------------------------------
+
+    // Sums the counters of all successful workers and computes the percentiles from their merged histograms.
+    private static DriverResult merge(List<DriverResult> workers) {
+
+        final DriverResult merged = new DriverResult();
+        final Histogram histogram = new Histogram(3);
+        final Map<String, Long> statusCounts = new TreeMap<>();
+        long firstStart = Long.MAX_VALUE;
+        long lastEnd = Long.MIN_VALUE;
+        int successful = 0;
+        for (DriverResult worker : workers) {
+            if (worker.getError() == null && worker.getHistogram() != null) {
+                try {
+                    histogram.add(LatencyHistograms.decode(worker.getHistogram()));
+                } catch (IllegalArgumentException e) {
+                    worker.setError(e.getMessage());
+                }
+            } else if (worker.getError() == null) {
+                worker.setError("Worker did not return a histogram");
+            }
+            worker.setHistogram(null);
+            if (worker.getError() != null) {
+                continue;
+            }
+            successful++;
+            merged.setModel(worker.getModel());
+            merged.setUrl(worker.getUrl());
+            merged.setConcurrency(merged.getConcurrency() + worker.getConcurrency());
+            merged.setRate(merged.getRate() + worker.getRate());
+            merged.setRequests(merged.getRequests() + worker.getRequests());
+            merged.setErrors(merged.getErrors() + worker.getErrors());
+            merged.setDropped(merged.getDropped() + worker.getDropped());
+            merged.setIncomplete(merged.getIncomplete() + worker.getIncomplete());
+            merged.setRequestsPerSecond(merged.getRequestsPerSecond() + worker.getRequestsPerSecond());
+            worker.getStatusCounts().forEach((status, count) -> statusCounts.merge(status, count, Long::sum));
+            firstStart = Math.min(firstStart, worker.getStartedAtEpochMilliseconds());
+            lastEnd = Math.max(lastEnd, worker.getStartedAtEpochMilliseconds() + worker.getDurationMilliseconds());
+        }
+        if (successful == 0) {
+            merged.setError("All workers failed");
+        } else {
+            merged.setStartedAtEpochMilliseconds(firstStart);
+            merged.setDurationMilliseconds(lastEnd - firstStart);
+            setLatencies(merged, histogram);
+        }
+        merged.setStatusCounts(statusCounts);
+        merged.setWorkers(workers);
+        return merged;
+    }
+
+    private static DriverResult toResult(LoadDriverReport report) {
+
+        final LoadDriverPlan plan = report.getPlan();
+        final DriverResult result = new DriverResult();
+        result.setModel(plan.getModel().name().toLowerCase(Locale.ROOT));
+        result.setUrl(plan.getUrl());
+        result.setConcurrency(plan.getModel() == WorkloadModel.CLOSED ? plan.getConcurrency() : 0);
+        result.setRate(plan.getRate());
+        result.setStartedAtEpochMilliseconds(report.getStartedAtEpochMilliseconds());
+        result.setDurationMilliseconds(TimeUnit.NANOSECONDS.toMillis(report.getDurationNanos()));
+        result.setRequests(report.getRequests());
+        result.setErrors(report.getErrors());
+        result.setDropped(report.getDropped());
+        result.setIncomplete(report.getIncomplete());
+        result.setRequestsPerSecond(report.getRequestsPerSecond());
+        setLatencies(result, report.getHistogram());
+        final Map<String, Long> statusCounts = new LinkedHashMap<>();
+        report.getStatusCounts().forEach((status, count) -> statusCounts.put(String.valueOf(status), count));
+        result.setStatusCounts(statusCounts);
+        return result;
+    }
+
+    // The histograms hold microseconds
+    private static void setLatencies(DriverResult result, Histogram histogram) {
+
+        result.setP50Milliseconds(histogram.getValueAtPercentile(50.0) / 1000.0);
+        result.setP90Milliseconds(histogram.getValueAtPercentile(90.0) / 1000.0);
+        result.setP99Milliseconds(histogram.getValueAtPercentile(99.0) / 1000.0);
+        result.setP999Milliseconds(histogram.getValueAtPercentile(99.9) / 1000.0);
+        result.setMaxMilliseconds(histogram.getMaxValue() / 1000.0);
+        result.setMeanMilliseconds(histogram.getMean() / 1000.0);
+    }
+}
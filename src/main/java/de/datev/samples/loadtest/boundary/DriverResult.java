@@ -0,0 +1,213 @@
+package de.datev.samples.loadtest.boundary;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The report of a load driver run. Latencies are measured from the intended send time of each request and given in
+ * milliseconds. The report of a coordinated run contains the merged values and the reports of all workers.
+ */
+public class DriverResult {
+
+    String worker;
+    String error;
+    String model;
+    String url;
+    int concurrency;
+    int rate;
+    long startedAtEpochMilliseconds;
+    long durationMilliseconds;
+    long requests;
+    long errors;
+    long dropped;
+    long incomplete;
+    double requestsPerSecond;
+    double p50Milliseconds;
+    double p90Milliseconds;
+    double p99Milliseconds;
+    double p999Milliseconds;
+    double maxMilliseconds;
+    double meanMilliseconds;
+    Map<String, Long> statusCounts;
+    String histogram;
+    List<DriverResult> workers;
+
+    public DriverResult() {
+    }
+
+    public String getWorker() {
+        return worker;
+    }
+
+    public void setWorker(String worker) {
+        this.worker = worker;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    public void setModel(String model) {
+        this.model = model;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+
+    public long getStartedAtEpochMilliseconds() {
+        return startedAtEpochMilliseconds;
+    }
+
+    public void setStartedAtEpochMilliseconds(long startedAtEpochMilliseconds) {
+        this.startedAtEpochMilliseconds = startedAtEpochMilliseconds;
+    }
+
+    public long getDurationMilliseconds() {
+        return durationMilliseconds;
+    }
+
+    public void setDurationMilliseconds(long durationMilliseconds) {
+        this.durationMilliseconds = durationMilliseconds;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public void setRequests(long requests) {
+        this.requests = requests;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public void setErrors(long errors) {
+        this.errors = errors;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public void setDropped(long dropped) {
+        this.dropped = dropped;
+    }
+
+    public long getIncomplete() {
+        return incomplete;
+    }
+
+    public void setIncomplete(long incomplete) {
+        this.incomplete = incomplete;
+    }
+
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    public void setRequestsPerSecond(double requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+    }
+
+    public double getP50Milliseconds() {
+        return p50Milliseconds;
+    }
+
+    public void setP50Milliseconds(double p50Milliseconds) {
+        this.p50Milliseconds = p50Milliseconds;
+    }
+
+    public double getP90Milliseconds() {
+        return p90Milliseconds;
+    }
+
+    public void setP90Milliseconds(double p90Milliseconds) {
+        this.p90Milliseconds = p90Milliseconds;
+    }
+
+    public double getP99Milliseconds() {
+        return p99Milliseconds;
+    }
+
+    public void setP99Milliseconds(double p99Milliseconds) {
+        this.p99Milliseconds = p99Milliseconds;
+    }
+
+    public double getP999Milliseconds() {
+        return p999Milliseconds;
+    }
+
+    public void setP999Milliseconds(double p999Milliseconds) {
+        this.p999Milliseconds = p999Milliseconds;
+    }
+
+    public double getMaxMilliseconds() {
+        return maxMilliseconds;
+    }
+
+    public void setMaxMilliseconds(double maxMilliseconds) {
+        this.maxMilliseconds = maxMilliseconds;
+    }
+
+    public double getMeanMilliseconds() {
+        return meanMilliseconds;
+    }
+
+    public void setMeanMilliseconds(double meanMilliseconds) {
+        this.meanMilliseconds = meanMilliseconds;
+    }
+
+    public Map<String, Long> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public void setStatusCounts(Map<String, Long> statusCounts) {
+        this.statusCounts = statusCounts;
+    }
+
+    public String getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(String histogram) {
+        this.histogram = histogram;
+    }
+
+    public List<DriverResult> getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(List<DriverResult> workers) {
+        this.workers = workers;
+    }
+}
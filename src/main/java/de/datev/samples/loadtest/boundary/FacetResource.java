@@ -1,351 +1,990 @@
-package de.datev.samples.loadtest.boundary;
-
-import de.datev.samples.loadtest.config.LoadTestConfiguration;
-import de.datev.samples.loadtest.control.LoadGeneratorService;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
-import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
-
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
-import java.net.MalformedURLException;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.net.URL;
-import java.time.LocalTime;
-import java.util.*;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.function.Consumer;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
-
-/**
- * Different test facets. Every test returns an object of type StringResult, NumberResult or StatusResult, so
- * that the object mapper is always involved, which is a more realistic scenario.
- */
-@RestController
-@RequestMapping("/api/test")
-public class FacetResource {
-
-    private final Logger log = LoggerFactory.getLogger(FacetResource.class);
-
-    private static final HashMap<String, Object> PATH_RESULT_CLASS_LOOKUP = new HashMap<>();
-
-    static {
-        PATH_RESULT_CLASS_LOOKUP.put("sleep", StringResult.class);
-        PATH_RESULT_CLASS_LOOKUP.put("fib", NumberResult.class);
-        PATH_RESULT_CLASS_LOOKUP.put("remote-fib", NumberResult.class);
-        PATH_RESULT_CLASS_LOOKUP.put("remote", new ParameterizedTypeReference<StatusResult<StringResult>>(){});
-        PATH_RESULT_CLASS_LOOKUP.put("return", StringResult.class);
-        PATH_RESULT_CLASS_LOOKUP.put("receive", NumberResult.class);
-        PATH_RESULT_CLASS_LOOKUP.put("memory", NumberResult.class);
-    }
-
-    private LoadTestConfiguration loadTestConfiguration;
-    private LoadGeneratorService loadGeneratorService;
-
-    private RestTemplate restTemplate = new RestTemplate();
-
-    @Autowired
-    public FacetResource(LoadTestConfiguration loadTestConfiguration, LoadGeneratorService loadGeneratorService) {
-        this.loadTestConfiguration = loadTestConfiguration;
-        this.loadGeneratorService = loadGeneratorService;
-    }
-
-    @GetMapping(path = "/sleep")
-    public ResponseEntity<StringResult> sleepRequest(@RequestParam(value = "ms", required = false) Long ms) {
-
-        if (ms == null) {
-            ms = this.loadTestConfiguration.getDefaultSleepTimeMilliseconds();
-        }
-        log.debug("sleepRequest: ms={}", ms);
-        try {
-            Thread.sleep(ms);
-            return ResponseEntity.ok().body(new StringResult("OK"));
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-            return ResponseEntity.ok().body(new StringResult("Interrupted"));
-        }
-    }
-
-    @GetMapping(path = "/fib")
-    public ResponseEntity<NumberResult> fibonacciRequest(@RequestParam(value = "input", required = false) Integer input) {
-
-        if (input == null) {
-            input = this.loadTestConfiguration.getDefaultFibInput();
-        }
-        log.debug("fibonacciRequest: input={}", input);
-        if (input < 0 || input > 100) {
-            log.warn("fibonacciRequest input was bad (0 <= input < 100): {}", input);
-            return ResponseEntity.badRequest().build();
-        }
-        final int result = this.loadGeneratorService.computeFibonacciRecursive(input);
-        return ResponseEntity.ok().body(new NumberResult(result));
-    }
-
-    @GetMapping(path = "/remote-fib")
-    public ResponseEntity<NumberResult> remoteFibonacciRequest(
-            @RequestParam(value = "input", required = false) Integer input,
-            HttpServletRequest request) {
-
-        if (input == null) {
-            input = this.loadTestConfiguration.getDefaultFibInput();
-        }
-        log.debug("remoteFibonacciRequest: input={}", input);
-        if (input < 0 || input > 100) {
-            log.warn("remoteFibonacciRequest input was bad (0 <= input < 100): {}", input);
-            return ResponseEntity.badRequest().build();
-        }
-
-        if (input == 0) {
-            return ResponseEntity.ok().body(new NumberResult(0));
-        }
-        else if (input == 1) {
-            return ResponseEntity.ok().body(new NumberResult(1));
-        }
-        else {
-            String targetUrl = request.getRequestURL().toString();
-            if (this.loadTestConfiguration.isForceSsl()) {
-                targetUrl = targetUrl.replace("http:", "https:");
-            }
-            //log.info("remoteFibonacciRequest: targetUrl1={}", targetUrl);
-            final long fibMinus1 = restTemplate.getForEntity(
-                    targetUrl + "?input=" + (input-1), NumberResult.class).getBody().getResult();
-            //log.info("remoteFibonacciRequest: targetUrl2={}", targetUrl);
-            final long fibMinus2 = restTemplate.getForEntity(
-                    targetUrl + "?input=" + (input-2), NumberResult.class).getBody().getResult();
-            return ResponseEntity.ok().body(new NumberResult(fibMinus1 + fibMinus2));
-        }
-    }
-
-    @GetMapping(path = "/remote")
-    public ResponseEntity<StatusResult> remoteRequest(@RequestParam(value = "url", required = false) String url, HttpServletRequest request) {
-
-        if (url == null || url.trim().length() == 0) {
-            url = this.loadTestConfiguration.getDefaultRemoteUrl();
-        }
-        final String targetUrl = this.urlReplace(url, request);
-        log.debug("remoteRequest: url={}, targetUrl={}", url, targetUrl);
-
-        final URI targetUri;
-        try {
-            targetUri = new URI(targetUrl);
-        } catch (URISyntaxException e) {
-            e.printStackTrace();
-            return ResponseEntity.badRequest().body(new StatusResult<>(-1, e.getMessage()));
-        }
-        final Object resultClass = lookupResultClass(targetUri);
-        final ResponseEntity response;
-        if (resultClass instanceof ParameterizedTypeReference) {
-            response = restTemplate.exchange(targetUrl, HttpMethod.GET, null, (ParameterizedTypeReference) resultClass);
-        } else {
-            response = restTemplate.getForEntity(targetUrl, (Class) resultClass);
-        }
-        final int statusCode = response.getStatusCodeValue();
-        final Object result = response.getBody();
-        return ResponseEntity.ok().body(new StatusResult<>(statusCode, result));
-    }
-
-    @GetMapping(path = "/return", produces = "application/json")
-    public ResponseEntity<StringResult> returnRequest(@RequestParam(value = "size", required = false) Integer size) {
-
-        if (size == null) {
-            size = this.loadTestConfiguration.getDefaultReturnSize();
-        }
-        log.debug("returnRequest: size={}", size);
-        String result = this.loadGeneratorService.createStringOfSize(size);
-        return ResponseEntity.ok().body(new StringResult(result));
-    }
-
-    @GetMapping(path = "/return-blocks", produces = "text/plain")
-    public void returnBlocksRequest(
-            @RequestParam(value = "numberOfKiloByteBlocks", required = false) Integer numberOfKiloByteBlocks,
-            HttpServletResponse response) throws Exception {
-
-        if (numberOfKiloByteBlocks == null) {
-            numberOfKiloByteBlocks = this.loadTestConfiguration.getDefaultNumberOfKiloByteBlocks();
-        }
-
-        long contentLength = 1024 * numberOfKiloByteBlocks;
-        log.debug("streamedRequest: numberOfMegaByteBlocks={}, contentLength={}", numberOfKiloByteBlocks, contentLength);
-        response.setHeader("Content-Type", "text/plain");
-        response.setHeader("Content-Length", Long.toString(contentLength));
-        response.setHeader("Content-Disposition", "attachment;filename=download.txt");
-        this.loadGeneratorService.stream(response.getOutputStream(), numberOfKiloByteBlocks);
-    }
-
-    // A Spring variant of "Streaming"
-    @GetMapping(path = "/return-blocks-streamed")
-    public StreamingResponseBody returnBlocksRequest2(
-            @RequestParam(value = "numberOfKiloByteBlocks", required = false) Integer numberOfKiloByteBlocks,
-            HttpServletResponse response) {
-
-        if (numberOfKiloByteBlocks == null) {
-            numberOfKiloByteBlocks = this.loadTestConfiguration.getDefaultNumberOfKiloByteBlocks();
-        }
-
-        long contentLength = 1024 * numberOfKiloByteBlocks;
-        log.debug("streamedRequest: numberOfMegaByteBlocks={}, contentLength={}", numberOfKiloByteBlocks, contentLength);
-        response.setHeader("Content-Type", "text/plain");
-        response.setHeader("Content-Length", Long.toString(contentLength));
-        response.setHeader("Content-Disposition", "attachment;filename=download.txt");
-
-        final int numberOfKiloByteBlocksF = numberOfKiloByteBlocks;
-        return outputStream -> loadGeneratorService.stream(outputStream, numberOfKiloByteBlocksF);
-    }
-
-    @PostMapping(path = "/receive")
-    public ResponseEntity<NumberResult> receiveRequest(@RequestBody StringResult receive) {
-
-        return ResponseEntity.ok().body(new NumberResult(receive.getResult().length()));
-    }
-
-    @GetMapping(path = "/memory")
-    public ResponseEntity<NumberResult> memoryRequest(
-            @RequestParam(value = "factor", required = false) Integer factor) {
-
-        if (factor == null) {
-            factor = this.loadTestConfiguration.getDefaultMemoryFactor();
-        }
-
-        final Map<String, List<String>> object = this.loadGeneratorService.createLargeObject(factor);
-        final int size = this.loadGeneratorService.calculateSizeOfLargeObject(object);
-        log.debug("memoryRequest: size={}", size);
-        return ResponseEntity.ok().body(new NumberResult(size));
-    }
-
-    @GetMapping(path = "/sse-time-by-second")
-    public SseEmitter streamSseEventsEachSecond(@RequestParam(value = "nrOfEvents", required = false) Integer nrOfEventsParam) {
-
-        if (nrOfEventsParam == null) {
-            nrOfEventsParam = 10;
-        }
-        final int nrOfEvents = nrOfEventsParam;
-
-        SseEmitter emitter = new SseEmitter();
-        ExecutorService sseMvcExecutor = Executors.newSingleThreadExecutor();
-        sseMvcExecutor.execute(() -> {
-            try {
-                for (int i = 0; i < nrOfEvents; i++) {
-                    SseEmitter.SseEventBuilder event = SseEmitter.event()
-                            .data(LocalTime.now().toString())
-                            .id(String.valueOf(i))
-                            .name("sse-time-by-second");
-                    emitter.send(event);
-                    Thread.sleep(1000);
-                }
-            } catch (Exception ex) {
-                emitter.completeWithError(ex);
-            }
-        });
-        return emitter;
-    }
-
-    //------------------------------------------------------------------------------------------------------------------
-    //- HELPER OPERATIONS ----------------------------------------------------------------------------------------------
-    //------------------------------------------------------------------------------------------------------------------
-
-    @GetMapping(path = "/echo-url")
-    public ResponseEntity<StringResult> getRequestUrl(HttpServletRequest request) {
-
-        final String requestUrl = request.getRequestURL().toString();
-        log.debug("getRequestUrl: requestUrl={}", requestUrl);
-        return ResponseEntity.ok().body(new StringResult(requestUrl));
-    }
-
-    @GetMapping(path = "/echo-header")
-    public ResponseEntity<Map<String,String>> getRequestHeader(HttpServletRequest request) {
-
-        Map<String,String> ret = new HashMap<>();
-        enumerationAsStream(request.getHeaderNames())
-                .forEach(name -> ret.put(name, request.getHeader(name)));
-        return ResponseEntity.ok().body(ret);
-    }
-
-    @GetMapping(path = "/system-info")
-    public ResponseEntity<Map<String,String>> getSystemInfo(HttpServletRequest request) {
-
-        Map<String,String> ret = new HashMap<>();
-        System.getProperties().stringPropertyNames().stream().forEach(k -> ret.put(k, System.getProperty(k)));
-        return ResponseEntity.ok().body(ret);
-    }
-
-    //------------------------------------------------------------------------------------------------------------------
-
-    private String urlReplace(String url, HttpServletRequest request) {
-
-        String ret = url;
-        if (this.loadTestConfiguration.getUrlReplacementBase() != null) {
-            ret = ret.replace("$BASE$", this.loadTestConfiguration.getUrlReplacementBase());
-        }
-        final String requestUrl = request.getRequestURL().toString();
-        ret = urlReplace(ret, requestUrl);
-        if (this.loadTestConfiguration.isForceSsl()) {
-            ret = ret.replace("http:", "https:");
-        }
-        log.debug("urlReplace: requestUrl={}, ret={}", requestUrl, ret);
-        return ret;
-    }
-
-    // Not private to be testable
-    String urlReplace(String url, String requestUri) {
-
-        String ret = url;
-        try {
-            final URL requestUrl = new URL(requestUri);
-            ret = ret.replace("$PROTOCOL$", requestUrl.getProtocol());
-            ret = ret.replace("$HOST$", requestUrl.getHost());
-            int port = requestUrl.getPort();
-            if (port > 0) {
-                ret = ret.replace("$PORT$", Integer.toString(requestUrl.getPort()));
-            } else {
-                ret = ret.replace(":$PORT$", ""); // a bit hacky
-            }
-            String path = requestUrl.getPath();
-            String contextRoot = "";
-            if (path != null) {
-                int i = path.indexOf("/", 1);
-                if (i > 0) {
-                    contextRoot = path.substring(1, i);
-                }
-            }
-            ret = ret.replace("$CONTEXTROOT$", contextRoot);
-        } catch (MalformedURLException e) {
-            e.printStackTrace();
-        }
-        return ret;
-    }
-
-    private Object lookupResultClass(URI targetUri) {
-
-        String lastPath = targetUri.getPath();
-        lastPath = lastPath.substring(lastPath.lastIndexOf('/') + 1);
-        // log.debug("lookupResultClass: targetUri={}, lastPath={}", targetUri, lastPath);
-        return PATH_RESULT_CLASS_LOOKUP.get(lastPath);
-    }
-
-    private static <T> Stream<T> enumerationAsStream(Enumeration<T> e) {
-        return StreamSupport.stream(
-            Spliterators.spliteratorUnknownSize(
-                new Iterator<T>() {
-                    public T next() {
-                        return e.nextElement();
-                    }
-                    public boolean hasNext() {
-                        return e.hasMoreElements();
-                    }
-                    public void forEachRemaining(Consumer<? super T> action) {
-                        while(e.hasMoreElements()) action.accept(e.nextElement());
-                    }
-                },
-                Spliterator.ORDERED), false);
-    }
-}
+package de.datev.samples.loadtest.boundary;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.datev.samples.loadtest.config.EmbeddedServerInfo;
+import de.datev.samples.loadtest.config.LoadTestConfiguration;
+import de.datev.samples.loadtest.control.BlockCache;
+import de.datev.samples.loadtest.control.FacetMetrics;
+import de.datev.samples.loadtest.control.FibonacciMode;
+import de.datev.samples.loadtest.control.HeapPressureService;
+import de.datev.samples.loadtest.control.HeapPressureStatistics;
+import de.datev.samples.loadtest.control.HeapShape;
+import de.datev.samples.loadtest.control.OffHeapService;
+import de.datev.samples.loadtest.control.OffHeapStatistics;
+import de.datev.samples.loadtest.control.ScenarioReport;
+import de.datev.samples.loadtest.control.ScenarioService;
+import de.datev.samples.loadtest.control.ScenarioStep;
+import de.datev.samples.loadtest.control.ScenarioStepReport;
+import de.datev.samples.loadtest.control.SseBroadcaster;
+import de.datev.samples.loadtest.control.UrlReplacer;
+import de.datev.samples.loadtest.control.LoadGeneratorService;
+import de.datev.samples.loadtest.control.ParallelComputation;
+import de.datev.samples.loadtest.control.PayloadCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLEncoder;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Different test facets. Every test returns an object of type StringResult, NumberResult or StatusResult, so
+ * that the object mapper is always involved, which is a more realistic scenario.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/test")
+public class FacetResource {
+
+    private final Logger log = LoggerFactory.getLogger(FacetResource.class);
+
+    private static final long ASYNC_TIMEOUT_MARGIN_MILLISECONDS = 10000L;
+    private static final int SCATTER_MAX_CALLS = 10000;
+    private static final long MAX_CPU_MICROSECONDS = 60_000_000L;
+    private static final int MAX_MEMORY_FACTOR = 4096;
+    private static final int MIN_BLOCK_SIZE = 1024;
+    private static final int MAX_BLOCK_SIZE = BlockCache.MAX_BLOCK_SIZE;
+    private static final int MAX_SSE_PAYLOAD_SIZE = 1024 * 1024;
+    private static final String TRANSFER_MODE_HEADER = "X-Transfer-Mode";
+    private static final String THROUGHPUT_TRAILER = "X-Throughput-MBps";
+    // Tomcat's sendfile support, see org.apache.catalina.Globals
+    private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+    // Default for the parallel fib: split the 10 upper levels of the call tree into tasks
+    private static final int DEFAULT_FORK_DEPTH = 10;
+    // At most about fib(30) = 832040 tasks per request
+    private static final int MAX_FORK_DEPTH = 30;
+    // A ForkJoinPool is kept per parallelism, so the parallelism is bounded by the processors, too
+    private static final int MAX_FORK_JOIN_THREADS_PER_PROCESSOR = 4;
+
+    private static final HashMap<String, Object> PATH_RESULT_CLASS_LOOKUP = new HashMap<>();
+
+    static {
+        PATH_RESULT_CLASS_LOOKUP.put("sleep", StringResult.class);
+        PATH_RESULT_CLASS_LOOKUP.put("sleep-async", StringResult.class);
+        PATH_RESULT_CLASS_LOOKUP.put("fib", NumberResult.class);
+        PATH_RESULT_CLASS_LOOKUP.put("remote-fib", NumberResult.class);
+        PATH_RESULT_CLASS_LOOKUP.put("cpu", NumberResult.class);
+        PATH_RESULT_CLASS_LOOKUP.put("fib-parallel", ParallelResult.class);
+        PATH_RESULT_CLASS_LOOKUP.put("remote", new ParameterizedTypeReference<StatusResult<StringResult>>(){});
+        PATH_RESULT_CLASS_LOOKUP.put("scatter", new ParameterizedTypeReference<StatusResult<List<BranchResult>>>(){});
+        PATH_RESULT_CLASS_LOOKUP.put("return", StringResult.class);
+        PATH_RESULT_CLASS_LOOKUP.put("receive", NumberResult.class);
+        PATH_RESULT_CLASS_LOOKUP.put("receive-stream", UploadResult.class);
+        PATH_RESULT_CLASS_LOOKUP.put("memory", NumberResult.class);
+        PATH_RESULT_CLASS_LOOKUP.put("memory-pressure", HeapPressureResult.class);
+        PATH_RESULT_CLASS_LOOKUP.put("memory-offheap", OffHeapResult.class);
+        PATH_RESULT_CLASS_LOOKUP.put("scenario", ScenarioResult.class);
+    }
+
+    private LoadTestConfiguration loadTestConfiguration;
+    private LoadGeneratorService loadGeneratorService;
+    private HeapPressureService heapPressureService;
+    private OffHeapService offHeapService;
+    private ScenarioService scenarioService;
+    private SseBroadcaster sseBroadcaster;
+    private UrlReplacer urlReplacer;
+
+    private RestTemplate restTemplate;
+    private WebClient webClient;
+    private ObjectMapper objectMapper;
+    private PayloadCache payloadCache;
+    private EmbeddedServerInfo embeddedServerInfo;
+    private FacetMetrics facetMetrics;
+
+    @Autowired
+    public FacetResource(LoadTestConfiguration loadTestConfiguration, LoadGeneratorService loadGeneratorService,
+                         HeapPressureService heapPressureService, OffHeapService offHeapService,
+                         ScenarioService scenarioService, SseBroadcaster sseBroadcaster, UrlReplacer urlReplacer,
+                         RestTemplate restTemplate, WebClient webClient, ObjectMapper objectMapper,
+                         PayloadCache payloadCache, EmbeddedServerInfo embeddedServerInfo, FacetMetrics facetMetrics) {
+        this.loadTestConfiguration = loadTestConfiguration;
+        this.loadGeneratorService = loadGeneratorService;
+        this.heapPressureService = heapPressureService;
+        this.offHeapService = offHeapService;
+        this.scenarioService = scenarioService;
+        this.sseBroadcaster = sseBroadcaster;
+        this.urlReplacer = urlReplacer;
+        this.restTemplate = restTemplate;
+        this.webClient = webClient;
+        this.objectMapper = objectMapper;
+        this.payloadCache = payloadCache;
+        this.embeddedServerInfo = embeddedServerInfo;
+        this.facetMetrics = facetMetrics;
+    }
+
+    @GetMapping(path = "/sleep")
+    public ResponseEntity<StringResult> sleepRequest(@RequestParam(value = "ms", required = false) Long ms) {
+
+        if (ms == null) {
+            ms = this.loadTestConfiguration.getDefaultSleepTimeMilliseconds();
+        }
+        log.debug("sleepRequest: ms={}", ms);
+        try {
+            Thread.sleep(ms);
+            return ResponseEntity.ok().body(new StringResult("OK"));
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+            return ResponseEntity.ok().body(new StringResult("Interrupted"));
+        }
+    }
+
+    // The same as "/sleep", but the request thread is released while waiting. The response is completed by
+    // the shared scheduler, so the number of threads does not grow with the number of pending requests.
+    @GetMapping(path = "/sleep-async")
+    public DeferredResult<ResponseEntity<StringResult>> sleepAsyncRequest(@RequestParam(value = "ms", required = false) Long ms) {
+
+        if (ms == null) {
+            ms = this.loadTestConfiguration.getDefaultSleepTimeMilliseconds();
+        }
+        log.debug("sleepAsyncRequest: ms={}", ms);
+        final long maxMs = this.loadTestConfiguration.getMaxSleepTimeMilliseconds();
+        final DeferredResult<ResponseEntity<StringResult>> deferredResult =
+                new DeferredResult<>(Math.min(Math.max(ms, 0), maxMs) + ASYNC_TIMEOUT_MARGIN_MILLISECONDS);
+        if (ms < 0 || ms > maxMs) {
+            log.warn("sleepAsyncRequest input was bad (0 <= ms <= {}): {}", maxMs, ms);
+            deferredResult.setResult(ResponseEntity.badRequest().build());
+            return deferredResult;
+        }
+        this.loadGeneratorService.sleepAsync(ms)
+                .thenAccept(elapsed -> deferredResult.setResult(ResponseEntity.ok().body(new StringResult("OK"))));
+        return deferredResult;
+    }
+
+    @GetMapping(path = "/fib")
+    public ResponseEntity<NumberResult> fibonacciRequest(@RequestParam(value = "input", required = false) Integer input) {
+
+        if (input == null) {
+            input = this.loadTestConfiguration.getDefaultFibInput();
+        }
+        log.debug("fibonacciRequest: input={}", input);
+        if (input < 0 || input > 100) {
+            log.warn("fibonacciRequest input was bad (0 <= input < 100): {}", input);
+            return ResponseEntity.badRequest().build();
+        }
+        final long result = this.loadGeneratorService.computeFibonacciRecursive(input);
+        return ResponseEntity.ok().body(new NumberResult(result));
+    }
+
+    // The same as "/fib", but with a selectable algorithm (recursive, iterative, memoized, matrix) and an exact
+    // result for the whole input range.
+    @GetMapping(path = "/fib", params = "mode")
+    public ResponseEntity<BigNumberResult> fibonacciModeRequest(
+            @RequestParam(value = "input", required = false) Integer input,
+            @RequestParam(value = "mode") String mode) {
+
+        if (input == null) {
+            input = this.loadTestConfiguration.getDefaultFibInput();
+        }
+        log.debug("fibonacciModeRequest: input={}, mode={}", input, mode);
+        if (input < 0 || input > 100) {
+            log.warn("fibonacciModeRequest input was bad (0 <= input < 100): {}", input);
+            return ResponseEntity.badRequest().build();
+        }
+        final FibonacciMode fibonacciMode;
+        try {
+            fibonacciMode = FibonacciMode.fromString(mode);
+        } catch (IllegalArgumentException e) {
+            log.warn("fibonacciModeRequest mode was bad (recursive|iterative|memoized|matrix): {}", mode);
+            return ResponseEntity.badRequest().build();
+        }
+        final BigInteger result = this.loadGeneratorService.computeFibonacci(input, fibonacciMode);
+        return ResponseEntity.ok().body(new BigNumberResult(result));
+    }
+
+    // Splits the recursive computation of fib(input) across a ForkJoinPool with the given parallelism. The speedup
+    // (CPU time / wall time) shows, how many CPUs the container effectively gets.
+    @GetMapping(path = "/fib-parallel")
+    public ResponseEntity<ParallelResult> fibonacciParallelRequest(
+            @RequestParam(value = "input", required = false) Integer input,
+            @RequestParam(value = "parallelism", required = false) Integer parallelism,
+            @RequestParam(value = "cutoff", required = false) Integer cutoff) {
+
+        if (input == null) {
+            input = this.loadTestConfiguration.getDefaultFibInput();
+        }
+        if (parallelism == null) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        if (cutoff == null) {
+            cutoff = Math.max(input - DEFAULT_FORK_DEPTH, 1);
+        }
+        log.debug("fibonacciParallelRequest: input={}, parallelism={}, cutoff={}", input, parallelism, cutoff);
+        final int maxParallelism = Math.min(this.loadTestConfiguration.getMaxForkJoinParallelism(),
+                MAX_FORK_JOIN_THREADS_PER_PROCESSOR * Runtime.getRuntime().availableProcessors());
+        if (input < 0 || input > 100 || parallelism < 1 || parallelism > maxParallelism
+                || cutoff < 1 || input - cutoff > MAX_FORK_DEPTH) {
+            log.warn("fibonacciParallelRequest input was bad (0 <= input < 100, 1 <= parallelism <= {}, cutoff >= 1, "
+                            + "input - cutoff <= {}): {}, {}, {}",
+                    maxParallelism, MAX_FORK_DEPTH, input, parallelism, cutoff);
+            return ResponseEntity.badRequest().build();
+        }
+        final ParallelComputation computation =
+                this.loadGeneratorService.computeFibonacciParallel(input, parallelism, cutoff);
+        return ResponseEntity.ok().body(new ParallelResult(computation.getResult(), computation.getParallelism(),
+                computation.getWallTimeNanos() / 1000, computation.getCpuTimeNanos() / 1000,
+                computation.getSpeedup()));
+    }
+
+    // Burns the given CPU time (not wall time) of the request thread, independent of the CPU type. The result is
+    // the CPU time in microseconds, which was really consumed.
+    @GetMapping(path = "/cpu")
+    public ResponseEntity<NumberResult> cpuRequest(@RequestParam(value = "micros", required = false) Long micros) {
+
+        if (micros == null) {
+            micros = this.loadTestConfiguration.getDefaultCpuMicroseconds();
+        }
+        log.debug("cpuRequest: micros={}", micros);
+        if (micros < 0 || micros > MAX_CPU_MICROSECONDS) {
+            log.warn("cpuRequest micros was bad (0 <= micros <= {}): {}", MAX_CPU_MICROSECONDS, micros);
+            return ResponseEntity.badRequest().build();
+        }
+        final long result = this.loadGeneratorService.burnCpu(micros);
+        return ResponseEntity.ok().body(new NumberResult(result));
+    }
+
+    @GetMapping(path = "/remote-fib")
+    public ResponseEntity<NumberResult> remoteFibonacciRequest(
+            @RequestParam(value = "input", required = false) Integer input,
+            HttpServletRequest request) {
+
+        if (input == null) {
+            input = this.loadTestConfiguration.getDefaultFibInput();
+        }
+        log.debug("remoteFibonacciRequest: input={}", input);
+        if (input < 0 || input > 100) {
+            log.warn("remoteFibonacciRequest input was bad (0 <= input < 100): {}", input);
+            return ResponseEntity.badRequest().build();
+        }
+
+        if (input == 0) {
+            return ResponseEntity.ok().body(new NumberResult(0));
+        }
+        else if (input == 1) {
+            return ResponseEntity.ok().body(new NumberResult(1));
+        }
+        else {
+            final String targetUrl = selfUrl(request);
+            //log.info("remoteFibonacciRequest: targetUrl1={}", targetUrl);
+            final long fibMinus1 = restTemplate.getForEntity(
+                    targetUrl + "?input=" + (input-1), NumberResult.class).getBody().getResult();
+            //log.info("remoteFibonacciRequest: targetUrl2={}", targetUrl);
+            final long fibMinus2 = restTemplate.getForEntity(
+                    targetUrl + "?input=" + (input-2), NumberResult.class).getBody().getResult();
+            return ResponseEntity.ok().body(new NumberResult(fibMinus1 + fibMinus2));
+        }
+    }
+
+    // The same as "/remote-fib", but both child calls are sent at once using the non-blocking WebClient and the
+    // request thread is released while waiting. So the latency grows with the depth of the call tree only.
+    @GetMapping(path = "/remote-fib", params = "parallel=true")
+    public Mono<ResponseEntity<NumberResult>> remoteFibonacciParallelRequest(
+            @RequestParam(value = "input", required = false) Integer input,
+            HttpServletRequest request) {
+
+        if (input == null) {
+            input = this.loadTestConfiguration.getDefaultFibInput();
+        }
+        log.debug("remoteFibonacciParallelRequest: input={}", input);
+        if (input < 0 || input > 100) {
+            log.warn("remoteFibonacciParallelRequest input was bad (0 <= input < 100): {}", input);
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        if (input == 0) {
+            return Mono.just(ResponseEntity.ok().body(new NumberResult(0)));
+        }
+        else if (input == 1) {
+            return Mono.just(ResponseEntity.ok().body(new NumberResult(1)));
+        }
+        else {
+            final String targetUrl = selfUrl(request);
+            final Mono<NumberResult> fibMinus1 = webClient.get()
+                    .uri(targetUrl + "?parallel=true&input=" + (input-1))
+                    .retrieve().bodyToMono(NumberResult.class);
+            final Mono<NumberResult> fibMinus2 = webClient.get()
+                    .uri(targetUrl + "?parallel=true&input=" + (input-2))
+                    .retrieve().bodyToMono(NumberResult.class);
+            return Mono.zip(fibMinus1, fibMinus2, (r1, r2) -> ResponseEntity.ok().body(
+                    new NumberResult(r1.getResult() + r2.getResult())));
+        }
+    }
+
+    @GetMapping(path = "/remote")
+    public ResponseEntity<StatusResult> remoteRequest(@RequestParam(value = "url", required = false) String url, HttpServletRequest request) {
+
+        if (url == null || url.trim().length() == 0) {
+            url = this.loadTestConfiguration.getDefaultRemoteUrl();
+        }
+        final String targetUrl = this.urlReplace(url, request);
+        log.debug("remoteRequest: url={}, targetUrl={}", url, targetUrl);
+
+        final URI targetUri;
+        try {
+            targetUri = new URI(targetUrl);
+        } catch (URISyntaxException e) {
+            e.printStackTrace();
+            return ResponseEntity.badRequest().body(new StatusResult<>(-1, e.getMessage()));
+        }
+        final Object resultClass = lookupResultClass(targetUri);
+        final ResponseEntity response;
+        if (resultClass instanceof ParameterizedTypeReference) {
+            response = restTemplate.exchange(targetUrl, HttpMethod.GET, null, (ParameterizedTypeReference) resultClass);
+        } else {
+            response = restTemplate.getForEntity(targetUrl, (Class) resultClass);
+        }
+        final int statusCode = response.getStatusCodeValue();
+        final Object result = response.getBody();
+        return ResponseEntity.ok().body(new StatusResult<>(statusCode, result));
+    }
+
+    // Scatter-gather: calls "width" branches concurrently. With depth > 1 each branch calls this facet again with
+    // depth - 1, on depth 1 branch i calls url[i % number of urls]. Every call has its own deadline. With
+    // aggregation "all" all branches are awaited, with "first" the result is returned after the first success.
+    @GetMapping(path = "/scatter")
+    public Mono<ResponseEntity<StatusResult<List<BranchResult>>>> scatterRequest(
+            @RequestParam(value = "url", required = false) List<String> urls,
+            @RequestParam(value = "width", required = false) Integer width,
+            @RequestParam(value = "depth", required = false) Integer depth,
+            @RequestParam(value = "deadlineMs", required = false) Long deadlineMs,
+            @RequestParam(value = "aggregation", required = false, defaultValue = "all") String aggregation,
+            HttpServletRequest request) {
+
+        if (urls == null || urls.isEmpty()) {
+            urls = Collections.singletonList(this.loadTestConfiguration.getDefaultRemoteUrl());
+        }
+        if (width == null) {
+            width = urls.size();
+        }
+        if (depth == null) {
+            depth = 1;
+        }
+        if (deadlineMs == null) {
+            deadlineMs = this.loadTestConfiguration.getDefaultScatterDeadlineMilliseconds();
+        }
+        log.debug("scatterRequest: urls={}, width={}, depth={}, deadlineMs={}, aggregation={}",
+                urls, width, depth, deadlineMs, aggregation);
+        final boolean first = "first".equals(aggregation);
+        if (width < 1 || depth < 1 || deadlineMs < 1 || Math.pow(width, depth) > SCATTER_MAX_CALLS
+                || !(first || "all".equals(aggregation))) {
+            log.warn("scatterRequest input was bad (width >= 1, depth >= 1, width^depth <= {}, aggregation all|first): "
+                    + "width={}, depth={}, aggregation={}", SCATTER_MAX_CALLS, width, depth, aggregation);
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        final List<String> targetUrls = new ArrayList<>();
+        for (String url : urls) {
+            targetUrls.add(this.urlReplace(url, request));
+        }
+        final List<Mono<BranchResult>> branches = new ArrayList<>();
+        for (int i = 0; i < width; i++) {
+            final String targetUrl;
+            if (depth > 1) {
+                targetUrl = scatterUrl(selfUrl(request), targetUrls, width, depth - 1, deadlineMs, aggregation);
+            } else {
+                targetUrl = targetUrls.get(i % targetUrls.size());
+            }
+            branches.add(scatterBranch(i, targetUrl, depth > 1, deadlineMs));
+        }
+
+        final Flux<BranchResult> results = first
+                ? Flux.merge(branches).takeUntil(BranchResult::isSuccessful)
+                : Flux.mergeSequential(branches);
+        return results.collectList().map(list -> {
+            int status = HttpStatus.OK.value();
+            if (!first || list.isEmpty() || !list.get(list.size() - 1).isSuccessful()) {
+                for (BranchResult branchResult : list) {
+                    if (!branchResult.isSuccessful()) {
+                        status = Math.max(status, branchResult.getStatus());
+                    }
+                }
+            }
+            return ResponseEntity.ok().body(new StatusResult<>(status, list));
+        });
+    }
+
+    // Returns the serialized StringResult from a size-keyed cache, so only the network is measured.
+    @GetMapping(path = "/return", produces = "application/json")
+    public ResponseEntity<byte[]> returnCachedRequest(@RequestParam(value = "size", required = false) Integer size) {
+
+        if (size == null) {
+            size = this.loadTestConfiguration.getDefaultReturnSize();
+        }
+        log.debug("returnCachedRequest: size={}", size);
+        final byte[] result = this.payloadCache.get(size, s -> {
+            try {
+                return objectMapper.writeValueAsBytes(new StringResult(this.loadGeneratorService.createStringOfSize(s)));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON_UTF8).body(result);
+    }
+
+    // The uncached variant: allocation of the String and serialization on every request.
+    @GetMapping(path = "/return", params = "cache=false", produces = "application/json")
+    public ResponseEntity<StringResult> returnRequest(@RequestParam(value = "size", required = false) Integer size) {
+
+        if (size == null) {
+            size = this.loadTestConfiguration.getDefaultReturnSize();
+        }
+        log.debug("returnRequest: size={}", size);
+        String result = this.loadGeneratorService.createStringOfSize(size);
+        return ResponseEntity.ok().body(new StringResult(result));
+    }
+
+    // Supports "Range: bytes=..." requests with a single range (206). Multiple ranges are ignored (200). The
+    // achieved MB/s is recorded in loadtest.facet.throughput.
+    @GetMapping(path = "/return-blocks", produces = "text/plain")
+    public void returnBlocksRequest(
+            @RequestParam(value = "numberOfKiloByteBlocks", required = false) Integer numberOfKiloByteBlocks,
+            @RequestParam(value = "blockSize", required = false, defaultValue = "1024") Integer blockSize,
+            HttpServletRequest request,
+            HttpServletResponse response) throws Exception {
+
+        if (numberOfKiloByteBlocks == null) {
+            numberOfKiloByteBlocks = this.loadTestConfiguration.getDefaultNumberOfKiloByteBlocks();
+        }
+
+        final long contentLength = prepareBlocksResponse(numberOfKiloByteBlocks, blockSize, request, response);
+        if (contentLength >= 0) {
+            final long start = System.nanoTime();
+            final long written = this.loadGeneratorService.stream(response.getOutputStream(), contentLength, blockSize);
+            response.flushBuffer();
+            reportThroughput("return-blocks", "stream", written, start);
+        }
+    }
+
+    // A Spring variant of "Streaming"
+    @GetMapping(path = "/return-blocks-streamed")
+    public StreamingResponseBody returnBlocksRequest2(
+            @RequestParam(value = "numberOfKiloByteBlocks", required = false) Integer numberOfKiloByteBlocks,
+            @RequestParam(value = "blockSize", required = false, defaultValue = "1024") Integer blockSize,
+            HttpServletRequest request,
+            HttpServletResponse response) throws Exception {
+
+        if (numberOfKiloByteBlocks == null) {
+            numberOfKiloByteBlocks = this.loadTestConfiguration.getDefaultNumberOfKiloByteBlocks();
+        }
+
+        final long contentLength = prepareBlocksResponse(numberOfKiloByteBlocks, blockSize, request, response);
+        if (contentLength < 0) {
+            return null;
+        }
+        final int blockSizeF = blockSize;
+        return outputStream -> {
+            final long start = System.nanoTime();
+            final long written = loadGeneratorService.stream(outputStream, contentLength, blockSizeF);
+            outputStream.flush();
+            reportThroughput("return-blocks-streamed", "stream", written, start);
+        };
+    }
+
+    // A high-throughput variant of "/return-blocks": with sendfile=true the payload is sent by the servlet container
+    // from a temporary file using sendfile (Tomcat only), otherwise it is written in large blocks of a shared array.
+    // The servlet API has no channel to the socket, a direct buffer would be copied into the response buffer again.
+    // The achieved MB/s of the written blocks are recorded in loadtest.facet.throughput and, if the client accepts
+    // trailers ("TE: trailers"), the response is chunked and the MB/s are sent in the trailer "X-Throughput-MBps",
+    // too. With sendfile the container writes the body after the request has been handled, its throughput can only
+    // be measured by the client, e.g. the /api/driver.
+    @GetMapping(path = "/return-blocks-direct", produces = "text/plain")
+    public void returnBlocksDirectRequest(
+            @RequestParam(value = "numberOfKiloByteBlocks", required = false) Integer numberOfKiloByteBlocks,
+            @RequestParam(value = "blockSize", required = false) Integer blockSize,
+            @RequestParam(value = "sendfile", required = false, defaultValue = "false") boolean sendfile,
+            HttpServletRequest request,
+            HttpServletResponse response) throws Exception {
+
+        if (numberOfKiloByteBlocks == null) {
+            numberOfKiloByteBlocks = this.loadTestConfiguration.getDefaultNumberOfKiloByteBlocks();
+        }
+        if (blockSize == null) {
+            blockSize = this.loadTestConfiguration.getDefaultDirectBlockSize();
+        }
+        if (blockSize < MIN_BLOCK_SIZE || blockSize > MAX_BLOCK_SIZE) {
+            log.warn("returnBlocksDirectRequest blockSize was bad ({} <= blockSize <= {}): {}",
+                    MIN_BLOCK_SIZE, MAX_BLOCK_SIZE, blockSize);
+            response.sendError(HttpStatus.BAD_REQUEST.value());
+            return;
+        }
+
+        final long contentLength = 1024L * numberOfKiloByteBlocks;
+        log.debug("returnBlocksDirectRequest: numberOfKiloByteBlocks={}, blockSize={}, sendfile={}, contentLength={}",
+                numberOfKiloByteBlocks, blockSize, sendfile, contentLength);
+        response.setHeader("Content-Type", "text/plain");
+        response.setHeader("Content-Disposition", "attachment;filename=download.txt");
+
+        if (sendfile && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))) {
+            final Path payloadFile = this.loadGeneratorService.getPayloadFile(contentLength);
+            if (payloadFile != null) {
+                response.setHeader("Content-Length", Long.toString(contentLength));
+                response.setHeader(TRANSFER_MODE_HEADER, "sendfile");
+                request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, payloadFile.toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START_ATTRIBUTE, 0L);
+                request.setAttribute(SENDFILE_END_ATTRIBUTE, contentLength);
+                return;
+            }
+        }
+
+        response.setHeader(TRANSFER_MODE_HEADER, "stream");
+        final AtomicLong throughput = new AtomicLong(-1);
+        final String te = request.getHeader("TE");
+        if (te != null && te.contains("trailers") && "HTTP/1.1".equals(request.getProtocol())) {
+            response.setHeader("Trailer", THROUGHPUT_TRAILER);
+            response.setTrailerFields(() ->
+                    Collections.singletonMap(THROUGHPUT_TRAILER, Long.toString(throughput.get())));
+        } else {
+            response.setHeader("Content-Length", Long.toString(contentLength));
+        }
+        final long start = System.nanoTime();
+        final long written = this.loadGeneratorService.stream(response.getOutputStream(), contentLength, blockSize);
+        response.flushBuffer();
+        throughput.set(reportThroughput("return-blocks-direct", "stream", written, start));
+    }
+
+    @PostMapping(path = "/receive")
+    public ResponseEntity<NumberResult> receiveRequest(@RequestBody StringResult receive) {
+
+        return ResponseEntity.ok().body(new NumberResult(receive.getResult().length()));
+    }
+
+    // The same as "/receive", but the raw body is read in chunks into a reused buffer instead of being bound to
+    // a String, so the heap usage does not depend on the upload size.
+    @PostMapping(path = "/receive-stream")
+    public ResponseEntity<UploadResult> receiveStreamRequest(HttpServletRequest request) throws IOException {
+
+        final CRC32 crc32 = new CRC32();
+        final long start = System.nanoTime();
+        final long length = this.loadGeneratorService.consume(request.getInputStream(), crc32);
+        final long nanos = Math.max(System.nanoTime() - start, 1);
+        log.debug("receiveStreamRequest: length={}, crc32={}, nanos={}", length, crc32.getValue(), nanos);
+        return ResponseEntity.ok().body(new UploadResult(length, crc32.getValue(), nanos / 1000,
+                length * 1000.0 / nanos));
+    }
+
+    // Builds a map of factor lists with factor strings each. fast=false uses the original String.format generator.
+    @GetMapping(path = "/memory")
+    public ResponseEntity<NumberResult> memoryRequest(
+            @RequestParam(value = "factor", required = false) Integer factor,
+            @RequestParam(value = "fast", required = false, defaultValue = "true") boolean fast) {
+
+        if (factor == null) {
+            factor = this.loadTestConfiguration.getDefaultMemoryFactor();
+        }
+        if (factor < 0 || factor > MAX_MEMORY_FACTOR) {
+            log.warn("memoryRequest input was bad (0 <= factor <= {}): {}", MAX_MEMORY_FACTOR, factor);
+            return ResponseEntity.badRequest().build();
+        }
+
+        final Map<String, List<String>> object = fast
+                ? this.loadGeneratorService.createLargeObjectFast(factor)
+                : this.loadGeneratorService.createLargeObject(factor);
+        final int size = this.loadGeneratorService.calculateSizeOfLargeObject(object);
+        log.debug("memoryRequest: size={}", size);
+        return ResponseEntity.ok().body(new NumberResult(size));
+    }
+
+    // A variant of "/memory", which streams the JSON of the large object to the client instead of its size. The
+    // entries are generated while writing, the object itself is never built.
+    @GetMapping(path = "/memory", params = "emit=true")
+    public ResponseEntity<StreamingResponseBody> memoryEmitRequest(
+            @RequestParam(value = "factor", required = false) Integer factor,
+            @RequestParam(value = "fast", required = false, defaultValue = "true") boolean fast) {
+
+        if (factor == null) {
+            factor = this.loadTestConfiguration.getDefaultMemoryFactor();
+        }
+        log.debug("memoryEmitRequest: factor={}", factor);
+        if (factor < 0 || factor > MAX_MEMORY_FACTOR) {
+            log.warn("memoryEmitRequest input was bad (0 <= factor <= {}): {}", MAX_MEMORY_FACTOR, factor);
+            return ResponseEntity.badRequest().build();
+        }
+
+        final int factorF = factor;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON_UTF8)
+                .body(outputStream -> loadGeneratorService.writeLargeObject(factorF, fast, outputStream));
+    }
+
+    // Allocates an object graph (shape: wide-map, deep-list, large-array) and keeps it for retainMs or, with
+    // ring=true, in a bounded ring until it is displaced. Without both, it is garbage after the request.
+    @GetMapping(path = "/memory-pressure")
+    public ResponseEntity<HeapPressureResult> memoryPressureRequest(
+            @RequestParam(value = "shape", required = false, defaultValue = "wide-map") String shape,
+            @RequestParam(value = "kiloBytes", required = false) Integer kiloBytes,
+            @RequestParam(value = "retainMs", required = false, defaultValue = "0") long retainMs,
+            @RequestParam(value = "ring", required = false, defaultValue = "false") boolean ring) {
+
+        if (kiloBytes == null) {
+            kiloBytes = this.loadTestConfiguration.getDefaultHeapPressureKiloBytes();
+        }
+        log.debug("memoryPressureRequest: shape={}, kiloBytes={}, retainMs={}, ring={}", shape, kiloBytes, retainMs, ring);
+        final HeapShape heapShape;
+        try {
+            heapShape = HeapShape.fromString(shape);
+        } catch (IllegalArgumentException e) {
+            log.warn("memoryPressureRequest shape was bad (wide-map|deep-list|large-array): {}", shape);
+            return ResponseEntity.badRequest().build();
+        }
+        final int maxKiloBytes = this.loadTestConfiguration.getHeapPressureMaxKiloBytes();
+        if (kiloBytes < 1 || kiloBytes > maxKiloBytes || retainMs < 0) {
+            log.warn("memoryPressureRequest input was bad (1 <= kiloBytes <= {}, retainMs >= 0): {}, {}",
+                    maxKiloBytes, kiloBytes, retainMs);
+            return ResponseEntity.badRequest().build();
+        }
+        final HeapPressureStatistics statistics;
+        try {
+            statistics = this.heapPressureService.allocate(heapShape, 1024L * kiloBytes, retainMs, ring);
+        } catch (IllegalStateException e) {
+            log.warn("memoryPressureRequest rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (OutOfMemoryError e) {
+            log.warn("memoryPressureRequest failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INSUFFICIENT_STORAGE).build();
+        }
+        return ResponseEntity.ok().body(new HeapPressureResult(statistics.getAllocatedBytes(),
+                statistics.getRetainedBytes(), statistics.getGcCount(), statistics.getGcTimeMilliseconds()));
+    }
+
+    // Allocates direct (off-heap) memory, touches every page and keeps it for ttlMs. Reports the process RSS.
+    @GetMapping(path = "/memory-offheap")
+    public ResponseEntity<OffHeapResult> memoryOffHeapRequest(
+            @RequestParam(value = "megaBytes", required = false) Integer megaBytes,
+            @RequestParam(value = "ttlMs", required = false, defaultValue = "0") long ttlMs) {
+
+        if (megaBytes == null) {
+            megaBytes = this.loadTestConfiguration.getDefaultOffHeapMegaBytes();
+        }
+        log.debug("memoryOffHeapRequest: megaBytes={}, ttlMs={}", megaBytes, ttlMs);
+        if (megaBytes < 1 || ttlMs < 0) {
+            log.warn("memoryOffHeapRequest input was bad (megaBytes >= 1, ttlMs >= 0): {}, {}", megaBytes, ttlMs);
+            return ResponseEntity.badRequest().build();
+        }
+        final OffHeapStatistics statistics;
+        try {
+            statistics = this.offHeapService.allocate(1024L * 1024L * megaBytes, ttlMs);
+        } catch (IllegalStateException e) {
+            log.warn("memoryOffHeapRequest rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } catch (OutOfMemoryError e) {
+            log.warn("memoryOffHeapRequest failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INSUFFICIENT_STORAGE).build();
+        }
+        return ResponseEntity.ok().body(new OffHeapResult(statistics.getAllocatedBytes(), statistics.getRetainedBytes(),
+                statistics.getResidentSetSizeBefore(), statistics.getResidentSetSizeAfter()));
+    }
+
+    // Frees all retained off-heap memory at once
+    @GetMapping(path = "/memory-offheap", params = "release=true")
+    public ResponseEntity<OffHeapResult> memoryOffHeapReleaseRequest() {
+
+        final long rssBefore = this.offHeapService.getResidentSetSize();
+        final long freed = this.offHeapService.releaseAll();
+        log.debug("memoryOffHeapReleaseRequest: freed={}", freed);
+        return ResponseEntity.ok().body(new OffHeapResult(freed, this.offHeapService.getRetainedBytes(), rssBefore,
+                this.offHeapService.getResidentSetSize()));
+    }
+
+    // Sends nrOfEvents events with the current time at a rate of eventsPerSecond, each padded with payloadSize
+    // characters. All subscribers share the threads of the SharedScheduler and the SharedSender.
+    @GetMapping(path = "/sse-time-by-second")
+    public ResponseEntity<SseEmitter> streamSseEventsEachSecond(
+            @RequestParam(value = "nrOfEvents", required = false, defaultValue = "10") int nrOfEvents,
+            @RequestParam(value = "eventsPerSecond", required = false, defaultValue = "1") int eventsPerSecond,
+            @RequestParam(value = "payloadSize", required = false, defaultValue = "0") int payloadSize,
+            @RequestParam(value = "timeoutMs", required = false) Long timeoutMs) {
+
+        if (timeoutMs == null) {
+            timeoutMs = this.loadTestConfiguration.getDefaultSseTimeoutMilliseconds();
+        }
+        log.debug("streamSseEventsEachSecond: nrOfEvents={}, eventsPerSecond={}, payloadSize={}, timeoutMs={}",
+                nrOfEvents, eventsPerSecond, payloadSize, timeoutMs);
+        if (nrOfEvents < 1 || eventsPerSecond < 1 || eventsPerSecond > this.loadTestConfiguration.getMaxSseEventsPerSecond()
+                || payloadSize < 0 || payloadSize > MAX_SSE_PAYLOAD_SIZE || timeoutMs < 1) {
+            log.warn("streamSseEventsEachSecond input was bad (nrOfEvents >= 1, 1 <= eventsPerSecond <= {}, "
+                            + "0 <= payloadSize <= {}, timeoutMs >= 1): {}, {}, {}, {}",
+                    this.loadTestConfiguration.getMaxSseEventsPerSecond(), MAX_SSE_PAYLOAD_SIZE,
+                    nrOfEvents, eventsPerSecond, payloadSize, timeoutMs);
+            return ResponseEntity.badRequest().build();
+        }
+
+        final SseEmitter emitter = new SseEmitter(timeoutMs);
+        this.sseBroadcaster.subscribe(emitter, "sse-time-by-second", nrOfEvents, eventsPerSecond, payloadSize);
+        return ResponseEntity.ok(emitter);
+    }
+
+    // Runs the steps of the named scenario from app-config.scenarios one after another on the request thread, e.g.
+    // sleep, cpu, remote calls, allocation and a payload, and returns the payload with the timing of each step
+    @GetMapping(path = "/scenario")
+    public ResponseEntity<ScenarioResult> scenarioRequest(@RequestParam(value = "name") String name,
+                                                          HttpServletRequest request) {
+
+        log.debug("scenarioRequest: name={}", name);
+        final List<ScenarioStep> steps = this.scenarioService.getScenario(name);
+        if (steps == null) {
+            log.warn("scenarioRequest name was bad (not in app-config.scenarios): {}", name);
+            return ResponseEntity.notFound().build();
+        }
+        return runScenario(name, steps, request);
+    }
+
+    // The same as "/scenario", but the steps are posted as a JSON array of {"type", "value", "url"}
+    @PostMapping(path = "/scenario")
+    public ResponseEntity<ScenarioResult> scenarioPostRequest(@RequestBody List<ScenarioStep> steps,
+                                                              HttpServletRequest request) {
+
+        log.debug("scenarioPostRequest: steps={}", steps);
+        return runScenario("posted", steps, request);
+    }
+
+    private ResponseEntity<ScenarioResult> runScenario(String name, List<ScenarioStep> steps,
+                                                       HttpServletRequest request) {
+
+        final ScenarioReport report;
+        try {
+            report = this.scenarioService.run(name, steps, request.getRequestURL().toString());
+        } catch (IllegalArgumentException e) {
+            log.warn("scenarioRequest steps were bad ({}): {}", e.getMessage(), steps);
+            return ResponseEntity.badRequest().build();
+        }
+        final ScenarioResult result = new ScenarioResult();
+        result.setResult(report.getPayload());
+        result.setName(report.getName());
+        result.setDurationMilliseconds(report.getDurationNanos() / 1_000_000.0);
+        final List<ScenarioStepResult> stepResults = new ArrayList<>(report.getSteps().size());
+        for (ScenarioStepReport stepReport : report.getSteps()) {
+            final ScenarioStepResult stepResult = new ScenarioStepResult();
+            stepResult.setType(stepReport.getType().name().toLowerCase(Locale.ROOT));
+            stepResult.setValue(stepReport.getValue());
+            stepResult.setUrl(stepReport.getUrl());
+            stepResult.setDurationMilliseconds(stepReport.getDurationNanos() / 1_000_000.0);
+            stepResult.setResult(stepReport.getResult());
+            stepResult.setStatus(stepReport.getStatus());
+            stepResults.add(stepResult);
+        }
+        result.setSteps(stepResults);
+        return ResponseEntity.ok().body(result);
+    }
+
+    //------------------------------------------------------------------------------------------------------------------
+    //- HELPER OPERATIONS ----------------------------------------------------------------------------------------------
+    //------------------------------------------------------------------------------------------------------------------
+
+    @GetMapping(path = "/echo-url")
+    public ResponseEntity<StringResult> getRequestUrl(HttpServletRequest request) {
+
+        final String requestUrl = request.getRequestURL().toString();
+        log.debug("getRequestUrl: requestUrl={}", requestUrl);
+        return ResponseEntity.ok().body(new StringResult(requestUrl));
+    }
+
+    @GetMapping(path = "/echo-header")
+    public ResponseEntity<Map<String,String>> getRequestHeader(HttpServletRequest request) {
+
+        Map<String,String> ret = new HashMap<>();
+        enumerationAsStream(request.getHeaderNames())
+                .forEach(name -> ret.put(name, request.getHeader(name)));
+        return ResponseEntity.ok().body(ret);
+    }
+
+    // The system properties and the effective configuration of the embedded server ("webserver.*")
+    @GetMapping(path = "/system-info")
+    public ResponseEntity<Map<String,String>> getSystemInfo(HttpServletRequest request) {
+
+        Map<String,String> ret = new HashMap<>();
+        System.getProperties().stringPropertyNames().stream().forEach(k -> ret.put(k, System.getProperty(k)));
+        ret.putAll(this.embeddedServerInfo.getEffectiveConfiguration());
+        return ResponseEntity.ok().body(ret);
+    }
+
+    //------------------------------------------------------------------------------------------------------------------
+
+    private String urlReplace(String url, HttpServletRequest request) {
+
+        final String requestUrl = request.getRequestURL().toString();
+        final String ret = this.urlReplacer.replace(url, requestUrl);
+        log.debug("urlReplace: requestUrl={}, ret={}", requestUrl, ret);
+        return ret;
+    }
+
+    // Sets the headers of the block download facets and evaluates the Range header. Returns the number of bytes,
+    // which have to be written, or -1, if the response was already completed with an error.
+    private long prepareBlocksResponse(int numberOfKiloByteBlocks, int blockSize,
+                                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+
+        if (blockSize < MIN_BLOCK_SIZE || blockSize > MAX_BLOCK_SIZE) {
+            log.warn("blocks request blockSize was bad ({} <= blockSize <= {}): {}",
+                    MIN_BLOCK_SIZE, MAX_BLOCK_SIZE, blockSize);
+            response.sendError(HttpStatus.BAD_REQUEST.value());
+            return -1;
+        }
+        final long totalLength = 1024L * numberOfKiloByteBlocks;
+        long contentLength = totalLength;
+        response.setHeader("Content-Type", "text/plain");
+        response.setHeader("Content-Disposition", "attachment;filename=download.txt");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        final String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                log.debug("blocks request: ignoring invalid range {}", rangeHeader);
+                ranges = Collections.emptyList();
+            }
+            if (ranges.size() == 1) {
+                final HttpRange range = ranges.get(0);
+                final long start = range.getRangeStart(totalLength);
+                if (start >= totalLength) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + totalLength);
+                    response.sendError(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return -1;
+                }
+                final long end = range.getRangeEnd(totalLength);
+                contentLength = end - start + 1;
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + totalLength);
+            }
+        }
+        log.debug("blocks request: numberOfKiloByteBlocks={}, blockSize={}, range={}, contentLength={}",
+                numberOfKiloByteBlocks, blockSize, rangeHeader, contentLength);
+        response.setHeader("Content-Length", Long.toString(contentLength));
+        return contentLength;
+    }
+
+    // Records the MB/s of a body written since startNanos and returns it
+    private long reportThroughput(String facet, String mode, long written, long startNanos) {
+
+        final long nanos = Math.max(System.nanoTime() - startNanos, 1);
+        final double megaBytesPerSecond = written * 1000.0 / nanos;
+        this.facetMetrics.recordThroughput(facet, mode, megaBytesPerSecond);
+        log.debug("{}: mode={}, written={}, MB/s={}", facet, mode, written, megaBytesPerSecond);
+        return Math.round(megaBytesPerSecond);
+    }
+
+    private String selfUrl(HttpServletRequest request) {
+
+        String ret = request.getRequestURL().toString();
+        if (this.loadTestConfiguration.isForceSsl()) {
+            ret = ret.replace("http:", "https:");
+        }
+        return ret;
+    }
+
+    private Mono<BranchResult> scatterBranch(int branch, String targetUrl, boolean nested, long deadlineMs) {
+
+        final URI targetUri;
+        try {
+            targetUri = new URI(targetUrl);
+        } catch (URISyntaxException e) {
+            return Mono.just(new BranchResult(branch, targetUrl, HttpStatus.BAD_REQUEST.value(), 0, e.getMessage()));
+        }
+        return Mono.defer(() -> {
+            final long start = System.nanoTime();
+            return webClient.get().uri(targetUri).exchange()
+                    .flatMap(response -> {
+                        final int status = response.statusCode().value();
+                        if (nested && response.statusCode().is2xxSuccessful()) {
+                            // a nested scatter reports the aggregated status of its own branches
+                            return response.bodyToMono(StatusResult.class).map(StatusResult::getStatus);
+                        }
+                        return response.bodyToMono(Void.class).thenReturn(status);
+                    })
+                    .timeout(Duration.ofMillis(deadlineMs))
+                    .map(status -> new BranchResult(branch, targetUrl, status, elapsedMilliseconds(start), null))
+                    .onErrorResume(e -> Mono.just(e instanceof TimeoutException
+                            ? new BranchResult(branch, targetUrl, HttpStatus.GATEWAY_TIMEOUT.value(),
+                                    elapsedMilliseconds(start), "Deadline exceeded")
+                            : new BranchResult(branch, targetUrl, HttpStatus.BAD_GATEWAY.value(),
+                                    elapsedMilliseconds(start), e.toString())));
+        });
+    }
+
+    private static String scatterUrl(String selfUrl, List<String> targetUrls, int width, int depth, long deadlineMs,
+                                     String aggregation) {
+
+        StringBuilder ret = new StringBuilder(selfUrl)
+                .append("?width=").append(width)
+                .append("&depth=").append(depth)
+                .append("&deadlineMs=").append(deadlineMs)
+                .append("&aggregation=").append(aggregation);
+        try {
+            for (String targetUrl : targetUrls) {
+                ret.append("&url=").append(URLEncoder.encode(targetUrl, "UTF-8"));
+            }
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+        return ret.toString();
+    }
+
+    private static long elapsedMilliseconds(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    // Not private to be testable
+    String urlReplace(String url, String requestUri) {
+        return this.urlReplacer.replacePlaceholders(url, requestUri);
+    }
+
+    // Not private to be used by the reactive variant
+    static Object lookupResultClass(URI targetUri) {
+
+        String lastPath = targetUri.getPath();
+        lastPath = lastPath.substring(lastPath.lastIndexOf('/') + 1);
+        // log.debug("lookupResultClass: targetUri={}, lastPath={}", targetUri, lastPath);
+        return PATH_RESULT_CLASS_LOOKUP.get(lastPath);
+    }
+
+    private static <T> Stream<T> enumerationAsStream(Enumeration<T> e) {
+        return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(
+                new Iterator<T>() {
+                    public T next() {
+                        return e.nextElement();
+                    }
+                    public boolean hasNext() {
+                        return e.hasMoreElements();
+                    }
+                    public void forEachRemaining(Consumer<? super T> action) {
+                        while(e.hasMoreElements()) action.accept(e.nextElement());
+                    }
+                },
+                Spliterator.ORDERED), false);
+    }
+}
@@ -0,0 +1,46 @@
+package de.datev.samples.loadtest.boundary;
+
+/**
+ * A NumberResult with the allocated bytes, the garbage collections during the request and the bytes, which are
+ * currently retained by all heap pressure requests.
+ */
+public class HeapPressureResult extends NumberResult {
+
+    long retainedBytes;
+    long gcCount;
+    long gcTimeMilliseconds;
+
+    public HeapPressureResult() {
+    }
+
+    public HeapPressureResult(long result, long retainedBytes, long gcCount, long gcTimeMilliseconds) {
+        super(result);
+        this.retainedBytes = retainedBytes;
+        this.gcCount = gcCount;
+        this.gcTimeMilliseconds = gcTimeMilliseconds;
+    }
+
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    public void setRetainedBytes(long retainedBytes) {
+        this.retainedBytes = retainedBytes;
+    }
+
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public void setGcCount(long gcCount) {
+        this.gcCount = gcCount;
+    }
+
+    public long getGcTimeMilliseconds() {
+        return gcTimeMilliseconds;
+    }
+
+    public void setGcTimeMilliseconds(long gcTimeMilliseconds) {
+        this.gcTimeMilliseconds = gcTimeMilliseconds;
+    }
+}
@@ -1,21 +1,21 @@
-package de.datev.samples.loadtest.boundary;
-
-public class NumberResult {
-
-    long result;
-
-    public NumberResult() {
-    }
-
-    public NumberResult(long result) {
-        this.result = result;
-    }
-
-    public long getResult() {
-        return result;
-    }
-
-    public void setResult(long result) {
-        this.result = result;
-    }
-}
+package de.datev.samples.loadtest.boundary;
+
+public class NumberResult {
+
+    long result;
+
+    public NumberResult() {
+    }
+
+    public NumberResult(long result) {
+        this.result = result;
+    }
+
+    public long getResult() {
+        return result;
+    }
+
+    public void setResult(long result) {
+        this.result = result;
+    }
+}
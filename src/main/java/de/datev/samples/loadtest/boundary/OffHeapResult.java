@@ -0,0 +1,46 @@
+package de.datev.samples.loadtest.boundary;
+
+/**
+ * A NumberResult with the allocated direct memory, the direct memory currently retained by all off-heap requests and
+ * the resident set size of the process before and after the allocation (-1, if not available).
+ */
+public class OffHeapResult extends NumberResult {
+
+    long retainedBytes;
+    long rssBeforeBytes;
+    long rssAfterBytes;
+
+    public OffHeapResult() {
+    }
+
+    public OffHeapResult(long result, long retainedBytes, long rssBeforeBytes, long rssAfterBytes) {
+        super(result);
+        this.retainedBytes = retainedBytes;
+        this.rssBeforeBytes = rssBeforeBytes;
+        this.rssAfterBytes = rssAfterBytes;
+    }
+
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    public void setRetainedBytes(long retainedBytes) {
+        this.retainedBytes = retainedBytes;
+    }
+
+    public long getRssBeforeBytes() {
+        return rssBeforeBytes;
+    }
+
+    public void setRssBeforeBytes(long rssBeforeBytes) {
+        this.rssBeforeBytes = rssBeforeBytes;
+    }
+
+    public long getRssAfterBytes() {
+        return rssAfterBytes;
+    }
+
+    public void setRssAfterBytes(long rssAfterBytes) {
+        this.rssAfterBytes = rssAfterBytes;
+    }
+}
@@ -0,0 +1,56 @@
+package de.datev.samples.loadtest.boundary;
+
+/**
+ * A NumberResult with the timing of a computation, which was split across several threads.
+ */
+public class ParallelResult extends NumberResult {
+
+    int parallelism;
+    long wallTimeMicroseconds;
+    long cpuTimeMicroseconds;
+    double speedup;
+
+    public ParallelResult() {
+    }
+
+    public ParallelResult(long result, int parallelism, long wallTimeMicroseconds, long cpuTimeMicroseconds,
+                          double speedup) {
+        super(result);
+        this.parallelism = parallelism;
+        this.wallTimeMicroseconds = wallTimeMicroseconds;
+        this.cpuTimeMicroseconds = cpuTimeMicroseconds;
+        this.speedup = speedup;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public long getWallTimeMicroseconds() {
+        return wallTimeMicroseconds;
+    }
+
+    public void setWallTimeMicroseconds(long wallTimeMicroseconds) {
+        this.wallTimeMicroseconds = wallTimeMicroseconds;
+    }
+
+    public long getCpuTimeMicroseconds() {
+        return cpuTimeMicroseconds;
+    }
+
+    public void setCpuTimeMicroseconds(long cpuTimeMicroseconds) {
+        this.cpuTimeMicroseconds = cpuTimeMicroseconds;
+    }
+
+    public double getSpeedup() {
+        return speedup;
+    }
+
+    public void setSpeedup(double speedup) {
+        this.speedup = speedup;
+    }
+}
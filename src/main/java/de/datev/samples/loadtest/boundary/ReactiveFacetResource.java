@@ -0,0 +1,342 @@
+package de.datev.samples.loadtest.boundary;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.datev.samples.loadtest.config.EmbeddedServerInfo;
+import de.datev.samples.loadtest.config.LoadTestConfiguration;
+import de.datev.samples.loadtest.control.BlockCache;
+import de.datev.samples.loadtest.control.LoadGeneratorService;
+import de.datev.samples.loadtest.control.PayloadCache;
+import de.datev.samples.loadtest.control.SseBroadcaster;
+import de.datev.samples.loadtest.control.UrlReplacer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The non-blocking variant of the main facets for the "reactive" profile (spring.main.web-application-type=reactive),
+ * which runs on Reactor Netty instead of the servlet container. Paths, parameters and result types are the same as
+ * in FacetResource, so that the same load tests can be run against both stacks. No request holds a thread while
+ * waiting: sleep uses the shared scheduler, remote calls the WebClient, SSE events are emitted by Reactor timers.
+ * fib and cpu are computed on the parallel scheduler of Reactor (one thread per CPU), so that they never block the
+ * event loop. The other facets of FacetResource are not available in this mode.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping("/api/test")
+public class ReactiveFacetResource {
+
+    private final Logger log = LoggerFactory.getLogger(ReactiveFacetResource.class);
+
+    private static final long MAX_CPU_MICROSECONDS = 60_000_000L;
+    private static final int MIN_BLOCK_SIZE = 1024;
+    private static final int MAX_BLOCK_SIZE = BlockCache.MAX_BLOCK_SIZE;
+    private static final int MAX_SSE_PAYLOAD_SIZE = 1024 * 1024;
+
+    private LoadTestConfiguration loadTestConfiguration;
+    private LoadGeneratorService loadGeneratorService;
+    private UrlReplacer urlReplacer;
+    private WebClient webClient;
+    private ObjectMapper objectMapper;
+    private PayloadCache payloadCache;
+    private BlockCache blockCache;
+    private EmbeddedServerInfo embeddedServerInfo;
+
+    @Autowired
+    public ReactiveFacetResource(LoadTestConfiguration loadTestConfiguration, LoadGeneratorService loadGeneratorService,
+                                 UrlReplacer urlReplacer, WebClient webClient, ObjectMapper objectMapper,
+                                 PayloadCache payloadCache, BlockCache blockCache,
+                                 EmbeddedServerInfo embeddedServerInfo) {
+        this.loadTestConfiguration = loadTestConfiguration;
+        this.loadGeneratorService = loadGeneratorService;
+        this.urlReplacer = urlReplacer;
+        this.webClient = webClient;
+        this.objectMapper = objectMapper;
+        this.payloadCache = payloadCache;
+        this.blockCache = blockCache;
+        this.embeddedServerInfo = embeddedServerInfo;
+    }
+
+    // Both "/sleep" and "/sleep-async" release the thread while waiting
+    @GetMapping(path = {"/sleep", "/sleep-async"})
+    public Mono<ResponseEntity<StringResult>> sleepRequest(@RequestParam(value = "ms", required = false) Long ms) {
+
+        if (ms == null) {
+            ms = this.loadTestConfiguration.getDefaultSleepTimeMilliseconds();
+        }
+        log.debug("sleepRequest: ms={}", ms);
+        final long maxMs = this.loadTestConfiguration.getMaxSleepTimeMilliseconds();
+        if (ms < 0 || ms > maxMs) {
+            log.warn("sleepRequest input was bad (0 <= ms <= {}): {}", maxMs, ms);
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return Mono.fromFuture(this.loadGeneratorService.sleepAsync(ms))
+                .map(elapsed -> ResponseEntity.ok().body(new StringResult("OK")));
+    }
+
+    // Computed off the event loop, the other connections of the event loop are not stalled meanwhile
+    @GetMapping(path = "/fib")
+    public Mono<ResponseEntity<NumberResult>> fibonacciRequest(@RequestParam(value = "input", required = false) Integer input) {
+
+        if (input == null) {
+            input = this.loadTestConfiguration.getDefaultFibInput();
+        }
+        log.debug("fibonacciRequest: input={}", input);
+        if (input < 0 || input > 100) {
+            log.warn("fibonacciRequest input was bad (0 <= input < 100): {}", input);
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        final int fibonacciInput = input;
+        return Mono.fromCallable(() -> this.loadGeneratorService.computeFibonacciRecursive(fibonacciInput))
+                .subscribeOn(Schedulers.parallel())
+                .map(result -> ResponseEntity.ok().body(new NumberResult(result)));
+    }
+
+    // The child calls are sent one after another like in the servlet variant, but without blocking
+    @GetMapping(path = "/remote-fib")
+    public Mono<ResponseEntity<NumberResult>> remoteFibonacciRequest(
+            @RequestParam(value = "input", required = false) Integer input,
+            ServerHttpRequest request) {
+
+        return remoteFibonacci(input, false, request);
+    }
+
+    @GetMapping(path = "/remote-fib", params = "parallel=true")
+    public Mono<ResponseEntity<NumberResult>> remoteFibonacciParallelRequest(
+            @RequestParam(value = "input", required = false) Integer input,
+            ServerHttpRequest request) {
+
+        return remoteFibonacci(input, true, request);
+    }
+
+    @GetMapping(path = "/remote")
+    public Mono<ResponseEntity<StatusResult>> remoteRequest(@RequestParam(value = "url", required = false) String url,
+                                                            ServerHttpRequest request) {
+
+        if (url == null || url.trim().length() == 0) {
+            url = this.loadTestConfiguration.getDefaultRemoteUrl();
+        }
+        final String targetUrl = this.urlReplacer.replace(url, requestUrl(request));
+        log.debug("remoteRequest: url={}, targetUrl={}", url, targetUrl);
+
+        final URI targetUri;
+        try {
+            targetUri = new URI(targetUrl);
+        } catch (URISyntaxException e) {
+            return Mono.just(ResponseEntity.badRequest().body(new StatusResult<>(-1, e.getMessage())));
+        }
+        final Object resultClass = FacetResource.lookupResultClass(targetUri);
+        return webClient.get().uri(targetUri).exchange().flatMap(response -> {
+            final int statusCode = response.statusCode().value();
+            final Mono<?> body;
+            if (resultClass instanceof ParameterizedTypeReference) {
+                body = response.bodyToMono((ParameterizedTypeReference<?>) resultClass);
+            } else {
+                body = response.bodyToMono(resultClass != null ? (Class<?>) resultClass : String.class);
+            }
+            return body.map(result -> ResponseEntity.ok().body((StatusResult) new StatusResult<>(statusCode, result)))
+                    .defaultIfEmpty(ResponseEntity.ok().body(new StatusResult<>(statusCode, null)));
+        });
+    }
+
+    // Burned off the event loop, like fib
+    @GetMapping(path = "/cpu")
+    public Mono<ResponseEntity<NumberResult>> cpuRequest(@RequestParam(value = "micros", required = false) Long micros) {
+
+        if (micros == null) {
+            micros = this.loadTestConfiguration.getDefaultCpuMicroseconds();
+        }
+        log.debug("cpuRequest: micros={}", micros);
+        if (micros < 0 || micros > MAX_CPU_MICROSECONDS) {
+            log.warn("cpuRequest micros was bad (0 <= micros <= {}): {}", MAX_CPU_MICROSECONDS, micros);
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        final long cpuMicros = micros;
+        return Mono.fromCallable(() -> this.loadGeneratorService.burnCpu(cpuMicros))
+                .subscribeOn(Schedulers.parallel())
+                .map(result -> ResponseEntity.ok().body(new NumberResult(result)));
+    }
+
+    @GetMapping(path = "/return", produces = "application/json")
+    public ResponseEntity<byte[]> returnCachedRequest(@RequestParam(value = "size", required = false) Integer size) {
+
+        if (size == null) {
+            size = this.loadTestConfiguration.getDefaultReturnSize();
+        }
+        log.debug("returnCachedRequest: size={}", size);
+        final byte[] result = this.payloadCache.get(size, s -> {
+            try {
+                return objectMapper.writeValueAsBytes(new StringResult(this.loadGeneratorService.createStringOfSize(s)));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON_UTF8).body(result);
+    }
+
+    @GetMapping(path = "/return", params = "cache=false", produces = "application/json")
+    public ResponseEntity<StringResult> returnRequest(@RequestParam(value = "size", required = false) Integer size) {
+
+        if (size == null) {
+            size = this.loadTestConfiguration.getDefaultReturnSize();
+        }
+        log.debug("returnRequest: size={}", size);
+        return ResponseEntity.ok().body(new StringResult(this.loadGeneratorService.createStringOfSize(size)));
+    }
+
+    // The blocks are written as the client consumes them (back pressure). Range requests are not supported.
+    @GetMapping(path = "/return-blocks", produces = "text/plain")
+    public Mono<Void> returnBlocksRequest(
+            @RequestParam(value = "numberOfKiloByteBlocks", required = false) Integer numberOfKiloByteBlocks,
+            @RequestParam(value = "blockSize", required = false, defaultValue = "1024") Integer blockSize,
+            ServerHttpResponse response) {
+
+        if (numberOfKiloByteBlocks == null) {
+            numberOfKiloByteBlocks = this.loadTestConfiguration.getDefaultNumberOfKiloByteBlocks();
+        }
+        if (numberOfKiloByteBlocks < 0 || blockSize < MIN_BLOCK_SIZE || blockSize > MAX_BLOCK_SIZE) {
+            log.warn("returnBlocksRequest input was bad (numberOfKiloByteBlocks >= 0, {} <= blockSize <= {}): {}, {}",
+                    MIN_BLOCK_SIZE, MAX_BLOCK_SIZE, numberOfKiloByteBlocks, blockSize);
+            response.setStatusCode(HttpStatus.BAD_REQUEST);
+            return response.setComplete();
+        }
+        final long contentLength = 1024L * numberOfKiloByteBlocks;
+        log.debug("returnBlocksRequest: numberOfKiloByteBlocks={}, blockSize={}, contentLength={}",
+                numberOfKiloByteBlocks, blockSize, contentLength);
+        response.getHeaders().setContentType(MediaType.TEXT_PLAIN);
+        response.getHeaders().setContentLength(contentLength);
+        response.getHeaders().set(HttpHeaders.CONTENT_DISPOSITION, "attachment;filename=download.txt");
+
+        final int blockSizeF = blockSize;
+        final DataBufferFactory bufferFactory = response.bufferFactory();
+        final long fullBlocks = contentLength / blockSize;
+        final int lastBlockLength = (int) (contentLength % blockSize);
+        final Flux<DataBuffer> blocks = Flux.concat(
+                Flux.range(0, (int) fullBlocks).map(i -> bufferFactory.wrap(this.blockCache.getBlock(blockSizeF))),
+                lastBlockLength > 0
+                        ? Mono.fromSupplier(() -> bufferFactory.wrap(this.blockCache.getBlock(lastBlockLength)))
+                        : Mono.empty());
+        return response.writeWith(blocks);
+    }
+
+    // Each subscriber is driven by a Reactor timer, no thread is held between the events
+    @GetMapping(path = "/sse-time-by-second")
+    public ResponseEntity<Flux<ServerSentEvent<String>>> streamSseEventsEachSecond(
+            @RequestParam(value = "nrOfEvents", required = false, defaultValue = "10") int nrOfEvents,
+            @RequestParam(value = "eventsPerSecond", required = false, defaultValue = "1") int eventsPerSecond,
+            @RequestParam(value = "payloadSize", required = false, defaultValue = "0") int payloadSize,
+            @RequestParam(value = "timeoutMs", required = false) Long timeoutMs) {
+
+        if (timeoutMs == null) {
+            timeoutMs = this.loadTestConfiguration.getDefaultSseTimeoutMilliseconds();
+        }
+        log.debug("streamSseEventsEachSecond: nrOfEvents={}, eventsPerSecond={}, payloadSize={}, timeoutMs={}",
+                nrOfEvents, eventsPerSecond, payloadSize, timeoutMs);
+        if (nrOfEvents < 1 || eventsPerSecond < 1 || eventsPerSecond > this.loadTestConfiguration.getMaxSseEventsPerSecond()
+                || payloadSize < 0 || payloadSize > MAX_SSE_PAYLOAD_SIZE || timeoutMs < 1) {
+            log.warn("streamSseEventsEachSecond input was bad (nrOfEvents >= 1, 1 <= eventsPerSecond <= {}, "
+                            + "0 <= payloadSize <= {}, timeoutMs >= 1): {}, {}, {}, {}",
+                    this.loadTestConfiguration.getMaxSseEventsPerSecond(), MAX_SSE_PAYLOAD_SIZE,
+                    nrOfEvents, eventsPerSecond, payloadSize, timeoutMs);
+            return ResponseEntity.badRequest().build();
+        }
+
+        final String padding = SseBroadcaster.createPadding(payloadSize);
+        // Ticks, which the client is not ready for, are skipped, like in SseBroadcaster; an overflowing interval would
+        // abort the stream instead
+        final Flux<ServerSentEvent<String>> events = Flux.interval(Duration.ofNanos(1_000_000_000L / eventsPerSecond))
+                .onBackpressureDrop()
+                .take(nrOfEvents)
+                .take(Duration.ofMillis(timeoutMs))
+                .map(sequence -> ServerSentEvent.builder(LocalTime.now().toString() + padding)
+                        .id(String.valueOf(sequence))
+                        .event("sse-time-by-second")
+                        .build());
+        return ResponseEntity.ok().contentType(MediaType.TEXT_EVENT_STREAM).body(events);
+    }
+
+    //------------------------------------------------------------------------------------------------------------------
+    //- HELPER OPERATIONS ----------------------------------------------------------------------------------------------
+    //------------------------------------------------------------------------------------------------------------------
+
+    @GetMapping(path = "/echo-url")
+    public ResponseEntity<StringResult> getRequestUrl(ServerHttpRequest request) {
+
+        final String requestUrl = requestUrl(request);
+        log.debug("getRequestUrl: requestUrl={}", requestUrl);
+        return ResponseEntity.ok().body(new StringResult(requestUrl));
+    }
+
+    @GetMapping(path = "/system-info")
+    public ResponseEntity<Map<String,String>> getSystemInfo() {
+
+        Map<String,String> ret = new HashMap<>();
+        System.getProperties().stringPropertyNames().forEach(k -> ret.put(k, System.getProperty(k)));
+        ret.putAll(this.embeddedServerInfo.getEffectiveConfiguration());
+        return ResponseEntity.ok().body(ret);
+    }
+
+    //------------------------------------------------------------------------------------------------------------------
+
+    private Mono<ResponseEntity<NumberResult>> remoteFibonacci(Integer input, boolean parallel,
+                                                              ServerHttpRequest request) {
+
+        if (input == null) {
+            input = this.loadTestConfiguration.getDefaultFibInput();
+        }
+        log.debug("remoteFibonacciRequest: input={}, parallel={}", input, parallel);
+        if (input < 0 || input > 100) {
+            log.warn("remoteFibonacciRequest input was bad (0 <= input < 100): {}", input);
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        if (input <= 1) {
+            return Mono.just(ResponseEntity.ok().body(new NumberResult(input)));
+        }
+
+        String targetUrl = requestUrl(request);
+        if (this.loadTestConfiguration.isForceSsl()) {
+            targetUrl = targetUrl.replace("http:", "https:");
+        }
+        targetUrl += parallel ? "?parallel=true&input=" : "?input=";
+        final Mono<NumberResult> fibMinus1 = webClient.get().uri(targetUrl + (input - 1))
+                .retrieve().bodyToMono(NumberResult.class);
+        final Mono<NumberResult> fibMinus2 = webClient.get().uri(targetUrl + (input - 2))
+                .retrieve().bodyToMono(NumberResult.class);
+        final Mono<Long> sum = parallel
+                ? Mono.zip(fibMinus1, fibMinus2, (r1, r2) -> r1.getResult() + r2.getResult())
+                : fibMinus1.flatMap(r1 -> fibMinus2.map(r2 -> r1.getResult() + r2.getResult()));
+        return sum.map(result -> ResponseEntity.ok().body(new NumberResult(result)));
+    }
+
+    // The request URL without query, like HttpServletRequest.getRequestURL()
+    private static String requestUrl(ServerHttpRequest request) {
+        return UriComponentsBuilder.fromUri(request.getURI()).replaceQuery(null).fragment(null).build().toUriString();
+    }
+}
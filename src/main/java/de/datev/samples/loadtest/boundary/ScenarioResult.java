@@ -0,0 +1,41 @@
+package de.datev.samples.loadtest.boundary;
+
+import java.util.List;
+
+/**
+ * A StringResult with the payload of the scenario's last return step (null, if there is none), the total time and
+ * the timing of every step.
+ */
+public class ScenarioResult extends StringResult {
+
+    String name;
+    double durationMilliseconds;
+    List<ScenarioStepResult> steps;
+
+    public ScenarioResult() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public double getDurationMilliseconds() {
+        return durationMilliseconds;
+    }
+
+    public void setDurationMilliseconds(double durationMilliseconds) {
+        this.durationMilliseconds = durationMilliseconds;
+    }
+
+    public List<ScenarioStepResult> getSteps() {
+        return steps;
+    }
+
+    public void setSteps(List<ScenarioStepResult> steps) {
+        this.steps = steps;
+    }
+}
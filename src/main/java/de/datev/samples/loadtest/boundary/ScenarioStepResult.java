@@ -0,0 +1,67 @@
+package de.datev.samples.loadtest.boundary;
+
+/**
+ * The timing of one scenario step. result depends on the type: the Fibonacci number, the consumed CPU microseconds,
+ * the allocated bytes, the JSON size, the size of the remote response or of the payload. status is the HTTP status of
+ * a remote step (0 without response).
+ */
+public class ScenarioStepResult {
+
+    String type;
+    long value;
+    String url;
+    double durationMilliseconds;
+    long result;
+    int status;
+
+    public ScenarioStepResult() {
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public void setValue(long value) {
+        this.value = value;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    public double getDurationMilliseconds() {
+        return durationMilliseconds;
+    }
+
+    public void setDurationMilliseconds(double durationMilliseconds) {
+        this.durationMilliseconds = durationMilliseconds;
+    }
+
+    public long getResult() {
+        return result;
+    }
+
+    public void setResult(long result) {
+        this.result = result;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+}
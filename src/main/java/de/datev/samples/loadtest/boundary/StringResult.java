@@ -1,21 +1,21 @@
-package de.datev.samples.loadtest.boundary;
-
-public class StringResult {
-
-    String result;
-
-    public StringResult() {
-    }
-
-    public StringResult(String result) {
-        this.result = result;
-    }
-
-    public String getResult() {
-        return result;
-    }
-
-    public void setResult(String result) {
-        this.result = result;
-    }
-}
+package de.datev.samples.loadtest.boundary;
+
+public class StringResult {
+
+    String result;
+
+    public StringResult() {
+    }
+
+    public StringResult(String result) {
+        this.result = result;
+    }
+
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+}
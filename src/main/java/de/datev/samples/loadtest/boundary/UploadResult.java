@@ -0,0 +1,45 @@
+package de.datev.samples.loadtest.boundary;
+
+/**
+ * A NumberResult with the number of received bytes, their CRC32 checksum and the ingest rate.
+ */
+public class UploadResult extends NumberResult {
+
+    long crc32;
+    long durationMicroseconds;
+    double megaBytesPerSecond;
+
+    public UploadResult() {
+    }
+
+    public UploadResult(long result, long crc32, long durationMicroseconds, double megaBytesPerSecond) {
+        super(result);
+        this.crc32 = crc32;
+        this.durationMicroseconds = durationMicroseconds;
+        this.megaBytesPerSecond = megaBytesPerSecond;
+    }
+
+    public long getCrc32() {
+        return crc32;
+    }
+
+    public void setCrc32(long crc32) {
+        this.crc32 = crc32;
+    }
+
+    public long getDurationMicroseconds() {
+        return durationMicroseconds;
+    }
+
+    public void setDurationMicroseconds(long durationMicroseconds) {
+        this.durationMicroseconds = durationMicroseconds;
+    }
+
+    public double getMegaBytesPerSecond() {
+        return megaBytesPerSecond;
+    }
+
+    public void setMegaBytesPerSecond(double megaBytesPerSecond) {
+        this.megaBytesPerSecond = megaBytesPerSecond;
+    }
+}
@@ -0,0 +1,38 @@
+package de.datev.samples.loadtest.boundary;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint /actuator/websocket with the aggregated and the per session message counters of the WebSocket
+ * facets.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Endpoint(id = "websocket")
+public class WebSocketEndpoint {
+
+    private final WebSocketFacetHandler webSocketFacetHandler;
+
+    @Autowired
+    public WebSocketEndpoint(WebSocketFacetHandler webSocketFacetHandler) {
+        this.webSocketFacetHandler = webSocketFacetHandler;
+    }
+
+    @ReadOperation
+    public Map<String, Object> sessions() {
+
+        Map<String, Object> ret = new LinkedHashMap<>();
+        ret.put("sessions", webSocketFacetHandler.getSessionCount());
+        ret.put("messagesReceived", webSocketFacetHandler.getMessagesReceived());
+        ret.put("messagesSent", webSocketFacetHandler.getMessagesSent());
+        ret.put("details", webSocketFacetHandler.getSessionResults());
+        return ret;
+    }
+}
@@ -0,0 +1,282 @@
+package de.datev.samples.loadtest.boundary;
+
+import de.datev.samples.loadtest.config.LoadTestConfiguration;
+import de.datev.samples.loadtest.control.LoadGeneratorService;
+import de.datev.samples.loadtest.control.SharedScheduler;
+import de.datev.samples.loadtest.control.SharedSender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The WebSocket facets below /api/ws:
+ * <ul>
+ * <li>/api/ws/echo - every text message is sent back to the sender</li>
+ * <li>/api/ws/push?rate=..&amp;size=..&amp;count=.. - the server sends count messages (0 = until closed) of size
+ * characters at rate messages per second</li>
+ * <li>/api/ws/broadcast - every text message is sent to all sessions connected to /api/ws/broadcast</li>
+ * </ul>
+ * Sends are serialized per session by a ConcurrentWebSocketSessionDecorator. The push ticks of the SharedScheduler
+ * hand the sends over to the SharedSender, at most one per session at a time, so a slow client never blocks the
+ * scheduler. A push session, whose send takes longer than app-config.web-socket-send-time-limit-milliseconds, is
+ * closed. Echo and broadcast messages are sent on the thread, which received the message.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WebSocketFacetHandler extends TextWebSocketHandler implements MeterBinder {
+
+    public static final String PATH_PREFIX = "/api/ws/";
+
+    private static final int MAX_MESSAGE_SIZE = 1024 * 1024;
+
+    private static final Logger log = LoggerFactory.getLogger(WebSocketFacetHandler.class);
+
+    enum Mode { ECHO, PUSH, BROADCAST }
+
+    private final LoadTestConfiguration loadTestConfiguration;
+    private final LoadGeneratorService loadGeneratorService;
+    private final SharedScheduler sharedScheduler;
+    private final SharedSender sharedSender;
+
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong messagesReceived = new AtomicLong();
+    private final AtomicLong messagesSent = new AtomicLong();
+
+    @Autowired
+    public WebSocketFacetHandler(LoadTestConfiguration loadTestConfiguration, LoadGeneratorService loadGeneratorService,
+                                 SharedScheduler sharedScheduler, SharedSender sharedSender) {
+        this.loadTestConfiguration = loadTestConfiguration;
+        this.loadGeneratorService = loadGeneratorService;
+        this.sharedScheduler = sharedScheduler;
+        this.sharedSender = sharedSender;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+
+        final String path = session.getUri().getPath();
+        final Mode mode = Mode.valueOf(path.substring(path.lastIndexOf('/') + 1).toUpperCase(Locale.ROOT));
+        final SessionState state = new SessionState(new ConcurrentWebSocketSessionDecorator(session,
+                loadTestConfiguration.getWebSocketSendTimeLimitMilliseconds(),
+                loadTestConfiguration.getWebSocketSendBufferSizeLimit()), mode);
+        sessions.put(session.getId(), state);
+        log.debug("afterConnectionEstablished: id={}, uri={}", session.getId(), session.getUri());
+
+        if (mode == Mode.PUSH) {
+            final MultiValueMap<String, String> parameters =
+                    UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams();
+            final int rate = intParameter(parameters, "rate", 1);
+            final int size = intParameter(parameters, "size", loadTestConfiguration.getDefaultWebSocketMessageSize());
+            final long count = intParameter(parameters, "count", 0);
+            if (rate < 1 || rate > loadTestConfiguration.getMaxWebSocketPushRate()
+                    || size < 0 || size > MAX_MESSAGE_SIZE || count < 0) {
+                log.warn("WebSocket push input was bad (1 <= rate <= {}, 0 <= size <= {}, count >= 0): {}, {}, {}",
+                        loadTestConfiguration.getMaxWebSocketPushRate(), MAX_MESSAGE_SIZE,
+                        rate, size, count);
+                session.close(CloseStatus.BAD_DATA);
+                return;
+            }
+            final TextMessage message = new TextMessage(loadGeneratorService.createStringOfSize(size));
+            state.pushTask = sharedScheduler.scheduleAtFixedRate(() -> pushTick(state, message, count),
+                    0, 1_000_000L / rate, TimeUnit.MICROSECONDS);
+            // the session may have been closed before pushTask was set, then remove() could not cancel it
+            if (!sessions.containsKey(session.getId())) {
+                state.pushTask.cancel(false);
+            }
+        }
+    }
+
+    // Runs on the scheduler and must not block, the send and the close run on the SharedSender
+    private void pushTick(SessionState state, TextMessage message, long count) {
+
+        if (!state.sending.compareAndSet(false, true)) {
+            final long sendLimitNanos =
+                    TimeUnit.MILLISECONDS.toNanos(loadTestConfiguration.getWebSocketSendTimeLimitMilliseconds());
+            if (System.nanoTime() - state.sendStartNanos > sendLimitNanos
+                    && sessions.containsKey(state.session.getId())) {
+                log.debug("push send did not complete in time: id={}", state.session.getId());
+                remove(state.session.getId());
+                sharedSender.trySubmit(() -> closeSession(state, CloseStatus.SESSION_NOT_RELIABLE));
+            }
+            return;
+        }
+        state.sendStartNanos = System.nanoTime();
+        final boolean submitted = sharedSender.trySubmit(() -> {
+            try {
+                if (send(state, message) && count > 0 && state.sent.get() >= count) {
+                    close(state, CloseStatus.NORMAL);
+                }
+            } finally {
+                state.sending.set(false);
+            }
+        });
+        if (!submitted) {
+            state.sending.set(false);
+        }
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+
+        final SessionState state = sessions.get(session.getId());
+        if (state == null) {
+            return;
+        }
+        state.received.incrementAndGet();
+        messagesReceived.incrementAndGet();
+        switch (state.mode) {
+            case ECHO:
+                send(state, message);
+                break;
+            case BROADCAST:
+                for (SessionState other : sessions.values()) {
+                    if (other.mode == Mode.BROADCAST) {
+                        send(other, message);
+                    }
+                }
+                break;
+            default:
+                // messages of push clients are only counted
+                break;
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+
+        log.debug("handleTransportError: id={}, error={}", session.getId(), exception.toString());
+        remove(session.getId());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+
+        log.debug("afterConnectionClosed: id={}, status={}", session.getId(), status);
+        remove(session.getId());
+    }
+
+    public List<WebSocketSessionResult> getSessionResults() {
+
+        final List<WebSocketSessionResult> results = new ArrayList<>(sessions.size());
+        for (SessionState state : sessions.values()) {
+            results.add(new WebSocketSessionResult(state.session.getId(), state.mode.name().toLowerCase(Locale.ROOT),
+                    state.received.get(), state.sent.get(), state.sentCharacters.get()));
+        }
+        return results;
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    public long getMessagesReceived() {
+        return messagesReceived.get();
+    }
+
+    public long getMessagesSent() {
+        return messagesSent.get();
+    }
+
+    // Exposes the sessions and messages as "loadtest.websocket.*" in /actuator/metrics
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        Gauge.builder("loadtest.websocket.sessions", this, WebSocketFacetHandler::getSessionCount)
+                .description("Open sessions of the WebSocket facets").register(registry);
+        FunctionCounter.builder("loadtest.websocket.messages.received", this, WebSocketFacetHandler::getMessagesReceived)
+                .description("Messages received by the WebSocket facets").register(registry);
+        FunctionCounter.builder("loadtest.websocket.messages.sent", this, WebSocketFacetHandler::getMessagesSent)
+                .description("Messages sent by the WebSocket facets").register(registry);
+    }
+
+    private boolean send(SessionState state, TextMessage message) {
+
+        try {
+            state.session.sendMessage(message);
+            state.sent.incrementAndGet();
+            state.sentCharacters.addAndGet(message.getPayloadLength());
+            messagesSent.incrementAndGet();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // the decorator closes sessions, which exceed the send time or buffer limit
+            log.debug("send failed: id={}, error={}", state.session.getId(), e.toString());
+            close(state, CloseStatus.SESSION_NOT_RELIABLE);
+            return false;
+        }
+    }
+
+    private void close(SessionState state, CloseStatus status) {
+
+        remove(state.session.getId());
+        closeSession(state, status);
+    }
+
+    private static void closeSession(SessionState state, CloseStatus status) {
+
+        try {
+            state.session.close(status);
+        } catch (IOException e) {
+            log.debug("close failed: id={}, error={}", state.session.getId(), e.toString());
+        }
+    }
+
+    private void remove(String id) {
+
+        final SessionState state = sessions.remove(id);
+        if (state != null && state.pushTask != null) {
+            state.pushTask.cancel(false);
+        }
+    }
+
+    private static int intParameter(MultiValueMap<String, String> parameters, String name, int defaultValue) {
+
+        final String value = parameters.getFirst(name);
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static final class SessionState {
+
+        private final WebSocketSession session;
+        private final Mode mode;
+        private final AtomicLong received = new AtomicLong();
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong sentCharacters = new AtomicLong();
+        // set by the push tick before a send is handed over and reset by the sender after it
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long sendStartNanos;
+        private volatile ScheduledFuture<?> pushTask;
+
+        SessionState(WebSocketSession session, Mode mode) {
+            this.session = session;
+            this.mode = mode;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package de.datev.samples.loadtest.boundary;
+
+/**
+ * The message counters of one WebSocket session.
+ */
+public class WebSocketSessionResult {
+
+    String id;
+    String mode;
+    long messagesReceived;
+    long messagesSent;
+    long charactersSent;
+
+    public WebSocketSessionResult() {
+    }
+
+    public WebSocketSessionResult(String id, String mode, long messagesReceived, long messagesSent, long charactersSent) {
+        this.id = id;
+        this.mode = mode;
+        this.messagesReceived = messagesReceived;
+        this.messagesSent = messagesSent;
+        this.charactersSent = charactersSent;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public void setMode(String mode) {
+        this.mode = mode;
+    }
+
+    public long getMessagesReceived() {
+        return messagesReceived;
+    }
+
+    public void setMessagesReceived(long messagesReceived) {
+        this.messagesReceived = messagesReceived;
+    }
+
+    public long getMessagesSent() {
+        return messagesSent;
+    }
+
+    public void setMessagesSent(long messagesSent) {
+        this.messagesSent = messagesSent;
+    }
+
+    public long getCharactersSent() {
+        return charactersSent;
+    }
+
+    public void setCharactersSent(long charactersSent) {
+        this.charactersSent = charactersSent;
+    }
+}
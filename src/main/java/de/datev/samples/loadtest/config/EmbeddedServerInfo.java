@@ -0,0 +1,56 @@
+package de.datev.samples.loadtest.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The effective configuration of the embedded server, read once after the server was started, so that benchmark
+ * results can record what was measured. Reported by "/api/test/system-info" with the prefix "webserver.".
+ */
+@Component
+public class EmbeddedServerInfo implements ApplicationListener<WebServerInitializedEvent> {
+
+    private static final Logger LOGGER = LogManager.getLogger(EmbeddedServerInfo.class);
+
+    public static final String PREFIX = "webserver.";
+
+    private final ObjectProvider<EmbeddedServerInspector> inspector;
+    private volatile Map<String, String> effectiveConfiguration = Collections.emptyMap();
+
+    public EmbeddedServerInfo(ObjectProvider<EmbeddedServerInspector> inspector) {
+        this.inspector = inspector;
+    }
+
+    @Override
+    public void onApplicationEvent(WebServerInitializedEvent event) {
+
+        final WebServer webServer = event.getWebServer();
+        final Map<String, String> configuration = new LinkedHashMap<>();
+        configuration.put(PREFIX + "type", webServer.getClass().getSimpleName()
+                .replace("ServletWebServer", "").replace("WebServer", "").toLowerCase(Locale.ROOT));
+        configuration.put(PREFIX + "port", Integer.toString(webServer.getPort()));
+        final Map<String, String> settings = new LinkedHashMap<>();
+        final EmbeddedServerInspector serverInspector = inspector.getIfAvailable();
+        // there is no inspector for Reactor Netty in the "reactive" profile
+        if (serverInspector != null) {
+            serverInspector.describe(webServer, settings);
+        }
+        settings.forEach((key, value) -> configuration.put(PREFIX + key, value));
+        this.effectiveConfiguration = Collections.unmodifiableMap(configuration);
+        LOGGER.info("Embedded server: {}", effectiveConfiguration);
+    }
+
+    public Map<String, String> getEffectiveConfiguration() {
+        return effectiveConfiguration;
+    }
+}
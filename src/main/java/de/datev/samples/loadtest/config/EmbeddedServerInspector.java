@@ -0,0 +1,18 @@
+package de.datev.samples.loadtest.config;
+
+import org.springframework.boot.web.server.WebServer;
+
+import java.util.Map;
+
+/**
+ * Reads the effective configuration of the running embedded server. There is one implementation per server in the
+ * source folder of the maven profile, which selects the server (src/tomcat/java, src/undertow/java, src/jetty/java).
+ */
+public interface EmbeddedServerInspector {
+
+    /**
+     * Adds the settings corresponding to app-config.server-* as "maxThreads", "minSpareThreads", "acceptors",
+     * "selectors", "maxConnections", "acceptCount", "bufferSize" and further server specific entries.
+     */
+    void describe(WebServer webServer, Map<String, String> configuration);
+}
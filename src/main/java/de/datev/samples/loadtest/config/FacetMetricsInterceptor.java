@@ -0,0 +1,134 @@
+package de.datev.samples.loadtest.config;
+
+import de.datev.samples.loadtest.control.FacetMetrics;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the latency of every facet request in FacetMetrics. For asynchronous facets preHandle is called again on
+ * the async dispatch, so the start time is only set once and the recorded time covers the whole request. Outgoing
+ * calls add their time to the request attribute DOWNSTREAM_NANOS_ATTRIBUTE (see RestClientConfiguration). The
+ * allocated bytes are measured per dispatch, because each dispatch may run on another thread, and are summed up.
+ */
+public class FacetMetricsInterceptor implements AsyncHandlerInterceptor {
+
+    static final String START_NANOS_ATTRIBUTE = FacetMetricsInterceptor.class.getName() + ".startNanos";
+    static final String DOWNSTREAM_NANOS_ATTRIBUTE = FacetMetricsInterceptor.class.getName() + ".downstreamNanos";
+    static final String DISPATCH_ALLOCATED_ATTRIBUTE = FacetMetricsInterceptor.class.getName() + ".dispatchAllocated";
+    static final String ALLOCATED_ATTRIBUTE = FacetMetricsInterceptor.class.getName() + ".allocated";
+
+    private final FacetMetrics facetMetrics;
+    private final String pathPrefix;
+    private final String[] bucketParameters;
+
+    FacetMetricsInterceptor(FacetMetrics facetMetrics, String pathPrefix, String bucketParameters) {
+        this.facetMetrics = facetMetrics;
+        this.pathPrefix = pathPrefix;
+        this.bucketParameters = bucketParameters == null ? new String[0] : bucketParameters.split(",");
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+
+        if (request.getAttribute(START_NANOS_ATTRIBUTE) == null) {
+            request.setAttribute(START_NANOS_ATTRIBUTE, System.nanoTime());
+            request.setAttribute(DOWNSTREAM_NANOS_ATTRIBUTE, new LongAdder());
+            request.setAttribute(ALLOCATED_ATTRIBUTE, new LongAdder());
+            facetMetrics.requestStarted();
+        }
+        request.setAttribute(DISPATCH_ALLOCATED_ATTRIBUTE, FacetMetrics.currentThreadAllocatedBytes());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        addDispatchAllocation(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+
+        final Long startNanos = (Long) request.getAttribute(START_NANOS_ATTRIBUTE);
+        if (startNanos == null) {
+            return;
+        }
+        final long totalNanos = System.nanoTime() - startNanos;
+        final LongAdder downstreamNanos = (LongAdder) request.getAttribute(DOWNSTREAM_NANOS_ATTRIBUTE);
+        addDispatchAllocation(request);
+        facetMetrics.requestCompleted();
+
+        String facet = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (facet == null) {
+            facet = "unknown";
+        } else if (facet.startsWith(pathPrefix)) {
+            facet = facet.substring(pathPrefix.length());
+        }
+        final String handlerName = handler instanceof HandlerMethod
+                ? ((HandlerMethod) handler).getMethod().getName() : "unknown";
+
+        String parameter = FacetMetrics.NO_PARAMETER;
+        String bucket = FacetMetrics.NO_PARAMETER;
+        for (String name : bucketParameters) {
+            final String value = request.getParameter(name);
+            if (value != null) {
+                parameter = name;
+                try {
+                    bucket = FacetMetrics.bucket(Long.parseLong(value.trim()));
+                } catch (NumberFormatException e) {
+                    bucket = "invalid";
+                }
+                break;
+            }
+        }
+
+        facetMetrics.recordFacet(facet, handlerName, response.getStatus(), parameter, bucket,
+                totalNanos, downstreamNanos == null ? 0 : downstreamNanos.sum());
+        final LongAdder allocated = (LongAdder) request.getAttribute(ALLOCATED_ATTRIBUTE);
+        if (allocated != null) {
+            facetMetrics.recordAllocation(facet, handlerName, allocated.sum());
+        }
+    }
+
+    // a dispatch, which cannot be measured, makes the whole request unmeasurable
+    private static void addDispatchAllocation(HttpServletRequest request) {
+
+        final Long dispatchStart = (Long) request.getAttribute(DISPATCH_ALLOCATED_ATTRIBUTE);
+        final LongAdder allocated = (LongAdder) request.getAttribute(ALLOCATED_ATTRIBUTE);
+        if (dispatchStart == null || allocated == null) {
+            return;
+        }
+        request.removeAttribute(DISPATCH_ALLOCATED_ATTRIBUTE);
+        final long dispatchEnd = FacetMetrics.currentThreadAllocatedBytes();
+        if (dispatchStart < 0 || dispatchEnd < 0) {
+            request.removeAttribute(ALLOCATED_ATTRIBUTE);
+        } else {
+            allocated.add(dispatchEnd - dispatchStart);
+        }
+    }
+
+    /**
+     * Returns the adder for the time of outgoing calls of the current facet request, or null outside of a facet
+     * request. The adder may be used after the request thread has been released, the request attributes may not.
+     */
+    static LongAdder currentDownstreamNanos() {
+
+        final RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes == null) {
+            return null;
+        }
+        try {
+            final Object downstreamNanos = requestAttributes.getAttribute(DOWNSTREAM_NANOS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            return downstreamNanos instanceof LongAdder ? (LongAdder) downstreamNanos : null;
+        } catch (IllegalStateException e) {
+            // request is not active anymore
+            return null;
+        }
+    }
+}
@@ -1,177 +1,721 @@
-package de.datev.samples.loadtest.config;
-
-import org.springframework.boot.context.properties.ConfigurationProperties;
-import org.springframework.stereotype.Component;
-
-import java.util.HashSet;
-
-@Component
-@ConfigurationProperties(
-        prefix = "app-config",
-        ignoreUnknownFields = false
-)
-public class LoadTestConfiguration {
-
-    private boolean showConfigOnStartup = false;
-    private long defaultSleepTimeMilliseconds = 10;
-    private int defaultFibInput = 35;
-    private int defaultReturnSize = 102400;
-    private int defaultNumberOfKiloByteBlocks = 1024;
-    private String defaultRemoteUrl = "$PROTOCOL$://$HOST$:$PORT$/api/test/fib?input=1";
-    private int defaultMemoryFactor = 16;
-    private String urlReplacementBase = null;
-    private boolean forceSsl = false;
-    private boolean forwardedHeaderFilterActivated = false;
-    private String forwardedHeaderFilterPatterns = null;
-    private boolean forwardedHeaderFilterRemoveOnly = false;
-    private boolean forwardedHeaderFilterRelativeRedirect = false;
-    private String propagatedHeader = "Authorization";
-    private HashSet<String> propagatedHeaderSet = new HashSet<>();
-
-    public boolean isShowConfigOnStartup() {
-        return showConfigOnStartup;
-    }
-
-    public void setShowConfigOnStartup(boolean showConfigOnStartup) {
-        this.showConfigOnStartup = showConfigOnStartup;
-    }
-
-    public void setPropagatedHeaderSet(HashSet<String> propagatedHeaderSet) {
-        this.propagatedHeaderSet = propagatedHeaderSet;
-    }
-
-    public long getDefaultSleepTimeMilliseconds() {
-        return defaultSleepTimeMilliseconds;
-    }
-
-    public void setDefaultSleepTimeMilliseconds(long defaultSleepTimeMilliseconds) {
-        this.defaultSleepTimeMilliseconds = defaultSleepTimeMilliseconds;
-    }
-
-    public int getDefaultFibInput() {
-        return defaultFibInput;
-    }
-
-    public void setDefaultFibInput(int defaultFibInput) {
-        this.defaultFibInput = defaultFibInput;
-    }
-
-    public int getDefaultReturnSize() {
-        return defaultReturnSize;
-    }
-
-    public void setDefaultReturnSize(int defaultReturnSize) {
-        this.defaultReturnSize = defaultReturnSize;
-    }
-
-    public int getDefaultNumberOfKiloByteBlocks() {
-        return defaultNumberOfKiloByteBlocks;
-    }
-
-    public void setDefaultNumberOfKiloByteBlocks(int defaultNumberOfKiloByteBlocks) {
-        this.defaultNumberOfKiloByteBlocks = defaultNumberOfKiloByteBlocks;
-    }
-
-    public String getDefaultRemoteUrl() {
-        return defaultRemoteUrl;
-    }
-
-    public void setDefaultRemoteUrl(String defaultRemoteUrl) {
-        this.defaultRemoteUrl = defaultRemoteUrl;
-    }
-
-    public int getDefaultMemoryFactor() {
-        return defaultMemoryFactor;
-    }
-
-    public void setDefaultMemoryFactor(int defaultMemoryFactor) {
-        this.defaultMemoryFactor = defaultMemoryFactor;
-    }
-
-    public String getUrlReplacementBase() {
-        return urlReplacementBase;
-    }
-
-    public void setUrlReplacementBase(String urlReplacementBase) {
-        this.urlReplacementBase = urlReplacementBase;
-    }
-
-    public boolean isForceSsl() {
-        return forceSsl;
-    }
-
-    public void setForceSsl(boolean forceSsl) {
-        this.forceSsl = forceSsl;
-    }
-
-    public boolean isForwardedHeaderFilterActivated() {
-        return forwardedHeaderFilterActivated;
-    }
-
-    public void setForwardedHeaderFilterActivated(boolean forwardedHeaderFilterActivated) {
-        this.forwardedHeaderFilterActivated = forwardedHeaderFilterActivated;
-    }
-
-    public boolean isForwardedHeaderFilterRemoveOnly() {
-        return forwardedHeaderFilterRemoveOnly;
-    }
-
-    public void setForwardedHeaderFilterRemoveOnly(boolean forwardedHeaderFilterRemoveOnly) {
-        this.forwardedHeaderFilterRemoveOnly = forwardedHeaderFilterRemoveOnly;
-    }
-
-    public String getForwardedHeaderFilterPatterns() {
-        return forwardedHeaderFilterPatterns;
-    }
-
-    public void setForwardedHeaderFilterPatterns(String forwardedHeaderFilterPatterns) {
-        this.forwardedHeaderFilterPatterns = forwardedHeaderFilterPatterns;
-    }
-
-    public boolean isForwardedHeaderFilterRelativeRedirect() {
-        return forwardedHeaderFilterRelativeRedirect;
-    }
-
-    public void setForwardedHeaderFilterRelativeRedirect(boolean forwardedHeaderFilterRelativeRedirect) {
-        this.forwardedHeaderFilterRelativeRedirect = forwardedHeaderFilterRelativeRedirect;
-    }
-
-    public String getPropagatedHeader() {
-        return propagatedHeader;
-    }
-
-    public HashSet<String> getPropagatedHeaderSet() {
-        return propagatedHeaderSet;
-    }
-
-    public void setPropagatedHeader(String propagedHeader) {
-        this.propagatedHeader = propagedHeader;
-        this.propagatedHeaderSet.clear();
-        if (this.propagatedHeader != null && this.propagatedHeader.trim().length() > 0) {
-            for (String s : this.propagatedHeader.split(",")) {
-                if (s.trim().length() > 0) {
-                    this.propagatedHeaderSet.add(s.trim());
-                }
-            }
-        }
-    }
-
-    @Override
-    public String toString() {
-        return "LoadTestConfiguration{" +
-                "showConfigOnStartup=" + showConfigOnStartup +
-                ", defaultSleepTimeMilliseconds=" + defaultSleepTimeMilliseconds +
-                ", defaultFibInput=" + defaultFibInput +
-                ", defaultReturnSize=" + defaultReturnSize +
-                ", defaultNumberOfKiloByteBlocks=" + defaultNumberOfKiloByteBlocks +
-                ", defaultRemoteUrl='" + defaultRemoteUrl + '\'' +
-                ", defaultMemoryFactor=" + defaultMemoryFactor +
-                ", urlReplacementBase='" + urlReplacementBase + '\'' +
-                ", forceSsl=" + forceSsl +
-                ", forwardedHeaderFilterActivated=" + forwardedHeaderFilterActivated +
-                ", forwardedHeaderFilterRemoveOnly=" + forwardedHeaderFilterRemoveOnly +
-                ", forwardedHeaderFilterPatterns='" + forwardedHeaderFilterPatterns + '\'' +
-                ", propagatedHeader='" + propagatedHeader + '\'' +
-                '}';
-    }
-}
+package de.datev.samples.loadtest.config;
+
+import de.datev.samples.loadtest.control.ScenarioStep;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@ConfigurationProperties(
+        prefix = "app-config",
+        ignoreUnknownFields = false
+)
+public class LoadTestConfiguration {
+
+    private boolean showConfigOnStartup = false;
+    private long defaultSleepTimeMilliseconds = 10;
+    private long maxSleepTimeMilliseconds = 60000L;
+    private int schedulerThreads = 2;
+    private int senderThreads = 8;
+    private int senderQueueSize = 10000;
+    private long pushSendTimeoutMilliseconds = 5000;
+    private int defaultFibInput = 35;
+    private long defaultCpuMicroseconds = 1000;
+    private int maxForkJoinParallelism = 64;
+    private int defaultReturnSize = 102400;
+    private long payloadCacheMaxBytes = 67108864;
+    private int defaultNumberOfKiloByteBlocks = 1024;
+    private int defaultDirectBlockSize = 65536;
+    private long sendfileMaxFileSize = 67108864;
+    private int uploadBufferSize = 65536;
+    private int uploadBufferPoolSize = 256;
+    private String defaultRemoteUrl = "$PROTOCOL$://$HOST$:$PORT$/api/test/fib?input=1";
+    private long defaultScatterDeadlineMilliseconds = 5000;
+    private long defaultSseTimeoutMilliseconds = 60000L;
+    private int maxSseEventsPerSecond = 1000;
+    private int defaultWebSocketMessageSize = 128;
+    private int maxWebSocketPushRate = 1000;
+    private int webSocketSendTimeLimitMilliseconds = 10000;
+    private int webSocketSendBufferSizeLimit = 524288;
+    private String metricsBucketParameters = "ms,input,size,factor,micros,numberOfKiloByteBlocks,kiloBytes,megaBytes";
+    private long defaultDriverDurationMilliseconds = 10000L;
+    private long driverMaxDurationMilliseconds = 600000L;
+    private long defaultDriverTimeoutMilliseconds = 10000L;
+    private int driverMaxInFlight = 10000;
+    private int driverMaxRate = 100000;
+    private long defaultDriverStartDelayMilliseconds = 2000L;
+    private long driverMaxStartDelayMilliseconds = 60000L;
+    private int driverMaxWorkers = 100;
+    private int httpClientMaxTotal = 200;
+    private int httpClientMaxPerRoute = 0;
+    private int httpClientConnectTimeoutMilliseconds = 5000;
+    private int httpClientReadTimeoutMilliseconds = 30000;
+    private int httpClientConnectionRequestTimeoutMilliseconds = 5000;
+    private int httpClientIdleEvictionSeconds = 30;
+    private int webClientMaxConnections = 500;
+    private int serverMaxThreads = 0;
+    private int serverMinSpareThreads = 0;
+    private int serverAcceptors = 0;
+    private int serverSelectors = 0;
+    private int serverMaxConnections = 0;
+    private int serverAcceptCount = 0;
+    private int serverBufferSize = 0;
+    private boolean serverVirtualThreads = false;
+    private int defaultMemoryFactor = 16;
+    private int memoryParallelThreshold = 256;
+    private int defaultHeapPressureKiloBytes = 1024;
+    private int heapPressureRingSlots = 64;
+    private long heapPressureMaxRetainedBytes = 268435456;
+    private int heapPressureLargeArraySize = 8388608;
+    private int heapPressureMaxKiloBytes = 1048576;
+    private int defaultOffHeapMegaBytes = 16;
+    private long offHeapMaxRetainedBytes = 536870912L;
+    private int offHeapChunkSize = 67108864;
+    private int scenarioMaxSteps = 100;
+    private Map<String, List<ScenarioStep>> scenarios = new LinkedHashMap<>();
+    private String urlReplacementBase = null;
+    private boolean forceSsl = false;
+    private boolean forwardedHeaderFilterActivated = false;
+    private String forwardedHeaderFilterPatterns = null;
+    private boolean forwardedHeaderFilterRemoveOnly = false;
+    private boolean forwardedHeaderFilterRelativeRedirect = false;
+    private String propagatedHeader = "Authorization";
+    private HashSet<String> propagatedHeaderSet = new HashSet<>();
+
+    public boolean isShowConfigOnStartup() {
+        return showConfigOnStartup;
+    }
+
+    public void setShowConfigOnStartup(boolean showConfigOnStartup) {
+        this.showConfigOnStartup = showConfigOnStartup;
+    }
+
+    public void setPropagatedHeaderSet(HashSet<String> propagatedHeaderSet) {
+        this.propagatedHeaderSet = propagatedHeaderSet;
+    }
+
+    public long getDefaultSleepTimeMilliseconds() {
+        return defaultSleepTimeMilliseconds;
+    }
+
+    public void setDefaultSleepTimeMilliseconds(long defaultSleepTimeMilliseconds) {
+        this.defaultSleepTimeMilliseconds = defaultSleepTimeMilliseconds;
+    }
+
+    public long getMaxSleepTimeMilliseconds() {
+        return maxSleepTimeMilliseconds;
+    }
+
+    public void setMaxSleepTimeMilliseconds(long maxSleepTimeMilliseconds) {
+        this.maxSleepTimeMilliseconds = maxSleepTimeMilliseconds;
+    }
+
+    public int getSchedulerThreads() {
+        return schedulerThreads;
+    }
+
+    public void setSchedulerThreads(int schedulerThreads) {
+        this.schedulerThreads = schedulerThreads;
+    }
+
+    public int getSenderThreads() {
+        return senderThreads;
+    }
+
+    public void setSenderThreads(int senderThreads) {
+        this.senderThreads = senderThreads;
+    }
+
+    public int getSenderQueueSize() {
+        return senderQueueSize;
+    }
+
+    public void setSenderQueueSize(int senderQueueSize) {
+        this.senderQueueSize = senderQueueSize;
+    }
+
+    public long getPushSendTimeoutMilliseconds() {
+        return pushSendTimeoutMilliseconds;
+    }
+
+    public void setPushSendTimeoutMilliseconds(long pushSendTimeoutMilliseconds) {
+        this.pushSendTimeoutMilliseconds = pushSendTimeoutMilliseconds;
+    }
+
+    public int getDefaultFibInput() {
+        return defaultFibInput;
+    }
+
+    public void setDefaultFibInput(int defaultFibInput) {
+        this.defaultFibInput = defaultFibInput;
+    }
+
+    public long getDefaultCpuMicroseconds() {
+        return defaultCpuMicroseconds;
+    }
+
+    public void setDefaultCpuMicroseconds(long defaultCpuMicroseconds) {
+        this.defaultCpuMicroseconds = defaultCpuMicroseconds;
+    }
+
+    public int getMaxForkJoinParallelism() {
+        return maxForkJoinParallelism;
+    }
+
+    public void setMaxForkJoinParallelism(int maxForkJoinParallelism) {
+        this.maxForkJoinParallelism = maxForkJoinParallelism;
+    }
+
+    public int getDefaultReturnSize() {
+        return defaultReturnSize;
+    }
+
+    public void setDefaultReturnSize(int defaultReturnSize) {
+        this.defaultReturnSize = defaultReturnSize;
+    }
+
+    public long getPayloadCacheMaxBytes() {
+        return payloadCacheMaxBytes;
+    }
+
+    public void setPayloadCacheMaxBytes(long payloadCacheMaxBytes) {
+        this.payloadCacheMaxBytes = payloadCacheMaxBytes;
+    }
+
+    public int getDefaultNumberOfKiloByteBlocks() {
+        return defaultNumberOfKiloByteBlocks;
+    }
+
+    public void setDefaultNumberOfKiloByteBlocks(int defaultNumberOfKiloByteBlocks) {
+        this.defaultNumberOfKiloByteBlocks = defaultNumberOfKiloByteBlocks;
+    }
+
+    public int getDefaultDirectBlockSize() {
+        return defaultDirectBlockSize;
+    }
+
+    public void setDefaultDirectBlockSize(int defaultDirectBlockSize) {
+        this.defaultDirectBlockSize = defaultDirectBlockSize;
+    }
+
+    public long getSendfileMaxFileSize() {
+        return sendfileMaxFileSize;
+    }
+
+    public void setSendfileMaxFileSize(long sendfileMaxFileSize) {
+        this.sendfileMaxFileSize = sendfileMaxFileSize;
+    }
+
+    public int getUploadBufferSize() {
+        return uploadBufferSize;
+    }
+
+    public void setUploadBufferSize(int uploadBufferSize) {
+        this.uploadBufferSize = uploadBufferSize;
+    }
+
+    public int getUploadBufferPoolSize() {
+        return uploadBufferPoolSize;
+    }
+
+    public void setUploadBufferPoolSize(int uploadBufferPoolSize) {
+        this.uploadBufferPoolSize = uploadBufferPoolSize;
+    }
+
+    public String getDefaultRemoteUrl() {
+        return defaultRemoteUrl;
+    }
+
+    public void setDefaultRemoteUrl(String defaultRemoteUrl) {
+        this.defaultRemoteUrl = defaultRemoteUrl;
+    }
+
+    public long getDefaultScatterDeadlineMilliseconds() {
+        return defaultScatterDeadlineMilliseconds;
+    }
+
+    public void setDefaultScatterDeadlineMilliseconds(long defaultScatterDeadlineMilliseconds) {
+        this.defaultScatterDeadlineMilliseconds = defaultScatterDeadlineMilliseconds;
+    }
+
+    public long getDefaultSseTimeoutMilliseconds() {
+        return defaultSseTimeoutMilliseconds;
+    }
+
+    public void setDefaultSseTimeoutMilliseconds(long defaultSseTimeoutMilliseconds) {
+        this.defaultSseTimeoutMilliseconds = defaultSseTimeoutMilliseconds;
+    }
+
+    public int getMaxSseEventsPerSecond() {
+        return maxSseEventsPerSecond;
+    }
+
+    public void setMaxSseEventsPerSecond(int maxSseEventsPerSecond) {
+        this.maxSseEventsPerSecond = maxSseEventsPerSecond;
+    }
+
+    public int getDefaultWebSocketMessageSize() {
+        return defaultWebSocketMessageSize;
+    }
+
+    public void setDefaultWebSocketMessageSize(int defaultWebSocketMessageSize) {
+        this.defaultWebSocketMessageSize = defaultWebSocketMessageSize;
+    }
+
+    public int getMaxWebSocketPushRate() {
+        return maxWebSocketPushRate;
+    }
+
+    public void setMaxWebSocketPushRate(int maxWebSocketPushRate) {
+        this.maxWebSocketPushRate = maxWebSocketPushRate;
+    }
+
+    public int getWebSocketSendTimeLimitMilliseconds() {
+        return webSocketSendTimeLimitMilliseconds;
+    }
+
+    public void setWebSocketSendTimeLimitMilliseconds(int webSocketSendTimeLimitMilliseconds) {
+        this.webSocketSendTimeLimitMilliseconds = webSocketSendTimeLimitMilliseconds;
+    }
+
+    public int getWebSocketSendBufferSizeLimit() {
+        return webSocketSendBufferSizeLimit;
+    }
+
+    public void setWebSocketSendBufferSizeLimit(int webSocketSendBufferSizeLimit) {
+        this.webSocketSendBufferSizeLimit = webSocketSendBufferSizeLimit;
+    }
+
+    public String getMetricsBucketParameters() {
+        return metricsBucketParameters;
+    }
+
+    public void setMetricsBucketParameters(String metricsBucketParameters) {
+        this.metricsBucketParameters = metricsBucketParameters;
+    }
+
+    public long getDefaultDriverDurationMilliseconds() {
+        return defaultDriverDurationMilliseconds;
+    }
+
+    public void setDefaultDriverDurationMilliseconds(long defaultDriverDurationMilliseconds) {
+        this.defaultDriverDurationMilliseconds = defaultDriverDurationMilliseconds;
+    }
+
+    public long getDriverMaxDurationMilliseconds() {
+        return driverMaxDurationMilliseconds;
+    }
+
+    public void setDriverMaxDurationMilliseconds(long driverMaxDurationMilliseconds) {
+        this.driverMaxDurationMilliseconds = driverMaxDurationMilliseconds;
+    }
+
+    public long getDefaultDriverTimeoutMilliseconds() {
+        return defaultDriverTimeoutMilliseconds;
+    }
+
+    public void setDefaultDriverTimeoutMilliseconds(long defaultDriverTimeoutMilliseconds) {
+        this.defaultDriverTimeoutMilliseconds = defaultDriverTimeoutMilliseconds;
+    }
+
+    public int getDriverMaxInFlight() {
+        return driverMaxInFlight;
+    }
+
+    public void setDriverMaxInFlight(int driverMaxInFlight) {
+        this.driverMaxInFlight = driverMaxInFlight;
+    }
+
+    public int getDriverMaxRate() {
+        return driverMaxRate;
+    }
+
+    public void setDriverMaxRate(int driverMaxRate) {
+        this.driverMaxRate = driverMaxRate;
+    }
+
+    public long getDefaultDriverStartDelayMilliseconds() {
+        return defaultDriverStartDelayMilliseconds;
+    }
+
+    public void setDefaultDriverStartDelayMilliseconds(long defaultDriverStartDelayMilliseconds) {
+        this.defaultDriverStartDelayMilliseconds = defaultDriverStartDelayMilliseconds;
+    }
+
+    public long getDriverMaxStartDelayMilliseconds() {
+        return driverMaxStartDelayMilliseconds;
+    }
+
+    public void setDriverMaxStartDelayMilliseconds(long driverMaxStartDelayMilliseconds) {
+        this.driverMaxStartDelayMilliseconds = driverMaxStartDelayMilliseconds;
+    }
+
+    public int getDriverMaxWorkers() {
+        return driverMaxWorkers;
+    }
+
+    public void setDriverMaxWorkers(int driverMaxWorkers) {
+        this.driverMaxWorkers = driverMaxWorkers;
+    }
+
+    public int getHttpClientMaxTotal() {
+        return httpClientMaxTotal;
+    }
+
+    public void setHttpClientMaxTotal(int httpClientMaxTotal) {
+        this.httpClientMaxTotal = httpClientMaxTotal;
+    }
+
+    public int getHttpClientMaxPerRoute() {
+        return httpClientMaxPerRoute;
+    }
+
+    public void setHttpClientMaxPerRoute(int httpClientMaxPerRoute) {
+        this.httpClientMaxPerRoute = httpClientMaxPerRoute;
+    }
+
+    public int getHttpClientConnectTimeoutMilliseconds() {
+        return httpClientConnectTimeoutMilliseconds;
+    }
+
+    public void setHttpClientConnectTimeoutMilliseconds(int httpClientConnectTimeoutMilliseconds) {
+        this.httpClientConnectTimeoutMilliseconds = httpClientConnectTimeoutMilliseconds;
+    }
+
+    public int getHttpClientReadTimeoutMilliseconds() {
+        return httpClientReadTimeoutMilliseconds;
+    }
+
+    public void setHttpClientReadTimeoutMilliseconds(int httpClientReadTimeoutMilliseconds) {
+        this.httpClientReadTimeoutMilliseconds = httpClientReadTimeoutMilliseconds;
+    }
+
+    public int getHttpClientConnectionRequestTimeoutMilliseconds() {
+        return httpClientConnectionRequestTimeoutMilliseconds;
+    }
+
+    public void setHttpClientConnectionRequestTimeoutMilliseconds(int httpClientConnectionRequestTimeoutMilliseconds) {
+        this.httpClientConnectionRequestTimeoutMilliseconds = httpClientConnectionRequestTimeoutMilliseconds;
+    }
+
+    public int getHttpClientIdleEvictionSeconds() {
+        return httpClientIdleEvictionSeconds;
+    }
+
+    public void setHttpClientIdleEvictionSeconds(int httpClientIdleEvictionSeconds) {
+        this.httpClientIdleEvictionSeconds = httpClientIdleEvictionSeconds;
+    }
+
+    public int getWebClientMaxConnections() {
+        return webClientMaxConnections;
+    }
+
+    public void setWebClientMaxConnections(int webClientMaxConnections) {
+        this.webClientMaxConnections = webClientMaxConnections;
+    }
+
+    public int getServerMaxThreads() {
+        return serverMaxThreads;
+    }
+
+    public void setServerMaxThreads(int serverMaxThreads) {
+        this.serverMaxThreads = serverMaxThreads;
+    }
+
+    public int getServerMinSpareThreads() {
+        return serverMinSpareThreads;
+    }
+
+    public void setServerMinSpareThreads(int serverMinSpareThreads) {
+        this.serverMinSpareThreads = serverMinSpareThreads;
+    }
+
+    public int getServerAcceptors() {
+        return serverAcceptors;
+    }
+
+    public void setServerAcceptors(int serverAcceptors) {
+        this.serverAcceptors = serverAcceptors;
+    }
+
+    public int getServerSelectors() {
+        return serverSelectors;
+    }
+
+    public void setServerSelectors(int serverSelectors) {
+        this.serverSelectors = serverSelectors;
+    }
+
+    public int getServerMaxConnections() {
+        return serverMaxConnections;
+    }
+
+    public void setServerMaxConnections(int serverMaxConnections) {
+        this.serverMaxConnections = serverMaxConnections;
+    }
+
+    public int getServerAcceptCount() {
+        return serverAcceptCount;
+    }
+
+    public void setServerAcceptCount(int serverAcceptCount) {
+        this.serverAcceptCount = serverAcceptCount;
+    }
+
+    public int getServerBufferSize() {
+        return serverBufferSize;
+    }
+
+    public void setServerBufferSize(int serverBufferSize) {
+        this.serverBufferSize = serverBufferSize;
+    }
+
+    public boolean isServerVirtualThreads() {
+        return serverVirtualThreads;
+    }
+
+    public void setServerVirtualThreads(boolean serverVirtualThreads) {
+        this.serverVirtualThreads = serverVirtualThreads;
+    }
+
+    public int getDefaultMemoryFactor() {
+        return defaultMemoryFactor;
+    }
+
+    public void setDefaultMemoryFactor(int defaultMemoryFactor) {
+        this.defaultMemoryFactor = defaultMemoryFactor;
+    }
+
+    public int getMemoryParallelThreshold() {
+        return memoryParallelThreshold;
+    }
+
+    public void setMemoryParallelThreshold(int memoryParallelThreshold) {
+        this.memoryParallelThreshold = memoryParallelThreshold;
+    }
+
+    public int getDefaultHeapPressureKiloBytes() {
+        return defaultHeapPressureKiloBytes;
+    }
+
+    public void setDefaultHeapPressureKiloBytes(int defaultHeapPressureKiloBytes) {
+        this.defaultHeapPressureKiloBytes = defaultHeapPressureKiloBytes;
+    }
+
+    public int getHeapPressureRingSlots() {
+        return heapPressureRingSlots;
+    }
+
+    public void setHeapPressureRingSlots(int heapPressureRingSlots) {
+        this.heapPressureRingSlots = heapPressureRingSlots;
+    }
+
+    public long getHeapPressureMaxRetainedBytes() {
+        return heapPressureMaxRetainedBytes;
+    }
+
+    public void setHeapPressureMaxRetainedBytes(long heapPressureMaxRetainedBytes) {
+        this.heapPressureMaxRetainedBytes = heapPressureMaxRetainedBytes;
+    }
+
+    public int getHeapPressureLargeArraySize() {
+        return heapPressureLargeArraySize;
+    }
+
+    public void setHeapPressureLargeArraySize(int heapPressureLargeArraySize) {
+        this.heapPressureLargeArraySize = heapPressureLargeArraySize;
+    }
+
+    public int getHeapPressureMaxKiloBytes() {
+        return heapPressureMaxKiloBytes;
+    }
+
+    public void setHeapPressureMaxKiloBytes(int heapPressureMaxKiloBytes) {
+        this.heapPressureMaxKiloBytes = heapPressureMaxKiloBytes;
+    }
+
+    public int getDefaultOffHeapMegaBytes() {
+        return defaultOffHeapMegaBytes;
+    }
+
+    public void setDefaultOffHeapMegaBytes(int defaultOffHeapMegaBytes) {
+        this.defaultOffHeapMegaBytes = defaultOffHeapMegaBytes;
+    }
+
+    public long getOffHeapMaxRetainedBytes() {
+        return offHeapMaxRetainedBytes;
+    }
+
+    public void setOffHeapMaxRetainedBytes(long offHeapMaxRetainedBytes) {
+        this.offHeapMaxRetainedBytes = offHeapMaxRetainedBytes;
+    }
+
+    public int getOffHeapChunkSize() {
+        return offHeapChunkSize;
+    }
+
+    public void setOffHeapChunkSize(int offHeapChunkSize) {
+        this.offHeapChunkSize = offHeapChunkSize;
+    }
+
+    public int getScenarioMaxSteps() {
+        return scenarioMaxSteps;
+    }
+
+    public void setScenarioMaxSteps(int scenarioMaxSteps) {
+        this.scenarioMaxSteps = scenarioMaxSteps;
+    }
+
+    public Map<String, List<ScenarioStep>> getScenarios() {
+        return scenarios;
+    }
+
+    public void setScenarios(Map<String, List<ScenarioStep>> scenarios) {
+        this.scenarios = scenarios;
+    }
+
+    public String getUrlReplacementBase() {
+        return urlReplacementBase;
+    }
+
+    public void setUrlReplacementBase(String urlReplacementBase) {
+        this.urlReplacementBase = urlReplacementBase;
+    }
+
+    public boolean isForceSsl() {
+        return forceSsl;
+    }
+
+    public void setForceSsl(boolean forceSsl) {
+        this.forceSsl = forceSsl;
+    }
+
+    public boolean isForwardedHeaderFilterActivated() {
+        return forwardedHeaderFilterActivated;
+    }
+
+    public void setForwardedHeaderFilterActivated(boolean forwardedHeaderFilterActivated) {
+        this.forwardedHeaderFilterActivated = forwardedHeaderFilterActivated;
+    }
+
+    public boolean isForwardedHeaderFilterRemoveOnly() {
+        return forwardedHeaderFilterRemoveOnly;
+    }
+
+    public void setForwardedHeaderFilterRemoveOnly(boolean forwardedHeaderFilterRemoveOnly) {
+        this.forwardedHeaderFilterRemoveOnly = forwardedHeaderFilterRemoveOnly;
+    }
+
+    public String getForwardedHeaderFilterPatterns() {
+        return forwardedHeaderFilterPatterns;
+    }
+
+    public void setForwardedHeaderFilterPatterns(String forwardedHeaderFilterPatterns) {
+        this.forwardedHeaderFilterPatterns = forwardedHeaderFilterPatterns;
+    }
+
+    public boolean isForwardedHeaderFilterRelativeRedirect() {
+        return forwardedHeaderFilterRelativeRedirect;
+    }
+
+    public void setForwardedHeaderFilterRelativeRedirect(boolean forwardedHeaderFilterRelativeRedirect) {
+        this.forwardedHeaderFilterRelativeRedirect = forwardedHeaderFilterRelativeRedirect;
+    }
+
+    public String getPropagatedHeader() {
+        return propagatedHeader;
+    }
+
+    public HashSet<String> getPropagatedHeaderSet() {
+        return propagatedHeaderSet;
+    }
+
+    public void setPropagatedHeader(String propagedHeader) {
+        this.propagatedHeader = propagedHeader;
+        this.propagatedHeaderSet.clear();
+        if (this.propagatedHeader != null && this.propagatedHeader.trim().length() > 0) {
+            for (String s : this.propagatedHeader.split(",")) {
+                if (s.trim().length() > 0) {
+                    this.propagatedHeaderSet.add(s.trim());
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LoadTestConfiguration{" +
+                "showConfigOnStartup=" + showConfigOnStartup +
+                ", defaultSleepTimeMilliseconds=" + defaultSleepTimeMilliseconds +
+                ", maxSleepTimeMilliseconds=" + maxSleepTimeMilliseconds +
+                ", schedulerThreads=" + schedulerThreads +
+                ", senderThreads=" + senderThreads +
+                ", senderQueueSize=" + senderQueueSize +
+                ", pushSendTimeoutMilliseconds=" + pushSendTimeoutMilliseconds +
+                ", defaultFibInput=" + defaultFibInput +
+                ", defaultCpuMicroseconds=" + defaultCpuMicroseconds +
+                ", maxForkJoinParallelism=" + maxForkJoinParallelism +
+                ", defaultReturnSize=" + defaultReturnSize +
+                ", payloadCacheMaxBytes=" + payloadCacheMaxBytes +
+                ", defaultNumberOfKiloByteBlocks=" + defaultNumberOfKiloByteBlocks +
+                ", defaultDirectBlockSize=" + defaultDirectBlockSize +
+                ", sendfileMaxFileSize=" + sendfileMaxFileSize +
+                ", uploadBufferSize=" + uploadBufferSize +
+                ", uploadBufferPoolSize=" + uploadBufferPoolSize +
+                ", defaultRemoteUrl='" + defaultRemoteUrl + '\'' +
+                ", defaultScatterDeadlineMilliseconds=" + defaultScatterDeadlineMilliseconds +
+                ", defaultSseTimeoutMilliseconds=" + defaultSseTimeoutMilliseconds +
+                ", maxSseEventsPerSecond=" + maxSseEventsPerSecond +
+                ", defaultWebSocketMessageSize=" + defaultWebSocketMessageSize +
+                ", maxWebSocketPushRate=" + maxWebSocketPushRate +
+                ", webSocketSendTimeLimitMilliseconds=" + webSocketSendTimeLimitMilliseconds +
+                ", webSocketSendBufferSizeLimit=" + webSocketSendBufferSizeLimit +
+                ", metricsBucketParameters='" + metricsBucketParameters + '\'' +
+                ", defaultDriverDurationMilliseconds=" + defaultDriverDurationMilliseconds +
+                ", driverMaxDurationMilliseconds=" + driverMaxDurationMilliseconds +
+                ", defaultDriverTimeoutMilliseconds=" + defaultDriverTimeoutMilliseconds +
+                ", driverMaxInFlight=" + driverMaxInFlight +
+                ", driverMaxRate=" + driverMaxRate +
+                ", defaultDriverStartDelayMilliseconds=" + defaultDriverStartDelayMilliseconds +
+                ", driverMaxStartDelayMilliseconds=" + driverMaxStartDelayMilliseconds +
+                ", driverMaxWorkers=" + driverMaxWorkers +
+                ", httpClientMaxTotal=" + httpClientMaxTotal +
+                ", httpClientMaxPerRoute=" + httpClientMaxPerRoute +
+                ", httpClientConnectTimeoutMilliseconds=" + httpClientConnectTimeoutMilliseconds +
+                ", httpClientReadTimeoutMilliseconds=" + httpClientReadTimeoutMilliseconds +
+                ", httpClientConnectionRequestTimeoutMilliseconds=" + httpClientConnectionRequestTimeoutMilliseconds +
+                ", httpClientIdleEvictionSeconds=" + httpClientIdleEvictionSeconds +
+                ", webClientMaxConnections=" + webClientMaxConnections +
+                ", serverMaxThreads=" + serverMaxThreads +
+                ", serverMinSpareThreads=" + serverMinSpareThreads +
+                ", serverAcceptors=" + serverAcceptors +
+                ", serverSelectors=" + serverSelectors +
+                ", serverMaxConnections=" + serverMaxConnections +
+                ", serverAcceptCount=" + serverAcceptCount +
+                ", serverBufferSize=" + serverBufferSize +
+                ", serverVirtualThreads=" + serverVirtualThreads +
+                ", defaultMemoryFactor=" + defaultMemoryFactor +
+                ", memoryParallelThreshold=" + memoryParallelThreshold +
+                ", defaultHeapPressureKiloBytes=" + defaultHeapPressureKiloBytes +
+                ", heapPressureRingSlots=" + heapPressureRingSlots +
+                ", heapPressureMaxRetainedBytes=" + heapPressureMaxRetainedBytes +
+                ", heapPressureLargeArraySize=" + heapPressureLargeArraySize +
+                ", heapPressureMaxKiloBytes=" + heapPressureMaxKiloBytes +
+                ", defaultOffHeapMegaBytes=" + defaultOffHeapMegaBytes +
+                ", offHeapMaxRetainedBytes=" + offHeapMaxRetainedBytes +
+                ", offHeapChunkSize=" + offHeapChunkSize +
+                ", scenarioMaxSteps=" + scenarioMaxSteps +
+                ", scenarios=" + scenarios +
+                ", urlReplacementBase='" + urlReplacementBase + '\'' +
+                ", forceSsl=" + forceSsl +
+                ", forwardedHeaderFilterActivated=" + forwardedHeaderFilterActivated +
+                ", forwardedHeaderFilterRemoveOnly=" + forwardedHeaderFilterRemoveOnly +
+                ", forwardedHeaderFilterPatterns='" + forwardedHeaderFilterPatterns + '\'' +
+                ", propagatedHeader='" + propagatedHeader + '\'' +
+                '}';
+    }
+}
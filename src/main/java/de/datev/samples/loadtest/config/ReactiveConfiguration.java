@@ -0,0 +1,40 @@
+package de.datev.samples.loadtest.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import java.net.URI;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+/**
+ * Used with the "reactive" profile only, which starts the application as a WebFlux application. Without this
+ * factory, Spring Boot would run WebFlux on Tomcat, because Tomcat is on the class path for the servlet mode.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfiguration {
+
+    private static final Logger LOGGER = LogManager.getLogger(ReactiveConfiguration.class);
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+
+        LOGGER.info("Creating reactive web server on Reactor Netty");
+        return new NettyReactiveWebServerFactory();
+    }
+
+    // The same redirect as in WebConfiguration, the static resources are served by Spring Boot's defaults
+    @Bean
+    public RouterFunction<ServerResponse> indexRedirect() {
+
+        return route(GET("/"), request -> ServerResponse.temporaryRedirect(URI.create("index.html")).build());
+    }
+}
@@ -0,0 +1,178 @@
+package de.datev.samples.loadtest.config;
+
+import de.datev.samples.loadtest.control.FacetMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The HTTP clients used for outgoing calls of the "remote" facets. Connections are pooled and kept alive, so that
+ * load tests measure the remote calls and not the TCP/TLS handshakes. The blocking RestTemplate is based on Apache
+ * HttpClient, the non-blocking WebClient on Reactor Netty.
+ */
+@Configuration
+public class RestClientConfiguration {
+
+    private static final Logger LOGGER = LogManager.getLogger(RestClientConfiguration.class);
+
+    private static final String READ_TIMEOUT_HANDLER = "loadtest.readTimeout";
+
+    @Autowired
+    LoadTestConfiguration loadTestConfiguration;
+
+    @Autowired
+    ServerProperties serverProperties;
+
+    // "/remote-fib" calls this server again: every level holds a request thread and a pooled connection, while it
+    // waits for the next level, so one call with input n holds n - 1 of each. The pool per route defaults to the
+    // request threads of the server (app-config.server-max-threads, else server.tomcat.max-threads), so that it does
+    // not run out before the threads do. Concurrent calls, which hold more threads together, wait for the read
+    // timeout and fail.
+    @Bean
+    public PoolingHttpClientConnectionManager httpClientConnectionManager() {
+
+        final int serverMaxThreads = loadTestConfiguration.getServerMaxThreads() > 0
+                ? loadTestConfiguration.getServerMaxThreads() : serverProperties.getTomcat().getMaxThreads();
+        final int maxPerRoute = loadTestConfiguration.getHttpClientMaxPerRoute() > 0
+                ? loadTestConfiguration.getHttpClientMaxPerRoute() : serverMaxThreads;
+        if (maxPerRoute < serverMaxThreads) {
+            LOGGER.warn("HTTP client pool maxPerRoute={} is below the server's max threads {}, "
+                    + "requests calling this server may wait for a connection", maxPerRoute, serverMaxThreads);
+        }
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(Math.max(loadTestConfiguration.getHttpClientMaxTotal(), maxPerRoute));
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        LOGGER.info("Creating HTTP client pool with maxTotal={}, maxPerRoute={}",
+                connectionManager.getMaxTotal(), connectionManager.getDefaultMaxPerRoute());
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpClientConnectionManager) {
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(loadTestConfiguration.getHttpClientConnectTimeoutMilliseconds())
+                .setSocketTimeout(loadTestConfiguration.getHttpClientReadTimeoutMilliseconds())
+                .setConnectionRequestTimeout(loadTestConfiguration.getHttpClientConnectionRequestTimeoutMilliseconds())
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(httpClientConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(loadTestConfiguration.getHttpClientIdleEvictionSeconds(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient httpClient, FacetMetrics facetMetrics) {
+
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        // RestTemplate calls are executed on the request thread of the calling facet
+        restTemplate.getInterceptors().add((request, body, execution) -> {
+            final long start = System.nanoTime();
+            try {
+                return execution.execute(request, body);
+            } finally {
+                final long nanos = System.nanoTime() - start;
+                facetMetrics.recordDownstream("rest-template", nanos);
+                final LongAdder downstreamNanos = FacetMetricsInterceptor.currentDownstreamNanos();
+                if (downstreamNanos != null) {
+                    downstreamNanos.add(nanos);
+                }
+            }
+        });
+        return restTemplate;
+    }
+
+    @Bean
+    @Primary
+    public WebClient webClient(WebClient.Builder webClientBuilder, FacetMetrics facetMetrics) {
+
+        LOGGER.info("Creating WebClient with maxConnections={}", loadTestConfiguration.getWebClientMaxConnections());
+        return webClientBuilder
+                .clientConnector(createClientConnector("loadtest"))
+                .filter((request, next) -> {
+                    // the exchange is created on the request thread of the calling facet, the response arrives later
+                    final LongAdder downstreamNanos = FacetMetricsInterceptor.currentDownstreamNanos();
+                    return Mono.defer(() -> {
+                        final long start = System.nanoTime();
+                        return next.exchange(request).doFinally(signal -> {
+                            final long nanos = System.nanoTime() - start;
+                            facetMetrics.recordDownstream("web-client", nanos);
+                            if (downstreamNanos != null) {
+                                downstreamNanos.add(nanos);
+                            }
+                        });
+                    });
+                })
+                .build();
+    }
+
+    // The WebClient of the load driver: its requests are the load itself, not downstream calls of a facet, so they
+    // are not recorded in loadtest.facet.downstream and have their own connection pool.
+    @Bean
+    public WebClient driverWebClient(WebClient.Builder webClientBuilder) {
+
+        return webClientBuilder
+                .clientConnector(createClientConnector("loadtest-driver"))
+                .build();
+    }
+
+    private ReactorClientHttpConnector createClientConnector(String poolName) {
+
+        final int readTimeoutMilliseconds = loadTestConfiguration.getHttpClientReadTimeoutMilliseconds();
+        ConnectionProvider connectionProvider = ConnectionProvider.fixed(poolName,
+                loadTestConfiguration.getWebClientMaxConnections(),
+                loadTestConfiguration.getHttpClientConnectionRequestTimeoutMilliseconds());
+        // The read timeout applies to a request only, an idle connection in the pool must not be closed by it
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .tcpConfiguration(tcpClient -> tcpClient
+                        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, loadTestConfiguration.getHttpClientConnectTimeoutMilliseconds()))
+                .doOnRequest((request, connection) -> connection.addHandlerLast(READ_TIMEOUT_HANDLER,
+                        new ReadTimeoutHandler(readTimeoutMilliseconds, TimeUnit.MILLISECONDS)))
+                .doAfterResponse((response, connection) -> connection.removeHandler(READ_TIMEOUT_HANDLER));
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
+    // Exposes the pool statistics as "http.client.pool.*" in /actuator/metrics
+    @Bean
+    public MeterBinder httpClientConnectionPoolMetrics(PoolingHttpClientConnectionManager httpClientConnectionManager) {
+
+        return registry -> {
+            Gauge.builder("http.client.pool.leased", httpClientConnectionManager,
+                    cm -> cm.getTotalStats().getLeased())
+                    .description("Connections currently leased from the pool").register(registry);
+            Gauge.builder("http.client.pool.pending", httpClientConnectionManager,
+                    cm -> cm.getTotalStats().getPending())
+                    .description("Requests waiting for a connection of the pool").register(registry);
+            Gauge.builder("http.client.pool.available", httpClientConnectionManager,
+                    cm -> cm.getTotalStats().getAvailable())
+                    .description("Idle connections available in the pool").register(registry);
+            Gauge.builder("http.client.pool.max", httpClientConnectionManager,
+                    cm -> cm.getTotalStats().getMax())
+                    .description("Maximum number of connections of the pool").register(registry);
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package de.datev.samples.loadtest.config;
+
+import de.datev.samples.loadtest.boundary.WebSocketFacetHandler;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class WebSocketConfiguration implements WebSocketConfigurer {
+
+    private static final Logger LOGGER = LogManager.getLogger(WebSocketConfiguration.class);
+
+    @Autowired
+    WebSocketFacetHandler webSocketFacetHandler;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+
+        final String[] paths = {
+                WebSocketFacetHandler.PATH_PREFIX + "echo",
+                WebSocketFacetHandler.PATH_PREFIX + "push",
+                WebSocketFacetHandler.PATH_PREFIX + "broadcast"
+        };
+        // load test clients do not send a browser origin
+        registry.addHandler(webSocketFacetHandler, paths).setAllowedOrigins("*");
+        LOGGER.info("Registering WebSocket handler for {}", String.join(", ", paths));
+    }
+}
@@ -0,0 +1,94 @@
+package de.datev.samples.loadtest.control;
+
+import de.datev.samples.loadtest.config.LoadTestConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A preallocated payload block of MAX_BLOCK_SIZE bytes filled with 'a', which is shared by all requests and never
+ * modified. Smaller blocks are views of its first bytes, so the memory does not depend on the requested sizes.
+ */
+@Component
+public class BlockCache {
+
+    private static final Logger log = LoggerFactory.getLogger(BlockCache.class);
+
+    public static final int MAX_BLOCK_SIZE = 1024 * 1024;
+
+    private final LoadTestConfiguration loadTestConfiguration;
+
+    private final byte[] block = new byte[MAX_BLOCK_SIZE];
+
+    private Path payloadFile;
+
+    @Autowired
+    public BlockCache(LoadTestConfiguration loadTestConfiguration) {
+        this.loadTestConfiguration = loadTestConfiguration;
+        Arrays.fill(block, (byte) 'a');
+    }
+
+    /**
+     * Returns the block of MAX_BLOCK_SIZE bytes, callers write as many of its bytes as they need. The block is shared
+     * and must not be modified.
+     */
+    public byte[] getBlock() {
+        return block;
+    }
+
+    /**
+     * Returns a view of the first size bytes of the block, size must not exceed MAX_BLOCK_SIZE. Every caller gets its
+     * own view (position and limit), but the memory is shared and must not be modified.
+     */
+    public ByteBuffer getBlock(int size) {
+        return ByteBuffer.wrap(block, 0, size).slice();
+    }
+
+    /**
+     * Returns a temporary file filled with 'a' of app-config.sendfile-max-file-size bytes, which can be sent with
+     * sendfile by the servlet container, or null, if the requested size does not fit into the file.
+     */
+    public synchronized Path getPayloadFile(long minimumSize) {
+
+        final long fileSize = loadTestConfiguration.getSendfileMaxFileSize();
+        if (minimumSize > fileSize) {
+            return null;
+        }
+        if (payloadFile == null) {
+            try {
+                Path file = Files.createTempFile("loadtest-payload-", ".txt");
+                file.toFile().deleteOnExit();
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    long written = 0;
+                    while (written < fileSize) {
+                        written += channel.write(getBlock((int) Math.min(MAX_BLOCK_SIZE, fileSize - written)));
+                    }
+                }
+                log.info("Created payload file {} with {} bytes", file, fileSize);
+                payloadFile = file;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return payloadFile;
+    }
+
+    @PreDestroy
+    synchronized void destroy() throws IOException {
+
+        if (payloadFile != null) {
+            Files.deleteIfExists(payloadFile);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package de.datev.samples.loadtest.control;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Latency histograms of the facets. Each timer publishes p50, p90, p99 and p99.9 (computed with an HDR histogram in
+ * the application) and percentile histogram buckets for aggregation in Prometheus. The input parameter of a facet is
+ * reduced to a power of two bucket, so that the number of time series stays small.
+ * <ul>
+ * <li>loadtest.facet.latency - total time of a facet request (tags facet, handler, status, param, bucket)</li>
+ * <li>loadtest.facet.local - total time minus the time spent in downstream calls, only for requests with
+ * downstream calls (same tags)</li>
+ * <li>loadtest.facet.downstream - time of a single outgoing call (tag client)</li>
+ * <li>loadtest.facet.inflight - number of facet requests in progress</li>
+ * <li>loadtest.facet.allocated - bytes allocated by the request threads of a facet request (tags facet, handler).
+ * The JVM counts allocations only for platform threads, on virtual threads (app-config.server-virtual-threads) the
+ * summary stays empty and rate(jvm.gc.memory.allocated) / rate(loadtest.facet.latency_count) is the estimate.</li>
+ * <li>loadtest.facet.throughput - MB/s achieved by a download facet, which writes the body itself (tags facet,
+ * mode)</li>
+ * </ul>
+ */
+@Component
+public class FacetMetrics {
+
+    public static final String NO_PARAMETER = "none";
+
+    private static final double[] PERCENTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    private final MeterRegistry meterRegistry;
+    // Timer lookup in the registry needs a new Meter.Id per call, this cache does not
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    @Autowired
+    public FacetMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("loadtest.facet.inflight", inflight, AtomicInteger::get)
+                .description("Facet requests in progress")
+                .register(meterRegistry);
+    }
+
+    public void requestStarted() {
+        inflight.incrementAndGet();
+    }
+
+    public void requestCompleted() {
+        inflight.decrementAndGet();
+    }
+
+    public void recordFacet(String facet, String handler, int status, String parameter, String bucket,
+                            long totalNanos, long downstreamNanos) {
+
+        final String tags = facet + '|' + handler + '|' + status + '|' + parameter + '|' + bucket;
+        timer("loadtest.facet.latency", tags, "Latency of the facet",
+                "facet", facet, "handler", handler, "status", String.valueOf(status), "param", parameter, "bucket", bucket)
+                .record(totalNanos, TimeUnit.NANOSECONDS);
+        if (downstreamNanos > 0) {
+            // parallel downstream calls may take longer in sum than the whole request
+            timer("loadtest.facet.local", tags, "Latency of the facet without downstream calls",
+                    "facet", facet, "handler", handler, "status", String.valueOf(status), "param", parameter, "bucket", bucket)
+                    .record(Math.max(0, totalNanos - downstreamNanos), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void recordDownstream(String client, long nanos) {
+
+        timer("loadtest.facet.downstream", client, "Latency of a call to a downstream service", "client", client)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordAllocation(String facet, String handler, long bytes) {
+
+        summary("loadtest.facet.allocated", facet + '|' + handler, "Bytes allocated by the request threads of the facet",
+                "bytes", "facet", facet, "handler", handler)
+                .record(bytes);
+    }
+
+    public void recordThroughput(String facet, String mode, double megaBytesPerSecond) {
+
+        summary("loadtest.facet.throughput", facet + '|' + mode, "MB/s achieved by the download facet",
+                null, "facet", facet, "mode", mode)
+                .record(megaBytesPerSecond);
+    }
+
+    /**
+     * Returns the number of bytes allocated by the current thread so far, or -1 if the JVM does not measure it for
+     * this thread (e.g. on virtual threads).
+     */
+    public static long currentThreadAllocatedBytes() {
+
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        final com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+        if (!sunThreadMXBean.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        return sunThreadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Returns the smallest power of two, which is greater than or equal to value, as a String, "0" for values <= 0.
+     */
+    public static String bucket(long value) {
+
+        if (value <= 0) {
+            return "0";
+        }
+        if (value > (1L << 62)) {
+            return String.valueOf(Long.MAX_VALUE);
+        }
+        return value == 1 ? "1" : String.valueOf(Long.highestOneBit(value - 1) << 1);
+    }
+
+    private DistributionSummary summary(String name, String tags, String description, String baseUnit,
+                                        String... keyValues) {
+
+        return summaries.computeIfAbsent(name + '|' + tags, key -> DistributionSummary.builder(name)
+                .description(description)
+                .baseUnit(baseUnit)
+                .tags(keyValues)
+                .publishPercentiles(PERCENTILES)
+                .register(meterRegistry));
+    }
+
+    private Timer timer(String name, String tags, String description, String... keyValues) {
+
+        return timers.computeIfAbsent(name + '|' + tags, key -> Timer.builder(name)
+                .description(description)
+                .tags(keyValues)
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,20 @@
+package de.datev.samples.loadtest.control;
+
+import java.util.Locale;
+
+/**
+ * The algorithms available to compute Fibonacci numbers. Only RECURSIVE is a CPU burner (exponential time), the
+ * others are linear (ITERATIVE, MEMOIZED) or logarithmic (MATRIX) and can be used to test the serialization of
+ * large numbers.
+ */
+public enum FibonacciMode {
+
+    RECURSIVE,
+    ITERATIVE,
+    MEMOIZED,
+    MATRIX;
+
+    public static FibonacciMode fromString(String mode) {
+        return valueOf(mode.trim().toUpperCase(Locale.ROOT));
+    }
+}
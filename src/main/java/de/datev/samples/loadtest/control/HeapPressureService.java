@@ -0,0 +1,16 @@
+package de.datev.samples.loadtest.control;
+
+public interface HeapPressureService {
+
+    /**
+     * Allocates an object graph of the given shape with about the given number of payload bytes. With
+     * retainMilliseconds > 0 the graph is kept for that time, with ring = true it is kept in a bounded ring until it
+     * is displaced by later allocations, otherwise it is garbage after the call.
+     *
+     * @throws IllegalArgumentException if bytes is not between 1 and app-config.heap-pressure-max-kilo-bytes KiB
+     * @throws IllegalStateException if retaining the graph would exceed app-config.heap-pressure-max-retained-bytes
+     */
+    HeapPressureStatistics allocate(HeapShape shape, long bytes, long retainMilliseconds, boolean ring);
+
+    long getRetainedBytes();
+}
@@ -0,0 +1,184 @@
+package de.datev.samples.loadtest.control;
+
+import de.datev.samples.loadtest.config.LoadTestConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+@Service
+public class HeapPressureServiceImpl implements HeapPressureService, MeterBinder {
+
+    private static final int WIDE_MAP_VALUE_SIZE = 64;
+    private static final int DEEP_LIST_NODE_SIZE = 32;
+
+    private final SharedScheduler sharedScheduler;
+    private final long maxRetainedBytes;
+    private final long maxBytes;
+    private final int largeArraySize;
+
+    private final AtomicLong retainedBytes = new AtomicLong();
+    // Graphs retained for a given time
+    private final Set<Retained> timed = ConcurrentHashMap.newKeySet();
+    // Graphs retained until they are displaced by later allocations
+    private final AtomicReferenceArray<Retained> ring;
+    private final AtomicLong ringIndex = new AtomicLong();
+
+    // Keeps the JIT from eliminating allocations, which are not retained
+    private volatile int sink;
+
+    @Autowired
+    public HeapPressureServiceImpl(SharedScheduler sharedScheduler, LoadTestConfiguration loadTestConfiguration) {
+        this.sharedScheduler = sharedScheduler;
+        this.maxRetainedBytes = loadTestConfiguration.getHeapPressureMaxRetainedBytes();
+        this.maxBytes = 1024L * loadTestConfiguration.getHeapPressureMaxKiloBytes();
+        this.largeArraySize = Math.max(1, loadTestConfiguration.getHeapPressureLargeArraySize());
+        this.ring = new AtomicReferenceArray<>(Math.max(1, loadTestConfiguration.getHeapPressureRingSlots()));
+    }
+
+    @Override
+    public HeapPressureStatistics allocate(HeapShape shape, long bytes, long retainMilliseconds, boolean ring) {
+
+        if (bytes < 1 || bytes > maxBytes) {
+            throw new IllegalArgumentException("Allocating " + bytes + " bytes is not between 1 and " + maxBytes);
+        }
+        final boolean retain = retainMilliseconds > 0 || ring;
+        if (retain && retainedBytes.addAndGet(bytes) > maxRetainedBytes) {
+            retainedBytes.addAndGet(-bytes);
+            throw new IllegalStateException("Retaining " + bytes + " bytes would exceed " + maxRetainedBytes + " bytes");
+        }
+
+        final long[] gcBefore;
+        final long[] gcAfter;
+        boolean retained = false;
+        try {
+            gcBefore = collectGarbageCollectorStatistics();
+            final Object graph = createGraph(shape, bytes);
+            gcAfter = collectGarbageCollectorStatistics();
+
+            if (retainMilliseconds > 0) {
+                final Retained timedGraph = new Retained(graph, bytes);
+                timed.add(timedGraph);
+                try {
+                    sharedScheduler.schedule(() -> {
+                        if (timed.remove(timedGraph)) {
+                            retainedBytes.addAndGet(-timedGraph.bytes);
+                        }
+                    }, retainMilliseconds, TimeUnit.MILLISECONDS);
+                } catch (RuntimeException e) {
+                    // not released by the scheduler, the reservation is returned below
+                    timed.remove(timedGraph);
+                    throw e;
+                }
+            } else if (ring) {
+                final int slot = (int) (ringIndex.getAndIncrement() % this.ring.length());
+                final Retained displaced = this.ring.getAndSet(slot, new Retained(graph, bytes));
+                if (displaced != null) {
+                    retainedBytes.addAndGet(-displaced.bytes);
+                }
+            } else {
+                sink = System.identityHashCode(graph);
+            }
+            retained = retain;
+        } finally {
+            // e.g. OutOfMemoryError in createGraph: the reservation must not leak
+            if (retain && !retained) {
+                retainedBytes.addAndGet(-bytes);
+            }
+        }
+        return new HeapPressureStatistics(bytes, retainedBytes.get(),
+                gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+    }
+
+    @Override
+    public long getRetainedBytes() {
+        return retainedBytes.get();
+    }
+
+    // Exposes the retained bytes as "loadtest.heap.pressure.retained" in /actuator/metrics
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        Gauge.builder("loadtest.heap.pressure.retained", this, HeapPressureService::getRetainedBytes)
+                .description("Bytes retained by the heap pressure facet").baseUnit("bytes").register(registry);
+    }
+
+    private Object createGraph(HeapShape shape, long bytes) {
+
+        switch (shape) {
+            case WIDE_MAP: {
+                // bytes is limited by maxBytes, but the capacity of a HashMap is an int
+                final int entries = (int) Math.min(Integer.MAX_VALUE / 2, Math.max(1, bytes / WIDE_MAP_VALUE_SIZE));
+                final Map<Integer, byte[]> map = new HashMap<>((int) Math.min(Integer.MAX_VALUE / 2, entries * 4L / 3 + 1));
+                for (int i = 0; i < entries; i++) {
+                    map.put(i, new byte[WIDE_MAP_VALUE_SIZE]);
+                }
+                return map;
+            }
+            case DEEP_LIST: {
+                final long nodes = Math.max(1, bytes / DEEP_LIST_NODE_SIZE);
+                Node head = null;
+                for (long i = 0; i < nodes; i++) {
+                    head = new Node(head, new byte[DEEP_LIST_NODE_SIZE]);
+                }
+                return head;
+            }
+            case LARGE_ARRAY: {
+                final List<byte[]> chunks = new ArrayList<>((int) Math.min(Integer.MAX_VALUE / 2, bytes / largeArraySize + 1));
+                for (long remaining = bytes; remaining > 0; remaining -= largeArraySize) {
+                    chunks.add(new byte[(int) Math.min(largeArraySize, remaining)]);
+                }
+                return chunks;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown shape " + shape);
+        }
+    }
+
+    // Returns { collection count, collection time in ms } summed over all collectors
+    private static long[] collectGarbageCollectorStatistics() {
+
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[] { count, time };
+    }
+
+    private static final class Node {
+
+        private final Node next;
+        private final byte[] payload;
+
+        Node(Node next, byte[] payload) {
+            this.next = next;
+            this.payload = payload;
+        }
+    }
+
+    private static final class Retained {
+
+        private final Object graph;
+        private final long bytes;
+
+        Retained(Object graph, long bytes) {
+            this.graph = graph;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package de.datev.samples.loadtest.control;
+
+/**
+ * Outcome of one heap pressure allocation together with the garbage collections, which happened meanwhile.
+ * The GC numbers are JVM wide, so concurrent requests are included.
+ */
+public class HeapPressureStatistics {
+
+    private final long allocatedBytes;
+    private final long retainedBytes;
+    private final long gcCount;
+    private final long gcTimeMilliseconds;
+
+    public HeapPressureStatistics(long allocatedBytes, long retainedBytes, long gcCount, long gcTimeMilliseconds) {
+        this.allocatedBytes = allocatedBytes;
+        this.retainedBytes = retainedBytes;
+        this.gcCount = gcCount;
+        this.gcTimeMilliseconds = gcTimeMilliseconds;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * All bytes currently retained by the heap pressure facet, not only by this allocation.
+     */
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    public long getGcCount() {
+        return gcCount;
+    }
+
+    public long getGcTimeMilliseconds() {
+        return gcTimeMilliseconds;
+    }
+}
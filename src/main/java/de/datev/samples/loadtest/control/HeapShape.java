@@ -0,0 +1,20 @@
+package de.datev.samples.loadtest.control;
+
+import java.util.Locale;
+
+/**
+ * The object graph shapes of the heap pressure facet.
+ */
+public enum HeapShape {
+
+    /** A HashMap with many small byte[] values: many objects, flat graph */
+    WIDE_MAP,
+    /** A singly linked list of small nodes: many objects, deep graph, expensive to mark */
+    DEEP_LIST,
+    /** A few large byte[] chunks: few objects, humongous allocations in G1 */
+    LARGE_ARRAY;
+
+    public static HeapShape fromString(String shape) {
+        return valueOf(shape.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+    }
+}
@@ -0,0 +1,39 @@
+package de.datev.samples.loadtest.control;
+
+import org.HdrHistogram.Histogram;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.zip.DataFormatException;
+
+/**
+ * Transfer format of the load driver histograms: the compressed HdrHistogram encoding in Base64, so that histograms
+ * of several instances can be merged without losing precision.
+ */
+public final class LatencyHistograms {
+
+    private LatencyHistograms() {
+    }
+
+    public static String encode(Histogram histogram) {
+
+        final ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        final int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        final byte[] bytes = new byte[length];
+        buffer.flip();
+        buffer.get(bytes);
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the string is not an encoded histogram
+     */
+    public static Histogram decode(String encoded) {
+
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Base64.getDecoder().decode(encoded)), 0);
+        } catch (DataFormatException | RuntimeException e) {
+            throw new IllegalArgumentException("Not an encoded histogram: " + e.getMessage(), e);
+        }
+    }
+}
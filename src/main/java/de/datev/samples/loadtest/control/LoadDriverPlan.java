@@ -0,0 +1,63 @@
+package de.datev.samples.loadtest.control;
+
+/**
+ * What the load driver should do: send GET requests to url using the given workload model. The open model sends
+ * rate requests per second. The closed model runs concurrency clients, which are paced to rate requests per second
+ * in sum, if rate > 0. In both models latencies are measured from the intended send time, so that a stalled target
+ * is not hidden by the driver waiting for it (coordinated omission).
+ */
+public class LoadDriverPlan {
+
+    private final String url;
+    private final WorkloadModel model;
+    private final int concurrency;
+    private final int rate;
+    private final long durationMilliseconds;
+    private final long timeoutMilliseconds;
+
+    public LoadDriverPlan(String url, WorkloadModel model, int concurrency, int rate,
+                          long durationMilliseconds, long timeoutMilliseconds) {
+        this.url = url;
+        this.model = model;
+        this.concurrency = concurrency;
+        this.rate = rate;
+        this.durationMilliseconds = durationMilliseconds;
+        this.timeoutMilliseconds = timeoutMilliseconds;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public WorkloadModel getModel() {
+        return model;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public long getDurationMilliseconds() {
+        return durationMilliseconds;
+    }
+
+    public long getTimeoutMilliseconds() {
+        return timeoutMilliseconds;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadDriverPlan{" +
+                "url='" + url + '\'' +
+                ", model=" + model +
+                ", concurrency=" + concurrency +
+                ", rate=" + rate +
+                ", durationMilliseconds=" + durationMilliseconds +
+                ", timeoutMilliseconds=" + timeoutMilliseconds +
+                '}';
+    }
+}
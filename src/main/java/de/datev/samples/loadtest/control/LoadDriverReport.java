@@ -0,0 +1,86 @@
+package de.datev.samples.loadtest.control;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+
+/**
+ * The result of a load driver run. The histogram contains the latencies of all completed requests (including
+ * errors) in microseconds.
+ */
+public class LoadDriverReport {
+
+    private final LoadDriverPlan plan;
+    private final long requests;
+    private final long errors;
+    private final long dropped;
+    private final long incomplete;
+    private final long startedAtEpochMilliseconds;
+    private final long durationNanos;
+    private final Histogram histogram;
+    private final Map<Integer, Long> statusCounts;
+
+    public LoadDriverReport(LoadDriverPlan plan, long requests, long errors, long dropped, long incomplete,
+                            long startedAtEpochMilliseconds, long durationNanos, Histogram histogram,
+                            Map<Integer, Long> statusCounts) {
+        this.plan = plan;
+        this.requests = requests;
+        this.errors = errors;
+        this.dropped = dropped;
+        this.incomplete = incomplete;
+        this.startedAtEpochMilliseconds = startedAtEpochMilliseconds;
+        this.durationNanos = durationNanos;
+        this.histogram = histogram;
+        this.statusCounts = statusCounts;
+    }
+
+    public LoadDriverPlan getPlan() {
+        return plan;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Requests of the open model, which were not sent, because app-config.driver-max-in-flight was reached.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Requests, which were sent, but neither completed nor timed out, when the run was finished by its deadline
+     * (duration + timeout + margin). Only an overloaded driver has incomplete requests.
+     */
+    public long getIncomplete() {
+        return incomplete;
+    }
+
+    public long getStartedAtEpochMilliseconds() {
+        return startedAtEpochMilliseconds;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public Histogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Number of responses by HTTP status, 0 for requests without response (connection errors, timeouts).
+     */
+    public Map<Integer, Long> getStatusCounts() {
+        return statusCounts;
+    }
+
+    public double getRequestsPerSecond() {
+        return durationNanos > 0 ? requests * 1_000_000_000.0 / durationNanos : 0.0;
+    }
+}
@@ -0,0 +1,22 @@
+package de.datev.samples.loadtest.control;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface LoadDriverService {
+
+    /**
+     * Starts a run of the plan and returns without blocking. The future is completed with the report, when the
+     * duration has elapsed and all requests are completed or timed out.
+     *
+     * @throws IllegalStateException if another run is in progress
+     */
+    CompletableFuture<LoadDriverReport> run(LoadDriverPlan plan);
+
+    /**
+     * The same as run(plan), but the run starts at the given wall clock time (epoch milliseconds), so that several
+     * instances can start together. A start time in the past starts the run immediately.
+     */
+    CompletableFuture<LoadDriverReport> run(LoadDriverPlan plan, long startAtEpochMilliseconds);
+
+    boolean isRunning();
+}
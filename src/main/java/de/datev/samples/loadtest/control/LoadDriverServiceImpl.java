@@ -0,0 +1,238 @@
+package de.datev.samples.loadtest.control;
+
+import de.datev.samples.loadtest.config.LoadTestConfiguration;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+public class LoadDriverServiceImpl implements LoadDriverService {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadDriverServiceImpl.class);
+
+    // The open model is driven by a tick, which sends all requests that are due since the last tick
+    private static final long TICK_MICROSECONDS = 1000;
+    // Latencies are recorded in microseconds up to one hour with 3 significant digits
+    private static final long HIGHEST_TRACKABLE_MICROSECONDS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final long FINISH_MARGIN_MILLISECONDS = 5000;
+
+    private final SharedScheduler sharedScheduler;
+    private final WebClient webClient;
+    private final int maxInFlight;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public LoadDriverServiceImpl(SharedScheduler sharedScheduler, @Qualifier("driverWebClient") WebClient webClient,
+                                 LoadTestConfiguration loadTestConfiguration) {
+        this.sharedScheduler = sharedScheduler;
+        this.webClient = webClient;
+        this.maxInFlight = loadTestConfiguration.getDriverMaxInFlight();
+    }
+
+    @Override
+    public CompletableFuture<LoadDriverReport> run(LoadDriverPlan plan) {
+        return run(plan, 0);
+    }
+
+    @Override
+    public CompletableFuture<LoadDriverReport> run(LoadDriverPlan plan, long startAtEpochMilliseconds) {
+
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Another load driver run is in progress");
+        }
+        final Run run = new Run(plan);
+        run.result.whenComplete((report, e) -> running.set(false));
+        final long delayMilliseconds = startAtEpochMilliseconds - System.currentTimeMillis();
+        if (delayMilliseconds > 0) {
+            log.info("Starting load driver run {} in {} ms", plan, delayMilliseconds);
+            sharedScheduler.schedule(run::start, delayMilliseconds, TimeUnit.MILLISECONDS);
+        } else {
+            log.info("Starting load driver run {}", plan);
+            run.start();
+        }
+        return run.result;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private final class Run {
+
+        private final LoadDriverPlan plan;
+        private final URI uri;
+        private final CompletableFuture<LoadDriverReport> result = new CompletableFuture<>();
+        private final Histogram histogram = new ConcurrentHistogram(1, HIGHEST_TRACKABLE_MICROSECONDS, SIGNIFICANT_DIGITS);
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger activeClients = new AtomicInteger();
+
+        private long startedAtEpochMilliseconds;
+        private long startNanos;
+        private long endNanos;
+        private volatile boolean issuing = true;
+        private volatile ScheduledFuture<?> tick;
+        private volatile ScheduledFuture<?> watchdog;
+        // Requests of the open model issued so far, only accessed by the tick
+        private long issued;
+
+        Run(LoadDriverPlan plan) {
+            this.plan = plan;
+            this.uri = URI.create(plan.getUrl());
+        }
+
+        void start() {
+
+            startedAtEpochMilliseconds = System.currentTimeMillis();
+            startNanos = System.nanoTime();
+            endNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(plan.getDurationMilliseconds());
+            watchdog = sharedScheduler.schedule(this::finish,
+                    plan.getDurationMilliseconds() + plan.getTimeoutMilliseconds() + FINISH_MARGIN_MILLISECONDS,
+                    TimeUnit.MILLISECONDS);
+            if (plan.getModel() == WorkloadModel.OPEN) {
+                tick = sharedScheduler.scheduleAtFixedRate(this::issueDue, 0, TICK_MICROSECONDS, TimeUnit.MICROSECONDS);
+            } else {
+                final int concurrency = plan.getConcurrency();
+                final long intervalNanos = plan.getRate() > 0 ? 1_000_000_000L * concurrency / plan.getRate() : 0;
+                activeClients.set(concurrency);
+                for (int i = 0; i < concurrency; i++) {
+                    // paced clients are staggered, so that they do not send in bursts
+                    nextOfClient(startNanos + intervalNanos * i / concurrency, intervalNanos);
+                }
+            }
+        }
+
+        // Open model: the intended send time of request n is start + n / rate, independent of the responses
+        private void issueDue() {
+
+            if (!issuing) {
+                return;
+            }
+            final long now = System.nanoTime();
+            final long due = (Math.min(now, endNanos) - startNanos) * plan.getRate() / 1_000_000_000L + 1;
+            while (issued < due) {
+                final long intendedNanos = startNanos + issued * 1_000_000_000L / plan.getRate();
+                issued++;
+                if (intendedNanos >= endNanos) {
+                    break;
+                }
+                if (inFlight.get() >= maxInFlight) {
+                    dropped.increment();
+                } else {
+                    send(intendedNanos, null);
+                }
+            }
+            if (now >= endNanos) {
+                issuing = false;
+                finishIfDone();
+            }
+        }
+
+        // Closed model: a client sends its next request after the response. If paced, the intended send time is
+        // the previous intended time plus the interval, so a slow response delays (and is charged to) the next one.
+        private void nextOfClient(long intendedNanos, long intervalNanos) {
+
+            if (intendedNanos >= endNanos || System.nanoTime() >= endNanos) {
+                if (activeClients.decrementAndGet() == 0) {
+                    issuing = false;
+                    finishIfDone();
+                }
+                return;
+            }
+            final Runnable next = () -> nextOfClient(
+                    intervalNanos > 0 ? intendedNanos + intervalNanos : System.nanoTime(), intervalNanos);
+            final long delayNanos = intendedNanos - System.nanoTime();
+            if (delayNanos > 0) {
+                sharedScheduler.schedule(() -> send(intendedNanos, next), delayNanos, TimeUnit.NANOSECONDS);
+            } else {
+                send(intendedNanos, next);
+            }
+        }
+
+        private void send(long intendedNanos, Runnable next) {
+
+            inFlight.incrementAndGet();
+            sent.increment();
+            webClient.get().uri(uri).exchange()
+                    .flatMap(response -> response.bodyToMono(Void.class).then(Mono.just(response.rawStatusCode())))
+                    .timeout(Duration.ofMillis(plan.getTimeoutMilliseconds()))
+                    .subscribe(
+                            status -> completed(intendedNanos, status, next),
+                            error -> completed(intendedNanos, 0, next));
+        }
+
+        private void completed(long intendedNanos, int status, Runnable next) {
+
+            final long latencyMicroseconds = (System.nanoTime() - intendedNanos) / 1000;
+            histogram.recordValue(Math.max(1, Math.min(latencyMicroseconds, HIGHEST_TRACKABLE_MICROSECONDS)));
+            requests.increment();
+            if (status < 200 || status >= 400) {
+                errors.increment();
+            }
+            statusCounts.computeIfAbsent(status, key -> new LongAdder()).increment();
+            inFlight.decrementAndGet();
+            if (next != null && status == 0) {
+                // failed requests may complete on the sending thread, so the next one is decoupled from the stack
+                sharedScheduler.schedule(next, 0, TimeUnit.MILLISECONDS);
+            } else if (next != null) {
+                next.run();
+            }
+            finishIfDone();
+        }
+
+        private void finishIfDone() {
+
+            if (!issuing && inFlight.get() == 0) {
+                finish();
+            }
+        }
+
+        private synchronized void finish() {
+
+            if (result.isDone()) {
+                return;
+            }
+            issuing = false;
+            if (tick != null) {
+                tick.cancel(false);
+            }
+            if (watchdog != null) {
+                watchdog.cancel(false);
+            }
+            final Map<Integer, Long> counts = new TreeMap<>();
+            statusCounts.forEach((status, count) -> counts.put(status, count.sum()));
+            final long completed = requests.sum();
+            final LoadDriverReport report = new LoadDriverReport(plan, completed, errors.sum(), dropped.sum(),
+                    sent.sum() - completed, startedAtEpochMilliseconds, System.nanoTime() - startNanos,
+                    histogram.copy(), counts);
+            log.info("Finished load driver run: requests={}, errors={}, dropped={}, incomplete={}, requestsPerSecond={}",
+                    report.getRequests(), report.getErrors(), report.getDropped(), report.getIncomplete(),
+                    report.getRequestsPerSecond());
+            result.complete(report);
+        }
+    }
+}
@@ -1,22 +1,85 @@
-package de.datev.samples.loadtest.control;
-
-import java.io.IOException;
-import java.io.OutputStream;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Stream;
-
-public interface LoadGeneratorService {
-
-    int computeFibonacciRecursive(int i);
-
-    long stream(OutputStream out, int numberOfKiloByteBlocks) throws IOException;
-
-    Stream<byte[]> getBlockStream(int numberOfKiloByteBlocks);
-
-    String createStringOfSize(int size);
-
-    Map<String, List<String>> createLargeObject(int factor);
-
-    int calculateSizeOfLargeObject(Map<String, List<String>> object);
-}
+package de.datev.samples.loadtest.control;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import java.util.zip.Checksum;
+
+public interface LoadGeneratorService {
+
+    /**
+     * Completes the returned future after the given time, without blocking the calling thread. The value of the
+     * future is the time in milliseconds, which has really elapsed.
+     */
+    CompletableFuture<Long> sleepAsync(long ms);
+
+    long computeFibonacciRecursive(int i);
+
+    BigInteger computeFibonacci(int i, FibonacciMode mode);
+
+    /**
+     * Computes the Fibonacci number recursively on a ForkJoinPool with the given parallelism. Inputs up to the
+     * cutoff are computed sequentially.
+     */
+    ParallelComputation computeFibonacciParallel(int i, int parallelism, int cutoff);
+
+    /**
+     * Runs a busy loop until the current thread has consumed the given CPU time. Returns the CPU time in
+     * microseconds, which was really consumed.
+     */
+    long burnCpu(long microseconds);
+
+    long stream(OutputStream out, int numberOfKiloByteBlocks) throws IOException;
+
+    /**
+     * Writes contentLength bytes to the stream using a shared, preallocated block of blockSize bytes.
+     */
+    long stream(OutputStream out, long contentLength, int blockSize) throws IOException;
+
+    Stream<byte[]> getBlockStream(int numberOfKiloByteBlocks);
+
+    /**
+     * Returns a file with at least contentLength bytes of payload, which can be sent using sendfile, or null,
+     * if contentLength exceeds the configured file size.
+     */
+    Path getPayloadFile(long contentLength);
+
+    /**
+     * Reads the stream to its end in chunks into a reused buffer and updates the checksum. Returns the number of
+     * bytes read.
+     */
+    long consume(InputStream in, Checksum checksum) throws IOException;
+
+    String createStringOfSize(int size);
+
+    Map<String, List<String>> createLargeObject(int factor);
+
+    /**
+     * Creates the same object as createLargeObject without String.format, with pre-sized collections and, for
+     * factors of at least app-config.memory-parallel-threshold, with the lists built in parallel.
+     */
+    Map<String, List<String>> createLargeObjectFast(int factor);
+
+    /**
+     * Returns the size of the JSON representation of the object. The JSON is only counted, not buffered.
+     */
+    int calculateSizeOfLargeObject(Map<String, List<String>> object);
+
+    /**
+     * Streams the JSON representation of the object to out without buffering it. out is flushed, but not closed.
+     */
+    void writeLargeObject(Map<String, List<String>> object, OutputStream out) throws IOException;
+
+    /**
+     * Streams the entries of createLargeObject(factor) as JSON (in key order) without building the object: the
+     * entries are generated directly into the JSON generator, so the memory does not depend on the factor. fast
+     * selects the generator of createLargeObjectFast instead of String.format. out is flushed, but not closed.
+     */
+    void writeLargeObject(int factor, boolean fast, OutputStream out) throws IOException;
+}
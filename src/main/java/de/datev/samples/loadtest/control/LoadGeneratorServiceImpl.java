@@ -1,94 +1,472 @@
-package de.datev.samples.loadtest.control;
-
-import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.stereotype.Service;
-
-import javax.annotation.PostConstruct;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.OutputStream;
-import java.util.*;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
-
-@Service
-public class LoadGeneratorServiceImpl implements LoadGeneratorService {
-
-    private byte[] kiloByteBlock;
-
-    @PostConstruct
-    private void init() {
-
-        byte[] ret = new byte[1024];
-        Arrays.fill(ret, (byte) 'a');
-        this.kiloByteBlock = ret;
-    }
-
-    @Override
-    public int computeFibonacciRecursive(int i) {
-
-        if (i <= 0)
-            return 0;
-        else if (i == 1)
-            return 1;
-        else
-            return computeFibonacciRecursive(i - 2) + computeFibonacciRecursive(i - 1);
-    }
-
-    @Override
-    public long stream(OutputStream out, int numberOfKiloByteBlocks) throws IOException {
-
-        long ret = 0;
-        for (int i = 0; i < numberOfKiloByteBlocks; i++) {
-            out.write(kiloByteBlock);
-            ret += kiloByteBlock.length;
-        }
-        return ret;
-    }
-
-    @Override
-    public Stream<byte[]> getBlockStream(int numberOfKiloByteBlocks) {
-
-        return IntStream.range(0, numberOfKiloByteBlocks).mapToObj(i -> kiloByteBlock);
-    }
-
-    @Override
-    public String createStringOfSize(int size) {
-
-        char[] ret = new char[size];
-        Arrays.fill(ret, 'a');
-        return new String(ret);
-    }
-
-    @Override
-    public Map<String, List<String>> createLargeObject(int factor) {
-
-        Map<String, List<String>> map = new HashMap<>();
-        for (int mapEntries = 0; mapEntries < factor; mapEntries++) {
-            List<String> list = new ArrayList<>();
-            for (int listEntries = 0; listEntries < factor; listEntries++) {
-                final String string = String.format(
-                        "0123456789-0123456789-0123456789-0123456789-0123456-%050d", listEntries + mapEntries * 1000000);
-                list.add(string);
-            }
-            final String key = String.format("%010d", mapEntries);
-            map.put(key, list);
-        }
-        return map;
-    }
-
-    @Override
-    public int calculateSizeOfLargeObject(Map<String, List<String>> object) {
-
-        ObjectMapper objectMapper = new ObjectMapper();
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        try {
-            objectMapper.writeValue(out, object);
-        } catch (IOException e) {
-            e.printStackTrace();
-            return -1;
-        }
-        byte[] bytes = out.toByteArray();
-        return bytes.length;
-    }
-}
+package de.datev.samples.loadtest.control;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.datev.samples.loadtest.config.LoadTestConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.Checksum;
+
+@Service
+public class LoadGeneratorServiceImpl implements LoadGeneratorService {
+
+    // The busy loop checks the consumed CPU time about every 20 microseconds
+    private static final long CPU_CHECK_INTERVAL_MICROSECONDS = 20;
+    private static final long CPU_CALIBRATION_NANOSECONDS = 200_000_000L;
+
+    // Layout of the values of createLargeObject: a constant prefix and a number zero padded to 50 characters
+    private static final char[] LARGE_OBJECT_VALUE_TEMPLATE =
+            "0123456789-0123456789-0123456789-0123456789-0123456-00000000000000000000000000000000000000000000000000"
+                    .toCharArray();
+    private static final int LARGE_OBJECT_VALUE_NUMBER_OFFSET = LARGE_OBJECT_VALUE_TEMPLATE.length - 50;
+    private static final char[] LARGE_OBJECT_KEY_TEMPLATE = "0000000000".toCharArray();
+
+    private static final Logger log = LoggerFactory.getLogger(LoadGeneratorServiceImpl.class);
+
+    private final SharedScheduler sharedScheduler;
+    private final BlockCache blockCache;
+    private final ObjectMapper objectMapper;
+    // Pooled read buffers, so that uploads do not allocate. Not per thread, because virtual threads live for one
+    // request only; surplus buffers beyond the pool size are left to the GC.
+    private final ArrayBlockingQueue<byte[]> readBuffers;
+    private final int uploadBufferSize;
+    private final int memoryParallelThreshold;
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    // One pool per requested parallelism, created on first use. The facet bounds the parallelism, so the number of
+    // pools is bounded, too, and idle workers of a pool terminate after its keep-alive time.
+    private final ConcurrentHashMap<Integer, ForkJoinPool> forkJoinPools = new ConcurrentHashMap<>();
+
+    private byte[] kiloByteBlock;
+    private long cpuIterationsPerCheck = 1000;
+    // Result of the busy loop, so that the JIT cannot remove it
+    private volatile long cpuSink;
+
+    @Autowired
+    public LoadGeneratorServiceImpl(SharedScheduler sharedScheduler, BlockCache blockCache,
+                                    ObjectMapper objectMapper, LoadTestConfiguration loadTestConfiguration) {
+        this.sharedScheduler = sharedScheduler;
+        this.blockCache = blockCache;
+        this.objectMapper = objectMapper;
+        this.uploadBufferSize = loadTestConfiguration.getUploadBufferSize();
+        this.readBuffers = new ArrayBlockingQueue<>(Math.max(1, loadTestConfiguration.getUploadBufferPoolSize()));
+        this.memoryParallelThreshold = loadTestConfiguration.getMemoryParallelThreshold();
+    }
+
+    // package-private for the benchmarks in src/jmh/java
+    @PostConstruct
+    void init() {
+
+        this.kiloByteBlock = Arrays.copyOf(blockCache.getBlock(), 1024);
+        calibrateCpu();
+    }
+
+    @PreDestroy
+    private void destroy() {
+
+        forkJoinPools.values().forEach(ForkJoinPool::shutdownNow);
+    }
+
+    // Measures, how many iterations of the busy loop fit into CPU_CHECK_INTERVAL_MICROSECONDS on this machine.
+    private void calibrateCpu() {
+
+        long iterations = 0;
+        long x = 1;
+        final long start = currentThreadCpuTimeNanos();
+        long consumed;
+        do {
+            x = spin(10000, x);
+            iterations += 10000;
+            consumed = currentThreadCpuTimeNanos() - start;
+        } while (consumed < CPU_CALIBRATION_NANOSECONDS);
+        this.cpuSink = x;
+        this.cpuIterationsPerCheck = Math.max(1, iterations * CPU_CHECK_INTERVAL_MICROSECONDS * 1000 / consumed);
+        log.info("CPU calibration: {} iterations per {} microseconds, thread CPU time supported: {}",
+                cpuIterationsPerCheck, CPU_CHECK_INTERVAL_MICROSECONDS, isThreadCpuTimeSupported());
+    }
+
+    @Override
+    public CompletableFuture<Long> sleepAsync(long ms) {
+
+        final CompletableFuture<Long> ret = new CompletableFuture<>();
+        final long start = System.nanoTime();
+        sharedScheduler.schedule(
+                () -> ret.complete(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)), ms, TimeUnit.MILLISECONDS);
+        return ret;
+    }
+
+    @Override
+    public long computeFibonacciRecursive(int i) {
+
+        if (i <= 0)
+            return 0;
+        else if (i == 1)
+            return 1;
+        else
+            return computeFibonacciRecursive(i - 2) + computeFibonacciRecursive(i - 1);
+    }
+
+    @Override
+    public BigInteger computeFibonacci(int i, FibonacciMode mode) {
+
+        switch (mode) {
+            case RECURSIVE:
+                return BigInteger.valueOf(computeFibonacciRecursive(i));
+            case ITERATIVE:
+                return computeFibonacciIterative(i);
+            case MEMOIZED:
+                // The memo is per call, so that every request does the same amount of work
+                return computeFibonacciMemoized(i, new BigInteger[Math.max(i + 1, 2)]);
+            case MATRIX:
+                return computeFibonacciFastDoubling(i)[0];
+            default:
+                throw new IllegalArgumentException("Unknown mode " + mode);
+        }
+    }
+
+    private static BigInteger computeFibonacciIterative(int i) {
+
+        BigInteger a = BigInteger.ZERO;
+        BigInteger b = BigInteger.ONE;
+        for (int n = 0; n < i; n++) {
+            BigInteger next = a.add(b);
+            a = b;
+            b = next;
+        }
+        return a;
+    }
+
+    private static BigInteger computeFibonacciMemoized(int i, BigInteger[] memo) {
+
+        if (i <= 0)
+            return BigInteger.ZERO;
+        else if (i == 1)
+            return BigInteger.ONE;
+        else if (memo[i] == null)
+            memo[i] = computeFibonacciMemoized(i - 2, memo).add(computeFibonacciMemoized(i - 1, memo));
+        return memo[i];
+    }
+
+    // Matrix exponentiation of [[1,1],[1,0]] in its "fast doubling" form: returns { F(i), F(i+1) } using
+    // F(2k) = F(k) * (2 * F(k+1) - F(k)) and F(2k+1) = F(k)^2 + F(k+1)^2
+    private static BigInteger[] computeFibonacciFastDoubling(int i) {
+
+        if (i <= 0) {
+            return new BigInteger[] { BigInteger.ZERO, BigInteger.ONE };
+        }
+        final BigInteger[] half = computeFibonacciFastDoubling(i / 2);
+        final BigInteger fk = half[0];
+        final BigInteger fk1 = half[1];
+        final BigInteger f2k = fk.multiply(fk1.shiftLeft(1).subtract(fk));
+        final BigInteger f2k1 = fk.multiply(fk).add(fk1.multiply(fk1));
+        if (i % 2 == 0) {
+            return new BigInteger[] { f2k, f2k1 };
+        } else {
+            return new BigInteger[] { f2k1, f2k.add(f2k1) };
+        }
+    }
+
+    @Override
+    public ParallelComputation computeFibonacciParallel(int i, int parallelism, int cutoff) {
+
+        final ForkJoinPool pool = forkJoinPools.computeIfAbsent(parallelism, ForkJoinPool::new);
+        final LongAdder cpuTimeNanos = new LongAdder();
+        final long start = System.nanoTime();
+        final long result = pool.invoke(new FibonacciTask(i, Math.max(cutoff, 1), cpuTimeNanos));
+        final long wallTimeNanos = System.nanoTime() - start;
+        return new ParallelComputation(result, parallelism, wallTimeNanos, cpuTimeNanos.sum());
+    }
+
+    // Forks fib(i-1) and computes fib(i-2) in the current thread. Only the sequential leaves are measured, the
+    // CPU time of splitting and joining is negligible.
+    private final class FibonacciTask extends RecursiveTask<Long> {
+
+        private final int i;
+        private final int cutoff;
+        private final LongAdder cpuTimeNanos;
+
+        FibonacciTask(int i, int cutoff, LongAdder cpuTimeNanos) {
+            this.i = i;
+            this.cutoff = cutoff;
+            this.cpuTimeNanos = cpuTimeNanos;
+        }
+
+        @Override
+        protected Long compute() {
+
+            if (i <= cutoff) {
+                final long start = currentThreadCpuTimeNanos();
+                final long ret = computeFibonacciRecursive(i);
+                cpuTimeNanos.add(currentThreadCpuTimeNanos() - start);
+                return ret;
+            }
+            final FibonacciTask fibMinus1 = new FibonacciTask(i - 1, cutoff, cpuTimeNanos);
+            fibMinus1.fork();
+            final long fibMinus2 = new FibonacciTask(i - 2, cutoff, cpuTimeNanos).compute();
+            return fibMinus1.join() + fibMinus2;
+        }
+    }
+
+    @Override
+    public long burnCpu(long microseconds) {
+
+        final long targetNanos = microseconds * 1000;
+        final long iterations = this.cpuIterationsPerCheck;
+        final long start = currentThreadCpuTimeNanos();
+        long x = start;
+        long consumed;
+        do {
+            x = spin(iterations, x);
+            consumed = currentThreadCpuTimeNanos() - start;
+        } while (consumed < targetNanos);
+        this.cpuSink = x;
+        return consumed / 1000;
+    }
+
+    // xorshift, which cannot be folded by the JIT
+    private static long spin(long iterations, long seed) {
+
+        long x = seed == 0 ? 1 : seed;
+        for (long i = 0; i < iterations; i++) {
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+        }
+        return x;
+    }
+
+    private boolean isThreadCpuTimeSupported() {
+        return threadMXBean.isCurrentThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+    }
+
+    // Falls back to the wall clock, if the JVM cannot measure the CPU time of threads
+    private long currentThreadCpuTimeNanos() {
+        return isThreadCpuTimeSupported() ? threadMXBean.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    @Override
+    public long stream(OutputStream out, int numberOfKiloByteBlocks) throws IOException {
+
+        long ret = 0;
+        for (int i = 0; i < numberOfKiloByteBlocks; i++) {
+            out.write(kiloByteBlock);
+            ret += kiloByteBlock.length;
+        }
+        return ret;
+    }
+
+    @Override
+    public long stream(OutputStream out, long contentLength, int blockSize) throws IOException {
+
+        final byte[] block = blockCache.getBlock();
+        long ret = 0;
+        while (ret < contentLength) {
+            final int length = (int) Math.min(blockSize, contentLength - ret);
+            out.write(block, 0, length);
+            ret += length;
+        }
+        return ret;
+    }
+
+    @Override
+    public Stream<byte[]> getBlockStream(int numberOfKiloByteBlocks) {
+
+        return IntStream.range(0, numberOfKiloByteBlocks).mapToObj(i -> kiloByteBlock);
+    }
+
+    @Override
+    public Path getPayloadFile(long contentLength) {
+
+        return blockCache.getPayloadFile(contentLength);
+    }
+
+    @Override
+    public long consume(InputStream in, Checksum checksum) throws IOException {
+
+        byte[] buffer = readBuffers.poll();
+        if (buffer == null) {
+            buffer = new byte[uploadBufferSize];
+        }
+        try {
+            long ret = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                checksum.update(buffer, 0, read);
+                ret += read;
+            }
+            return ret;
+        } finally {
+            readBuffers.offer(buffer);
+        }
+    }
+
+    @Override
+    public String createStringOfSize(int size) {
+
+        char[] ret = new char[size];
+        Arrays.fill(ret, 'a');
+        return new String(ret);
+    }
+
+    @Override
+    public Map<String, List<String>> createLargeObject(int factor) {
+
+        Map<String, List<String>> map = new HashMap<>();
+        for (int mapEntries = 0; mapEntries < factor; mapEntries++) {
+            List<String> list = new ArrayList<>();
+            for (int listEntries = 0; listEntries < factor; listEntries++) {
+                final String string = String.format(
+                        "0123456789-0123456789-0123456789-0123456789-0123456-%050d", listEntries + mapEntries * 1000000);
+                list.add(string);
+            }
+            final String key = String.format("%010d", mapEntries);
+            map.put(key, list);
+        }
+        return map;
+    }
+
+    @Override
+    public Map<String, List<String>> createLargeObjectFast(int factor) {
+
+        if (factor <= 0) {
+            // like createLargeObject
+            return new HashMap<>();
+        }
+        @SuppressWarnings("unchecked")
+        final List<String>[] lists = new List[factor];
+        IntStream range = IntStream.range(0, factor);
+        if (factor >= memoryParallelThreshold) {
+            range = range.parallel();
+        }
+        range.forEach(mapEntries -> lists[mapEntries] = createLargeObjectList(factor, mapEntries));
+
+        final Map<String, List<String>> map = new HashMap<>((int) (factor / 0.75f) + 1);
+        final char[] key = LARGE_OBJECT_KEY_TEMPLATE.clone();
+        for (int mapEntries = 0; mapEntries < factor; mapEntries++) {
+            map.put(formatZeroPadded(key, 0, mapEntries), lists[mapEntries]);
+        }
+        return map;
+    }
+
+    // Builds the same strings as String.format("0123456789-...-0123456-%050d", ...) by patching a reused buffer
+    private static List<String> createLargeObjectList(int factor, int mapEntries) {
+
+        final List<String> list = new ArrayList<>(factor);
+        final char[] value = LARGE_OBJECT_VALUE_TEMPLATE.clone();
+        for (int listEntries = 0; listEntries < factor; listEntries++) {
+            // int overflow is intended, String.format produces negative numbers for large factors, too
+            list.add(formatZeroPadded(value, LARGE_OBJECT_VALUE_NUMBER_OFFSET, listEntries + mapEntries * 1000000));
+        }
+        return list;
+    }
+
+    // Writes the number zero padded into buffer[offset..] like %0<width>d and returns the buffer as a String.
+    private static String formatZeroPadded(char[] buffer, int offset, int number) {
+
+        fillZeroPadded(buffer, offset, number);
+        return new String(buffer);
+    }
+
+    private static void fillZeroPadded(char[] buffer, int offset, int number) {
+
+        Arrays.fill(buffer, offset, buffer.length, '0');
+        long remaining = Math.abs((long) number);
+        int position = buffer.length;
+        do {
+            buffer[--position] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        } while (remaining > 0);
+        if (number < 0) {
+            buffer[offset] = '-';
+        }
+    }
+
+    @Override
+    public int calculateSizeOfLargeObject(Map<String, List<String>> object) {
+
+        final CountingOutputStream out = new CountingOutputStream();
+        try {
+            writeLargeObject(object, out);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return -1;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, out.count);
+    }
+
+    @Override
+    public void writeLargeObject(Map<String, List<String>> object, OutputStream out) throws IOException {
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // the stream belongs to the caller, e.g. the servlet response
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            objectMapper.writeValue(generator, object);
+        }
+    }
+
+    @Override
+    public void writeLargeObject(int factor, boolean fast, OutputStream out) throws IOException {
+
+        final char[] key = LARGE_OBJECT_KEY_TEMPLATE.clone();
+        final char[] value = LARGE_OBJECT_VALUE_TEMPLATE.clone();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            for (int mapEntries = 0; mapEntries < factor; mapEntries++) {
+                generator.writeFieldName(fast ? formatZeroPadded(key, 0, mapEntries)
+                        : String.format("%010d", mapEntries));
+                generator.writeStartArray();
+                for (int listEntries = 0; listEntries < factor; listEntries++) {
+                    // int overflow is intended, see createLargeObjectList
+                    final int number = listEntries + mapEntries * 1000000;
+                    if (fast) {
+                        fillZeroPadded(value, LARGE_OBJECT_VALUE_NUMBER_OFFSET, number);
+                        generator.writeString(value, 0, value.length);
+                    } else {
+                        generator.writeString(String.format(
+                                "0123456789-0123456789-0123456789-0123456789-0123456-%050d", number));
+                    }
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    // Discards all bytes and only counts them
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package de.datev.samples.loadtest.control;
+
+public interface OffHeapService {
+
+    /**
+     * Allocates direct buffers with the given number of bytes and touches every page, so that the memory is really
+     * resident. With retainMilliseconds > 0 the buffers are kept for that time, otherwise they are freed before the
+     * call returns. Buffers are always freed explicitly and not by the garbage collector.
+     *
+     * @throws IllegalStateException if retaining the buffers would exceed app-config.off-heap-max-retained-bytes
+     * @throws OutOfMemoryError if the JVM refuses more direct memory (-XX:MaxDirectMemorySize)
+     */
+    OffHeapStatistics allocate(long bytes, long retainMilliseconds);
+
+    /**
+     * Frees all retained buffers immediately.
+     *
+     * @return the number of bytes freed
+     */
+    long releaseAll();
+
+    long getRetainedBytes();
+
+    /**
+     * @return the resident set size of the process read from /proc/self/status or -1, if it is not available
+     */
+    long getResidentSetSize();
+}
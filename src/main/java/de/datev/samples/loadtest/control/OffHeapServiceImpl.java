@@ -0,0 +1,210 @@
+package de.datev.samples.loadtest.control;
+
+import de.datev.samples.loadtest.config.LoadTestConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Service
+public class OffHeapServiceImpl implements OffHeapService, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(OffHeapServiceImpl.class);
+
+    private static final int PAGE_SIZE = 4096;
+    private static final Path PROC_STATUS = Paths.get("/proc/self/status");
+    private static final String VM_RSS = "VmRSS:";
+
+    private final SharedScheduler sharedScheduler;
+    private final long maxRetainedBytes;
+    private final int chunkSize;
+    private final BufferCleaner cleaner = createCleaner();
+
+    private final AtomicLong retainedBytes = new AtomicLong();
+    // Retained has identity equality, two allocations of the same size are two entries
+    private final Set<Retained> retained = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public OffHeapServiceImpl(SharedScheduler sharedScheduler, LoadTestConfiguration loadTestConfiguration) {
+        this.sharedScheduler = sharedScheduler;
+        this.maxRetainedBytes = loadTestConfiguration.getOffHeapMaxRetainedBytes();
+        this.chunkSize = Math.max(PAGE_SIZE, loadTestConfiguration.getOffHeapChunkSize());
+    }
+
+    @Override
+    public OffHeapStatistics allocate(long bytes, long retainMilliseconds) {
+
+        final boolean retain = retainMilliseconds > 0;
+        if (retain && retainedBytes.addAndGet(bytes) > maxRetainedBytes) {
+            retainedBytes.addAndGet(-bytes);
+            throw new IllegalStateException("Retaining " + bytes + " bytes would exceed " + maxRetainedBytes + " bytes");
+        }
+
+        final long residentSetSizeBefore = getResidentSetSize();
+        final List<ByteBuffer> buffers = new ArrayList<>((int) (bytes / chunkSize) + 1);
+        try {
+            for (long remaining = bytes; remaining > 0; remaining -= chunkSize) {
+                final ByteBuffer buffer = ByteBuffer.allocateDirect((int) Math.min(chunkSize, remaining));
+                buffers.add(buffer);
+                // allocateDirect only reserves the memory, it gets resident when a page is written
+                for (int position = 0; position < buffer.capacity(); position += PAGE_SIZE) {
+                    buffer.put(position, (byte) 1);
+                }
+            }
+        } catch (OutOfMemoryError e) {
+            free(buffers);
+            if (retain) {
+                retainedBytes.addAndGet(-bytes);
+            }
+            throw e;
+        }
+        final long residentSetSizeAfter = getResidentSetSize();
+
+        if (retain) {
+            final Retained entry = new Retained(buffers, bytes);
+            retained.add(entry);
+            try {
+                sharedScheduler.schedule(() -> release(entry), retainMilliseconds, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                release(entry);
+                throw e;
+            }
+        } else {
+            free(buffers);
+        }
+        return new OffHeapStatistics(bytes, retainedBytes.get(), residentSetSizeBefore, residentSetSizeAfter);
+    }
+
+    @PreDestroy
+    @Override
+    public long releaseAll() {
+
+        long freed = 0;
+        for (Retained entry : retained) {
+            freed += release(entry);
+        }
+        return freed;
+    }
+
+    @Override
+    public long getRetainedBytes() {
+        return retainedBytes.get();
+    }
+
+    @Override
+    public long getResidentSetSize() {
+
+        if (!Files.isReadable(PROC_STATUS)) {
+            return -1;
+        }
+        try {
+            for (String line : Files.readAllLines(PROC_STATUS, StandardCharsets.US_ASCII)) {
+                if (line.startsWith(VM_RSS)) {
+                    // e.g. "VmRSS:	  123456 kB"
+                    final String value = line.substring(VM_RSS.length()).trim();
+                    return 1024L * Long.parseLong(value.substring(0, value.indexOf(' ')));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Cannot read {}: {}", PROC_STATUS, e.toString());
+        }
+        return -1;
+    }
+
+    // Exposes the retained bytes and the RSS as "loadtest.offheap.*" in /actuator/metrics
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        Gauge.builder("loadtest.offheap.retained", this, OffHeapService::getRetainedBytes)
+                .description("Direct memory retained by the off-heap facet").baseUnit("bytes").register(registry);
+        Gauge.builder("loadtest.offheap.rss", this, OffHeapService::getResidentSetSize)
+                .description("Resident set size of the process").baseUnit("bytes").register(registry);
+    }
+
+    // Frees the entry, if it was still retained, and returns the freed bytes
+    private long release(Retained entry) {
+
+        if (!retained.remove(entry)) {
+            return 0;
+        }
+        free(entry.buffers);
+        retainedBytes.addAndGet(-entry.bytes);
+        return entry.bytes;
+    }
+
+    private void free(List<ByteBuffer> buffers) {
+
+        for (ByteBuffer buffer : buffers) {
+            cleaner.clean(buffer);
+        }
+        buffers.clear();
+    }
+
+    private static final class Retained {
+
+        private final List<ByteBuffer> buffers;
+        private final long bytes;
+
+        Retained(List<ByteBuffer> buffers, long bytes) {
+            this.buffers = buffers;
+            this.bytes = bytes;
+        }
+    }
+
+    @FunctionalInterface
+    private interface BufferCleaner {
+        void clean(ByteBuffer buffer);
+    }
+
+    // Direct buffers are normally freed, when the garbage collector finds them unreachable. That may be much later
+    // than the TTL, so the JDK internal cleaner is invoked: Unsafe.invokeCleaner on Java 9+, DirectBuffer.cleaner()
+    // on Java 8. If neither is accessible, the buffers are left to the garbage collector.
+    private static BufferCleaner createCleaner() {
+
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            final Object unsafe = theUnsafe.get(null);
+            return buffer -> invoke(invokeCleaner, unsafe, buffer);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.debug("Unsafe.invokeCleaner not available: {}", e.toString());
+        }
+        try {
+            final Method cleanerMethod = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            final Method cleanMethod = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return buffer -> invoke(cleanMethod, invoke(cleanerMethod, buffer));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Direct buffers cannot be freed explicitly, they are freed by the garbage collector: {}", e.toString());
+        }
+        return buffer -> { };
+    }
+
+    private static Object invoke(Method method, Object target, Object... arguments) {
+        try {
+            return method.invoke(target, arguments);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot free direct buffer", e);
+        }
+    }
+}
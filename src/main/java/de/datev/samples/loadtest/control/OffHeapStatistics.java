@@ -0,0 +1,35 @@
+package de.datev.samples.loadtest.control;
+
+/**
+ * The result of an off-heap allocation together with the resident set size of the process before and after it.
+ */
+public class OffHeapStatistics {
+
+    private final long allocatedBytes;
+    private final long retainedBytes;
+    private final long residentSetSizeBefore;
+    private final long residentSetSizeAfter;
+
+    public OffHeapStatistics(long allocatedBytes, long retainedBytes, long residentSetSizeBefore, long residentSetSizeAfter) {
+        this.allocatedBytes = allocatedBytes;
+        this.retainedBytes = retainedBytes;
+        this.residentSetSizeBefore = residentSetSizeBefore;
+        this.residentSetSizeAfter = residentSetSizeAfter;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    public long getResidentSetSizeBefore() {
+        return residentSetSizeBefore;
+    }
+
+    public long getResidentSetSizeAfter() {
+        return residentSetSizeAfter;
+    }
+}
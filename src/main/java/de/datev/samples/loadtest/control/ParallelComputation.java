@@ -0,0 +1,42 @@
+package de.datev.samples.loadtest.control;
+
+/**
+ * Result of a computation split across several threads together with the measured wall and CPU time.
+ */
+public class ParallelComputation {
+
+    private final long result;
+    private final int parallelism;
+    private final long wallTimeNanos;
+    private final long cpuTimeNanos;
+
+    public ParallelComputation(long result, int parallelism, long wallTimeNanos, long cpuTimeNanos) {
+        this.result = result;
+        this.parallelism = parallelism;
+        this.wallTimeNanos = wallTimeNanos;
+        this.cpuTimeNanos = cpuTimeNanos;
+    }
+
+    public long getResult() {
+        return result;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public long getWallTimeNanos() {
+        return wallTimeNanos;
+    }
+
+    public long getCpuTimeNanos() {
+        return cpuTimeNanos;
+    }
+
+    /**
+     * The CPU time divided by the wall time, which is the number of CPUs effectively used.
+     */
+    public double getSpeedup() {
+        return wallTimeNanos > 0 ? (double) cpuTimeNanos / wallTimeNanos : 0.0;
+    }
+}
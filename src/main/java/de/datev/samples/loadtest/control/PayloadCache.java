@@ -0,0 +1,84 @@
+package de.datev.samples.loadtest.control;
+
+import de.datev.samples.loadtest.config.LoadTestConfiguration;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * LRU cache of pre-serialized payloads keyed by their size parameter. The sum of all cached payloads is limited
+ * by app-config.payload-cache-max-bytes, the least recently used payloads are evicted first.
+ */
+@Component
+public class PayloadCache implements MeterBinder {
+
+    private final long maxBytes;
+
+    // access order, so that the iteration starts with the least recently used entry
+    private final LinkedHashMap<Integer, byte[]> payloads = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes = 0;
+
+    @Autowired
+    public PayloadCache(LoadTestConfiguration loadTestConfiguration) {
+        this.maxBytes = loadTestConfiguration.getPayloadCacheMaxBytes();
+    }
+
+    /**
+     * Returns the cached payload for the key or creates it using the producer. The producer is called outside
+     * of the lock, so concurrent misses for the same key may create the payload more than once.
+     */
+    public byte[] get(int key, IntFunction<byte[]> producer) {
+
+        synchronized (this) {
+            final byte[] ret = payloads.get(key);
+            if (ret != null) {
+                return ret;
+            }
+        }
+        final byte[] ret = producer.apply(key);
+        if (ret.length <= maxBytes) {
+            put(key, ret);
+        }
+        return ret;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized int getSize() {
+        return payloads.size();
+    }
+
+    // Exposes the cache as "loadtest.payload.cache.*" in /actuator/metrics
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        Gauge.builder("loadtest.payload.cache.bytes", this, PayloadCache::getBytes)
+                .description("Bytes of all cached payloads").register(registry);
+        Gauge.builder("loadtest.payload.cache.entries", this, PayloadCache::getSize)
+                .description("Number of cached payloads").register(registry);
+    }
+
+    private synchronized void put(int key, byte[] payload) {
+
+        final byte[] previous = payloads.put(key, payload);
+        if (previous != null) {
+            bytes -= previous.length;
+        }
+        bytes += payload.length;
+        final Iterator<Map.Entry<Integer, byte[]>> iterator = payloads.entrySet().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            final Map.Entry<Integer, byte[]> eldest = iterator.next();
+            bytes -= eldest.getValue().length;
+            iterator.remove();
+        }
+    }
+}
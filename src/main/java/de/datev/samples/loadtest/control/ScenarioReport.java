@@ -0,0 +1,38 @@
+package de.datev.samples.loadtest.control;
+
+import java.util.List;
+
+/**
+ * The outcome of a scenario run: the reports of all steps in their order, the total time and the payload created by
+ * the last return step (null, if there is none).
+ */
+public class ScenarioReport {
+
+    private final String name;
+    private final List<ScenarioStepReport> steps;
+    private final long durationNanos;
+    private final String payload;
+
+    public ScenarioReport(String name, List<ScenarioStepReport> steps, long durationNanos, String payload) {
+        this.name = name;
+        this.steps = steps;
+        this.durationNanos = durationNanos;
+        this.payload = payload;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<ScenarioStepReport> getSteps() {
+        return steps;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+}
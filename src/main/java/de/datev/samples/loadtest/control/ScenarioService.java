@@ -0,0 +1,19 @@
+package de.datev.samples.loadtest.control;
+
+import java.util.List;
+
+public interface ScenarioService {
+
+    /**
+     * Returns the steps of the scenario with the given name from app-config.scenarios or null, if there is none.
+     */
+    List<ScenarioStep> getScenario(String name);
+
+    /**
+     * Runs the steps one after another on the calling thread. All steps are validated before the first one is run.
+     * Placeholders in the urls of remote steps are resolved relative to requestUrl.
+     *
+     * @throws IllegalArgumentException if a step has an unknown type or a value out of range
+     */
+    ScenarioReport run(String name, List<ScenarioStep> steps, String requestUrl);
+}
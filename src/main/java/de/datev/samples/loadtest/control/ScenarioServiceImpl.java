@@ -0,0 +1,179 @@
+package de.datev.samples.loadtest.control;
+
+import de.datev.samples.loadtest.config.LoadTestConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ScenarioServiceImpl implements ScenarioService {
+
+    private static final Logger log = LoggerFactory.getLogger(ScenarioServiceImpl.class);
+
+    // The same limits as the single facets, where those have one
+    private static final long MAX_SLEEP_MILLISECONDS = 60_000L;
+    private static final long MAX_CPU_MICROSECONDS = 60_000_000L;
+    private static final long MAX_FIB_INPUT = 100;
+    private static final long MAX_MEMORY_FACTOR = 4096;
+    private static final long MAX_RETURN_SIZE = 64 * 1024 * 1024;
+
+    private final LoadTestConfiguration loadTestConfiguration;
+    private final LoadGeneratorService loadGeneratorService;
+    private final HeapPressureService heapPressureService;
+    private final UrlReplacer urlReplacer;
+    private final RestTemplate restTemplate;
+
+    @Autowired
+    public ScenarioServiceImpl(LoadTestConfiguration loadTestConfiguration, LoadGeneratorService loadGeneratorService,
+                               HeapPressureService heapPressureService, UrlReplacer urlReplacer,
+                               RestTemplate restTemplate) {
+        this.loadTestConfiguration = loadTestConfiguration;
+        this.loadGeneratorService = loadGeneratorService;
+        this.heapPressureService = heapPressureService;
+        this.urlReplacer = urlReplacer;
+        this.restTemplate = restTemplate;
+    }
+
+    @Override
+    public List<ScenarioStep> getScenario(String name) {
+        final Map<String, List<ScenarioStep>> scenarios = loadTestConfiguration.getScenarios();
+        return scenarios == null ? null : scenarios.get(name);
+    }
+
+    @Override
+    public ScenarioReport run(String name, List<ScenarioStep> steps, String requestUrl) {
+
+        if (steps == null || steps.isEmpty() || steps.size() > loadTestConfiguration.getScenarioMaxSteps()) {
+            throw new IllegalArgumentException("A scenario needs 1 to " + loadTestConfiguration.getScenarioMaxSteps()
+                    + " steps");
+        }
+        final List<ScenarioStepType> types = new ArrayList<>(steps.size());
+        final List<Long> values = new ArrayList<>(steps.size());
+        for (ScenarioStep step : steps) {
+            final ScenarioStepType type = parseType(step);
+            types.add(type);
+            values.add(validateValue(type, step));
+        }
+
+        final List<ScenarioStepReport> reports = new ArrayList<>(steps.size());
+        String payload = null;
+        final long start = System.nanoTime();
+        for (int i = 0; i < steps.size(); i++) {
+            final ScenarioStepType type = types.get(i);
+            final long value = values.get(i);
+            final String url = type == ScenarioStepType.REMOTE
+                    ? urlReplacer.replace(steps.get(i).getUrl(), requestUrl) : null;
+            final long stepStart = System.nanoTime();
+            long result = 0;
+            int status = 0;
+            switch (type) {
+                case SLEEP:
+                    try {
+                        Thread.sleep(value);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    result = value;
+                    break;
+                case CPU:
+                    result = loadGeneratorService.burnCpu(value);
+                    break;
+                case FIB:
+                    result = loadGeneratorService.computeFibonacciRecursive((int) value);
+                    break;
+                case ALLOCATE:
+                    result = heapPressureService.allocate(HeapShape.WIDE_MAP, value * 1024, 0, false)
+                            .getAllocatedBytes();
+                    break;
+                case MEMORY:
+                    result = loadGeneratorService.calculateSizeOfLargeObject(
+                            loadGeneratorService.createLargeObjectFast((int) value));
+                    break;
+                case REMOTE:
+                    try {
+                        final ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
+                        status = response.getStatusCodeValue();
+                        result = response.getBody() == null ? 0 : response.getBody().length();
+                    } catch (HttpStatusCodeException e) {
+                        status = e.getRawStatusCode();
+                        result = e.getResponseBodyAsString().length();
+                    } catch (RestClientException e) {
+                        log.warn("Scenario {}: remote step {} failed: {}", name, url, e.toString());
+                    }
+                    break;
+                case RETURN:
+                    payload = loadGeneratorService.createStringOfSize((int) value);
+                    result = payload.length();
+                    break;
+                default:
+                    throw new IllegalStateException("Unhandled step type " + type);
+            }
+            reports.add(new ScenarioStepReport(type, value, url, System.nanoTime() - stepStart, result, status));
+        }
+        return new ScenarioReport(name, reports, System.nanoTime() - start, payload);
+    }
+
+    private static ScenarioStepType parseType(ScenarioStep step) {
+
+        if (step == null || step.getType() == null) {
+            throw new IllegalArgumentException("Step without type: " + step);
+        }
+        try {
+            return ScenarioStepType.fromString(step.getType());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown step type: " + step.getType());
+        }
+    }
+
+    // Returns the value of the step or the default of the corresponding facet, if it is within the facet's range
+    private long validateValue(ScenarioStepType type, ScenarioStep step) {
+
+        final Long value = step.getValue();
+        switch (type) {
+            case SLEEP:
+                return checkRange(step, value != null ? value
+                        : loadTestConfiguration.getDefaultSleepTimeMilliseconds(), 0, MAX_SLEEP_MILLISECONDS);
+            case CPU:
+                return checkRange(step, value != null ? value
+                        : loadTestConfiguration.getDefaultCpuMicroseconds(), 0, MAX_CPU_MICROSECONDS);
+            case FIB:
+                return checkRange(step, value != null ? value
+                        : loadTestConfiguration.getDefaultFibInput(), 0, MAX_FIB_INPUT);
+            case ALLOCATE:
+                return checkRange(step, value != null ? value
+                        : loadTestConfiguration.getDefaultHeapPressureKiloBytes(),
+                        1, loadTestConfiguration.getHeapPressureMaxKiloBytes());
+            case MEMORY:
+                return checkRange(step, value != null ? value
+                        : loadTestConfiguration.getDefaultMemoryFactor(), 0, MAX_MEMORY_FACTOR);
+            case REMOTE:
+                if (step.getUrl() == null || step.getUrl().trim().isEmpty()) {
+                    throw new IllegalArgumentException("Remote step without url: " + step);
+                }
+                return 0;
+            case RETURN:
+                return checkRange(step, value != null ? value
+                        : loadTestConfiguration.getDefaultReturnSize(), 0, MAX_RETURN_SIZE);
+            default:
+                throw new IllegalStateException("Unhandled step type " + type);
+        }
+    }
+
+    private static long checkRange(ScenarioStep step, long value, long min, long max) {
+
+        if (value < min || value > max) {
+            throw new IllegalArgumentException("Step value out of range (" + min + " <= value <= " + max + "): "
+                    + step);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,55 @@
+package de.datev.samples.loadtest.control;
+
+/**
+ * One step of a scenario, as declared in app-config.scenarios or posted as JSON. The type is one of
+ * ScenarioStepType (case-insensitive), the url is used by remote steps only and may contain the placeholders of
+ * UrlReplacer.
+ */
+public class ScenarioStep {
+
+    private String type;
+    private Long value;
+    private String url;
+
+    public ScenarioStep() {
+    }
+
+    public ScenarioStep(String type, Long value, String url) {
+        this.type = type;
+        this.value = value;
+        this.url = url;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getValue() {
+        return value;
+    }
+
+    public void setValue(Long value) {
+        this.value = value;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String url) {
+        this.url = url;
+    }
+
+    @Override
+    public String toString() {
+        return "ScenarioStep{" +
+                "type='" + type + '\'' +
+                ", value=" + value +
+                ", url='" + url + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,50 @@
+package de.datev.samples.loadtest.control;
+
+/**
+ * What one step of a scenario did: the resolved value and url, the elapsed time and the result of the operation
+ * (Fibonacci number, consumed CPU microseconds, allocated bytes, JSON size or payload size). Remote steps report the
+ * HTTP status of the call, 0 if no response was received.
+ */
+public class ScenarioStepReport {
+
+    private final ScenarioStepType type;
+    private final long value;
+    private final String url;
+    private final long durationNanos;
+    private final long result;
+    private final int status;
+
+    public ScenarioStepReport(ScenarioStepType type, long value, String url, long durationNanos, long result,
+                              int status) {
+        this.type = type;
+        this.value = value;
+        this.url = url;
+        this.durationNanos = durationNanos;
+        this.result = result;
+        this.status = status;
+    }
+
+    public ScenarioStepType getType() {
+        return type;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public long getResult() {
+        return result;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,29 @@
+package de.datev.samples.loadtest.control;
+
+import java.util.Locale;
+
+/**
+ * The step types of a scenario. Each type runs one operation of the facets, the meaning of the step's value is
+ * given in brackets. Without a value the default of the corresponding facet is used.
+ */
+public enum ScenarioStepType {
+
+    /** Blocks the request thread like "/sleep" (milliseconds) */
+    SLEEP,
+    /** Consumes CPU time like "/cpu" (microseconds) */
+    CPU,
+    /** Computes a Fibonacci number recursively like "/fib" (input) */
+    FIB,
+    /** Allocates a wide map like "/memory-pressure", which is garbage after the step (kilobytes) */
+    ALLOCATE,
+    /** Builds the large object of "/memory" and counts its JSON size (factor) */
+    MEMORY,
+    /** Calls the step's url with the RestTemplate like "/remote" (not used) */
+    REMOTE,
+    /** Creates the payload of the response like "/return" (size in characters) */
+    RETURN;
+
+    public static ScenarioStepType fromString(String type) {
+        return valueOf(type.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,56 @@
+package de.datev.samples.loadtest.control;
+
+import de.datev.samples.loadtest.config.LoadTestConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One scheduler shared by all facets, which have to wait without blocking a request thread. The number of threads
+ * is constant and independent of the number of pending tasks. It is intentionally not exposed as an Executor bean,
+ * so that Spring Boot's own task executor auto configuration is not affected.
+ */
+@Component
+public class SharedScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(SharedScheduler.class);
+
+    private final ScheduledThreadPoolExecutor executor;
+
+    @Autowired
+    public SharedScheduler(LoadTestConfiguration loadTestConfiguration) {
+
+        final int threads = Math.max(1, loadTestConfiguration.getSchedulerThreads());
+        final AtomicInteger threadCounter = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-scheduler-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ScheduledThreadPoolExecutor(threads, threadFactory);
+        // cancelled timeouts should not stay in the queue until their delay has elapsed
+        this.executor.setRemoveOnCancelPolicy(true);
+        log.info("SharedScheduler created with {} thread(s)", threads);
+    }
+
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return executor.schedule(task, delay, unit);
+    }
+
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return executor.scheduleAtFixedRate(task, initialDelay, period, unit);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,72 @@
+package de.datev.samples.loadtest.control;
+
+import de.datev.samples.loadtest.config.LoadTestConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The threads, which write pushed messages (SSE events, WebSocket messages) to the clients. The periodic tasks of
+ * the SharedScheduler only hand the sends over, so that a slow or stalled client blocks at most a sender thread,
+ * but never the scheduler. The number of threads and the queue are bounded, a send, which does not fit, is
+ * rejected and the message is skipped.
+ */
+@Component
+public class SharedSender {
+
+    private static final Logger log = LoggerFactory.getLogger(SharedSender.class);
+
+    private final ThreadPoolExecutor executor;
+    private final long sendTimeoutNanos;
+
+    @Autowired
+    public SharedSender(LoadTestConfiguration loadTestConfiguration) {
+
+        final int threads = Math.max(1, loadTestConfiguration.getSenderThreads());
+        final AtomicInteger threadCounter = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-sender-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, loadTestConfiguration.getSenderQueueSize())), threadFactory);
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(loadTestConfiguration.getPushSendTimeoutMilliseconds());
+        log.info("SharedSender created with {} thread(s)", threads);
+    }
+
+    /**
+     * Runs the send on a sender thread. Returns false, if all threads are busy and the queue is full.
+     */
+    public boolean trySubmit(Runnable send) {
+
+        try {
+            executor.execute(send);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns true, if a send started at startNanos (System.nanoTime()) has exceeded
+     * app-config.push-send-timeout-milliseconds.
+     */
+    public boolean isTimedOut(long startNanos) {
+        return System.nanoTime() - startNanos > sendTimeoutNanos;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
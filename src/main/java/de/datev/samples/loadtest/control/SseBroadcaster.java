@@ -0,0 +1,191 @@
+package de.datev.samples.loadtest.control;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends server sent events to any number of subscribers without a thread per subscriber. Subscribers with the same
+ * rate form a group, which is driven by one periodic task of the SharedScheduler. Each tick hands one event per
+ * subscriber to the SharedSender. A subscriber has at most one send in progress: while it is still busy, its
+ * events are skipped, and if a send takes longer than app-config.push-send-timeout-milliseconds, the subscriber is
+ * dropped. A group's task is cancelled, when its last subscriber is gone.
+ */
+@Component
+public class SseBroadcaster implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(SseBroadcaster.class);
+
+    private final SharedScheduler sharedScheduler;
+    private final SharedSender sharedSender;
+    // Groups by events per second, guarded by "this" for creation and removal
+    private final Map<Integer, Group> groups = new HashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    @Autowired
+    public SseBroadcaster(SharedScheduler sharedScheduler, SharedSender sharedSender) {
+        this.sharedScheduler = sharedScheduler;
+        this.sharedSender = sharedSender;
+    }
+
+    /**
+     * Registers the emitter, which then receives numberOfEvents events named eventName with the current time and
+     * payloadSize padding characters as data. The emitter is completed after the last event and removed on
+     * completion, timeout or error.
+     */
+    public void subscribe(SseEmitter emitter, String eventName, int numberOfEvents, int eventsPerSecond, int payloadSize) {
+
+        final Subscriber subscriber = new Subscriber(emitter, eventName, numberOfEvents, createPadding(payloadSize));
+        final Group group;
+        synchronized (this) {
+            group = groups.computeIfAbsent(eventsPerSecond, this::startGroup);
+            group.subscribers.add(subscriber);
+        }
+        subscriberCount.incrementAndGet();
+        final Runnable remove = () -> remove(group, subscriber);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    // Exposes the number of subscribers as "loadtest.sse.subscribers" in /actuator/metrics
+    @Override
+    public void bindTo(MeterRegistry registry) {
+
+        Gauge.builder("loadtest.sse.subscribers", this, SseBroadcaster::getSubscriberCount)
+                .description("Subscribers of the SSE facet").register(registry);
+    }
+
+    private Group startGroup(int eventsPerSecond) {
+
+        final Group group = new Group();
+        final long periodMicroseconds = 1_000_000L / eventsPerSecond;
+        group.task = sharedScheduler.scheduleAtFixedRate(() -> tick(group), 0, periodMicroseconds, TimeUnit.MICROSECONDS);
+        log.debug("SSE group with {} events/s started", eventsPerSecond);
+        return group;
+    }
+
+    // Runs on the scheduler, so it must not touch the emitters, SseEmitter.send and complete are synchronized
+    private void tick(Group group) {
+
+        final String time = LocalTime.now().toString();
+        for (Subscriber subscriber : group.subscribers) {
+            if (!subscriber.sending.compareAndSet(false, true)) {
+                if (sharedSender.isTimedOut(subscriber.sendStartNanos)) {
+                    // the stalled send completes the emitter, when it returns, unless it has just returned
+                    log.debug("SSE subscriber dropped, send did not complete in time");
+                    subscriber.dropped = true;
+                    remove(group, subscriber);
+                    if (subscriber.sending.compareAndSet(false, true)) {
+                        sharedSender.trySubmit(() -> subscriber.emitter.completeWithError(
+                                new IOException("SSE send did not complete in time")));
+                    }
+                }
+                continue;
+            }
+            subscriber.sendStartNanos = System.nanoTime();
+            if (!sharedSender.trySubmit(() -> send(group, subscriber, time))) {
+                subscriber.sending.set(false);
+            }
+        }
+    }
+
+    private void send(Group group, Subscriber subscriber, String time) {
+
+        try {
+            final int sequence = subscriber.sent++;
+            subscriber.emitter.send(SseEmitter.event()
+                    .data(time + subscriber.padding)
+                    .id(String.valueOf(sequence))
+                    .name(subscriber.eventName));
+            if (subscriber.dropped) {
+                subscriber.emitter.completeWithError(new IOException("SSE send did not complete in time"));
+            } else if (subscriber.sent >= subscriber.numberOfEvents) {
+                remove(group, subscriber);
+                subscriber.emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // the client is gone or the emitter has already been completed
+            remove(group, subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.sending.set(false);
+        }
+    }
+
+    private void remove(Group group, Subscriber subscriber) {
+
+        if (!group.subscribers.remove(subscriber)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        synchronized (this) {
+            if (group.subscribers.isEmpty()) {
+                group.task.cancel(false);
+                groups.values().remove(group);
+            }
+        }
+    }
+
+    /**
+     * Returns payloadSize padding characters preceded by a blank, or an empty String for payloadSize <= 0.
+     */
+    public static String createPadding(int payloadSize) {
+
+        if (payloadSize <= 0) {
+            return "";
+        }
+        final char[] padding = new char[payloadSize + 1];
+        Arrays.fill(padding, 'a');
+        padding[0] = ' ';
+        return new String(padding);
+    }
+
+    private static final class Group {
+
+        private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private ScheduledFuture<?> task;
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final String eventName;
+        private final int numberOfEvents;
+        private final String padding;
+        // set by the scheduler before a send is handed over and reset by the sender after it
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long sendStartNanos;
+        private volatile boolean dropped;
+        // only accessed by the send in progress, the sends of a subscriber never overlap
+        private int sent;
+
+        Subscriber(SseEmitter emitter, String eventName, int numberOfEvents, String padding) {
+            this.emitter = emitter;
+            this.eventName = eventName;
+            this.numberOfEvents = numberOfEvents;
+            this.padding = padding;
+        }
+    }
+}
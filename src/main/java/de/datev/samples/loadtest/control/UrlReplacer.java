@@ -0,0 +1,70 @@
+package de.datev.samples.loadtest.control;
+
+import de.datev.samples.loadtest.config.LoadTestConfiguration;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+/**
+ * Resolves the placeholders of target URLs relative to the URL of the current request:
+ * $BASE$ (app-config.url-replacement-base), $PROTOCOL$, $HOST$, $PORT$ and $CONTEXTROOT$.
+ */
+@Component
+public class UrlReplacer {
+
+    private final LoadTestConfiguration loadTestConfiguration;
+
+    @Autowired
+    public UrlReplacer(LoadTestConfiguration loadTestConfiguration) {
+        this.loadTestConfiguration = loadTestConfiguration;
+    }
+
+    /**
+     * Replaces all placeholders and switches to https, if app-config.force-ssl is set.
+     */
+    public String replace(String url, String requestUrl) {
+
+        String ret = url;
+        if (this.loadTestConfiguration.getUrlReplacementBase() != null) {
+            ret = ret.replace("$BASE$", this.loadTestConfiguration.getUrlReplacementBase());
+        }
+        ret = replacePlaceholders(ret, requestUrl);
+        if (this.loadTestConfiguration.isForceSsl()) {
+            ret = ret.replace("http:", "https:");
+        }
+        return ret;
+    }
+
+    /**
+     * Replaces only the placeholders, which are taken from the request URL.
+     */
+    public String replacePlaceholders(String url, String requestUri) {
+
+        String ret = url;
+        try {
+            final URL requestUrl = new URL(requestUri);
+            ret = ret.replace("$PROTOCOL$", requestUrl.getProtocol());
+            ret = ret.replace("$HOST$", requestUrl.getHost());
+            int port = requestUrl.getPort();
+            if (port > 0) {
+                ret = ret.replace("$PORT$", Integer.toString(requestUrl.getPort()));
+            } else {
+                ret = ret.replace(":$PORT$", ""); // a bit hacky
+            }
+            String path = requestUrl.getPath();
+            String contextRoot = "";
+            if (path != null) {
+                int i = path.indexOf("/", 1);
+                if (i > 0) {
+                    contextRoot = path.substring(1, i);
+                }
+            }
+            ret = ret.replace("$CONTEXTROOT$", contextRoot);
+        } catch (MalformedURLException e) {
+            e.printStackTrace();
+        }
+        return ret;
+    }
+}
@@ -0,0 +1,76 @@
+package de.datev.samples.loadtest.control;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to the virtual threads of Java 21 and later. The project is compiled for Java 8 (Spring 5.1 cannot read
+ * newer class files), so the API is called by reflection and is only available, if the application runs on a
+ * Java 21 or later runtime.
+ */
+public final class VirtualThreads {
+
+    private static final String PARALLELISM = "jdk.virtualThreadScheduler.parallelism";
+    private static final String MAX_POOL_SIZE = "jdk.virtualThreadScheduler.maxPoolSize";
+    private static final int MAX_CARRIER_THREADS = 32767;
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns an executor, which starts a new virtual thread named namePrefix + number for each task.
+     *
+     * @throws IllegalStateException if the runtime does not support virtual threads
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+
+        try {
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            final ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            final Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later, running on "
+                    + System.getProperty("java.version"), e);
+        }
+    }
+
+    /**
+     * Raises the number of carrier threads, on which the virtual threads run, to at least carrierThreads, unless
+     * jdk.virtualThreadScheduler.parallelism is set. Only effective before the first virtual thread is started, and
+     * only needed, if the virtual threads block while they are pinned to their carrier (synchronized).
+     */
+    public static void setMinimumParallelism(int carrierThreads) {
+
+        if (System.getProperty(PARALLELISM) != null) {
+            return;
+        }
+        int parallelism = Math.min(Math.max(carrierThreads, Runtime.getRuntime().availableProcessors()),
+                MAX_CARRIER_THREADS);
+        final String maxPoolSize = System.getProperty(MAX_POOL_SIZE);
+        if (maxPoolSize == null) {
+            System.setProperty(MAX_POOL_SIZE, String.valueOf(Math.max(parallelism, 256)));
+        } else {
+            try {
+                parallelism = Math.min(parallelism, Integer.parseInt(maxPoolSize.trim()));
+            } catch (NumberFormatException e) {
+                return;
+            }
+        }
+        System.setProperty(PARALLELISM, String.valueOf(parallelism));
+    }
+}
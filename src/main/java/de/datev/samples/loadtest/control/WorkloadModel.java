@@ -0,0 +1,18 @@
+package de.datev.samples.loadtest.control;
+
+import java.util.Locale;
+
+/**
+ * The workload models of the load driver.
+ */
+public enum WorkloadModel {
+
+    /** Requests arrive at a fixed rate, independent of the response times (like users of a public service) */
+    OPEN,
+    /** A fixed number of clients, each sending its next request after the response (like a connection pool) */
+    CLOSED;
+
+    public static WorkloadModel fromString(String model) {
+        return valueOf(model.trim().toUpperCase(Locale.ROOT));
+    }
+}
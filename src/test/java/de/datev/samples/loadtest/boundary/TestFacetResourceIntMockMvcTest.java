@@ -1,202 +1,689 @@
-package de.datev.samples.loadtest.boundary;
-
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import org.hamcrest.FeatureMatcher;
-import org.hamcrest.Matcher;
-import org.junit.Before;
-import org.junit.Test;
-import org.junit.runner.RunWith;
-import org.mockito.MockitoAnnotations;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
-import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.http.MediaType;
-import org.springframework.test.context.junit4.SpringRunner;
-import org.springframework.test.web.servlet.MockMvc;
-import org.springframework.test.web.servlet.ResultActions;
-import org.springframework.test.web.servlet.setup.MockMvcBuilders;
-import org.springframework.web.context.WebApplicationContext;
-
-import static org.assertj.core.api.Assertions.assertThat;
-import static org.hamcrest.CoreMatchers.containsString;
-import static org.hamcrest.CoreMatchers.is;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
-
-/**
- * Boundary tests using MockMvc.
- */
-@RunWith(SpringRunner.class)
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
-@AutoConfigureMockMvc
-public class TestFacetResourceIntMockMvcTest {
-
-	private static final String URL = "/api/test";
-
-	@Autowired
-	private WebApplicationContext wac;
-	@Autowired
-	private MockMvc mockLoadTestResource;
-
-	private ObjectMapper objectMapper;
-
-	@Before
-	public void setup() {
-
-		MockitoAnnotations.initMocks(this);
-		this.mockLoadTestResource = MockMvcBuilders
-				.webAppContextSetup(wac)
-				//.alwaysDo(print())
-				//.apply(springSecurity())
-				.build();
-		this.objectMapper = createObjectMapper();
-	}
-
-	@Test
-	public void testThat_sleepRequest_isWorking() throws Exception {
-
-		// arrange
-		long start = System.currentTimeMillis();
-
-		// act
-		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/sleep?ms=40"));
-
-		// assert
-		long end = System.currentTimeMillis();
-		resultActions
-				.andExpect(status().isOk())
-				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
-				.andExpect(jsonPath("$.result").value("OK"));
-		assertThat((end-start)).isBetween(30L, 200L);
-	}
-
-	@Test
-	public void testThat_fibonacciRequest_3_isWorking() throws Exception {
-
-		// arrange
-
-		// act
-		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/fib?input=3"));
-
-		// assert
-		resultActions
-				.andExpect(status().isOk())
-				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
-				.andExpect(jsonPath("$.result").value(2));
-	}
-
-	@Test
-	public void testThat_fibonacciRequest_5_isWorking() throws Exception {
-
-		// arrange
-
-		// act
-		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/fib?input=5"));
-
-		// assert
-		resultActions
-				.andExpect(status().isOk())
-				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
-				.andExpect(jsonPath("$.result").value(5));
-	}
-
-	@Test
-	public void testThat_fibonacciRequest_10_isWorking() throws Exception {
-
-		// arrange
-
-		// act
-		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/fib?input=10"));
-
-		// assert
-		resultActions
-				.andExpect(status().isOk())
-				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
-				.andExpect(jsonPath("$.result").value(55));
-	}
-
-	@Test
-	public void testThat_returnRequest_isWorking() throws Exception {
-
-		// arrange
-
-		// act
-		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/return?size=10"));
-
-		// assert
-		resultActions
-				.andExpect(status().isOk())
-				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
-				.andExpect(jsonPath("$.result").value("aaaaaaaaaa"));
-	}
-
-	@Test
-	public void testThat_returnBlocksRequest_isWorking() throws Exception {
-
-		// arrange
-
-		// act
-		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/return-blocks?numberOfKiloByteBlocks=10"));
-
-		// assert
-		resultActions
-				.andExpect(status().isOk())
-				.andExpect(header().longValue("Content-Length", 10240))
-				.andExpect(content().contentType(MediaType.TEXT_PLAIN))
-				.andExpect(content().string(length(is(10240))))
-				.andExpect(content().string(containsString("aaaaaaaaaaaaaaaaaaaaaa")));
-	}
-
-	@Test
-	public void testThat_receiveRequest_isWorking() throws Exception {
-
-		// arrange
-		String aLongString = "aaaaaaaaaa";
-		StringResult body = new StringResult(aLongString);
-
-		// act
-		ResultActions resultActions = this.mockLoadTestResource.perform(post(URL + "/receive")
-				.contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
-				.content(objectMapper.writeValueAsBytes(body)));
-
-		// assert
-		resultActions
-				.andExpect(status().isOk())
-				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
-				.andExpect(jsonPath("$.result").value(aLongString.length()));
-	}
-
-	@Test
-	public void testThat_memoryRequest_isWorking() throws Exception {
-
-		// arrange
-
-		// act
-		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/memory?factor=100"));
-
-		// assert
-		resultActions
-				.andExpect(status().isOk())
-				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
-				.andExpect(jsonPath("$.result").value(1051501));
-	}
-
-	private static ObjectMapper createObjectMapper() {
-		ObjectMapper mapper = new ObjectMapper();
-		mapper.setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
-		mapper.registerModule(new JavaTimeModule());
-		return mapper;
-	}
-
-	public static Matcher<String> length(Matcher<? super Integer> matcher) {
-		return new FeatureMatcher<String, Integer>(matcher, "a String of length that", "length") {
-			@Override
-			protected Integer featureValueOf(String actual) {
-				return actual.length();
-			}
-		};
-	}
-}
+package de.datev.samples.loadtest.boundary;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.hamcrest.FeatureMatcher;
+import org.hamcrest.Matcher;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Boundary tests using MockMvc.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.MOCK)
+@AutoConfigureMockMvc
+public class TestFacetResourceIntMockMvcTest {
+
+	private static final String URL = "/api/test";
+
+	@Autowired
+	private WebApplicationContext wac;
+	@Autowired
+	private MockMvc mockLoadTestResource;
+
+	private ObjectMapper objectMapper;
+
+	@Before
+	public void setup() throws Exception {
+
+		MockitoAnnotations.initMocks(this);
+		this.mockLoadTestResource = MockMvcBuilders
+				.webAppContextSetup(wac)
+				//.alwaysDo(print())
+				//.apply(springSecurity())
+				.build();
+		this.objectMapper = createObjectMapper();
+		// warm up, so that timing assertions do not measure the lazy initialization of the first request
+		this.mockLoadTestResource.perform(get(URL + "/sleep?ms=0"));
+	}
+
+	@Test
+	public void testThat_sleepRequest_isWorking() throws Exception {
+
+		// arrange
+		long start = System.currentTimeMillis();
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/sleep?ms=40"));
+
+		// assert
+		long end = System.currentTimeMillis();
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+				.andExpect(jsonPath("$.result").value("OK"));
+		assertThat((end-start)).isBetween(30L, 200L);
+	}
+
+	@Test
+	public void testThat_sleepAsyncRequest_isWorking() throws Exception {
+
+		// arrange
+		long start = System.currentTimeMillis();
+
+		// act
+		MvcResult mvcResult = this.mockLoadTestResource.perform(get(URL + "/sleep-async?ms=40"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		ResultActions resultActions = this.mockLoadTestResource.perform(asyncDispatch(mvcResult));
+
+		// assert
+		long end = System.currentTimeMillis();
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+				.andExpect(jsonPath("$.result").value("OK"));
+		assertThat((end-start)).isBetween(30L, 1000L);
+	}
+
+	@Test
+	public void testThat_fibonacciRequest_3_isWorking() throws Exception {
+
+		// arrange
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/fib?input=3"));
+
+		// assert
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+				.andExpect(jsonPath("$.result").value(2));
+	}
+
+	@Test
+	public void testThat_fibonacciRequest_5_isWorking() throws Exception {
+
+		// arrange
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/fib?input=5"));
+
+		// assert
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+				.andExpect(jsonPath("$.result").value(5));
+	}
+
+	@Test
+	public void testThat_fibonacciRequest_10_isWorking() throws Exception {
+
+		// arrange
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/fib?input=10"));
+
+		// assert
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+				.andExpect(jsonPath("$.result").value(55));
+	}
+
+	@Test
+	public void testThat_fibonacciRequest_10_isWorking_forAllModes() throws Exception {
+
+		for (String mode : new String[] { "recursive", "iterative", "memoized", "matrix" }) {
+
+			// act
+			ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/fib?input=10&mode=" + mode));
+
+			// assert
+			resultActions
+					.andExpect(status().isOk())
+					.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+					.andExpect(jsonPath("$.result").value(55));
+		}
+	}
+
+	@Test
+	public void testThat_fibonacciRequest_100_isWorking_withoutOverflow() throws Exception {
+
+		for (String mode : new String[] { "iterative", "memoized", "matrix" }) {
+
+			// act
+			ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/fib?input=100&mode=" + mode));
+
+			// assert
+			resultActions
+					.andExpect(status().isOk())
+					.andExpect(content().string("{\"result\":354224848179261915075}"));
+		}
+	}
+
+	@Test
+	public void testThat_sleepAsyncRequest_rejects_badMs() throws Exception {
+
+		for (String ms : new String[] { "-1", "60001" }) {
+
+			// act
+			MvcResult mvcResult = this.mockLoadTestResource.perform(get(URL + "/sleep-async?ms=" + ms))
+					.andExpect(request().asyncStarted())
+					.andReturn();
+			ResultActions resultActions = this.mockLoadTestResource.perform(asyncDispatch(mvcResult));
+
+			// assert
+			resultActions.andExpect(status().isBadRequest());
+		}
+	}
+
+	@Test
+	public void testThat_fibonacciRequest_withBadMode_isRejected() throws Exception {
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/fib?input=10&mode=foo"));
+
+		// assert
+		resultActions.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void testThat_fibonacciParallelRequest_isWorking() throws Exception {
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/fib-parallel?input=25&parallelism=2&cutoff=15"));
+
+		// assert
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+				.andExpect(jsonPath("$.result").value(75025))
+				.andExpect(jsonPath("$.parallelism").value(2))
+				.andExpect(jsonPath("$.wallTimeMicroseconds").isNumber())
+				.andExpect(jsonPath("$.cpuTimeMicroseconds").isNumber())
+				.andExpect(jsonPath("$.speedup").isNumber());
+	}
+
+	@Test
+	public void testThat_fibonacciParallelRequest_rejects_badInput() throws Exception {
+
+		// arrange
+		final int tooManyThreads = 4 * Runtime.getRuntime().availableProcessors() + 1;
+
+		// act
+		ResultActions tooParallel = this.mockLoadTestResource.perform(get(URL + "/fib-parallel?input=25&parallelism=" + tooManyThreads));
+		ResultActions badCutoff = this.mockLoadTestResource.perform(get(URL + "/fib-parallel?input=25&parallelism=1&cutoff=0"));
+		ResultActions tooDeep = this.mockLoadTestResource.perform(get(URL + "/fib-parallel?input=100&parallelism=1&cutoff=1"));
+
+		// assert
+		tooParallel.andExpect(status().isBadRequest());
+		badCutoff.andExpect(status().isBadRequest());
+		tooDeep.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void testThat_cpuRequest_isWorking() throws Exception {
+
+		// act
+		MvcResult mvcResult = this.mockLoadTestResource.perform(get(URL + "/cpu?micros=20000"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+				.andReturn();
+
+		// assert
+		NumberResult result = objectMapper.readValue(mvcResult.getResponse().getContentAsByteArray(), NumberResult.class);
+		assertThat(result.getResult()).isBetween(20000L, 40000L);
+	}
+
+	@Test
+	public void testThat_returnRequest_isWorking() throws Exception {
+
+		// arrange
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/return?size=10"));
+
+		// assert
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+				.andExpect(jsonPath("$.result").value("aaaaaaaaaa"));
+	}
+
+	@Test
+	public void testThat_returnRequest_isWorking_uncached() throws Exception {
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/return?size=10&cache=false"));
+
+		// assert
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+				.andExpect(jsonPath("$.result").value("aaaaaaaaaa"));
+	}
+
+	@Test
+	public void testThat_returnRequest_isWorking_cached_twice() throws Exception {
+
+		// act
+		String first = this.mockLoadTestResource.perform(get(URL + "/return?size=1000"))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+		String second = this.mockLoadTestResource.perform(get(URL + "/return?size=1000"))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+		String uncached = this.mockLoadTestResource.perform(get(URL + "/return?size=1000&cache=false"))
+				.andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+
+		// assert
+		assertThat(second).isEqualTo(first);
+		assertThat(uncached).isEqualTo(first);
+	}
+
+	@Test
+	public void testThat_returnBlocksRequest_isWorking() throws Exception {
+
+		// arrange
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/return-blocks?numberOfKiloByteBlocks=10"));
+
+		// assert
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(header().longValue("Content-Length", 10240))
+				.andExpect(content().contentType(MediaType.TEXT_PLAIN))
+				.andExpect(content().string(length(is(10240))))
+				.andExpect(content().string(containsString("aaaaaaaaaaaaaaaaaaaaaa")));
+	}
+
+	@Test
+	public void testThat_returnBlocksRequest_isWorking_with_blockSize() throws Exception {
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/return-blocks?numberOfKiloByteBlocks=10&blockSize=4096"));
+
+		// assert
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(header().longValue("Content-Length", 10240))
+				.andExpect(header().string("Accept-Ranges", "bytes"))
+				.andExpect(content().string(length(is(10240))));
+	}
+
+	@Test
+	public void testThat_returnBlocksRequest_isWorking_with_range() throws Exception {
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/return-blocks?numberOfKiloByteBlocks=10")
+				.header("Range", "bytes=1000-2999"));
+
+		// assert
+		resultActions
+				.andExpect(status().isPartialContent())
+				.andExpect(header().longValue("Content-Length", 2000))
+				.andExpect(header().string("Content-Range", "bytes 1000-2999/10240"))
+				.andExpect(content().string(length(is(2000))));
+	}
+
+	@Test
+	public void testThat_returnBlocksRequest_isWorking_with_suffixRange() throws Exception {
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/return-blocks?numberOfKiloByteBlocks=10")
+				.header("Range", "bytes=-240"));
+
+		// assert
+		resultActions
+				.andExpect(status().isPartialContent())
+				.andExpect(header().string("Content-Range", "bytes 10000-10239/10240"))
+				.andExpect(content().string(length(is(240))));
+	}
+
+	@Test
+	public void testThat_returnBlocksRequest_rejects_unsatisfiableRange() throws Exception {
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/return-blocks?numberOfKiloByteBlocks=10")
+				.header("Range", "bytes=20000-"));
+
+		// assert
+		resultActions
+				.andExpect(status().isRequestedRangeNotSatisfiable())
+				.andExpect(header().string("Content-Range", "bytes */10240"));
+	}
+
+	@Test
+	public void testThat_returnBlocksRequest_rejects_badBlockSize() throws Exception {
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/return-blocks?numberOfKiloByteBlocks=10&blockSize=10"));
+
+		// assert
+		resultActions.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void testThat_returnBlocksDirectRequest_isWorking() throws Exception {
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/return-blocks-direct?numberOfKiloByteBlocks=10&blockSize=4096"));
+
+		// assert
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(header().longValue("Content-Length", 10240))
+				.andExpect(header().string("X-Transfer-Mode", "stream"))
+				.andExpect(content().contentType(MediaType.TEXT_PLAIN))
+				.andExpect(content().string(length(is(10240))))
+				.andExpect(content().string(containsString("aaaaaaaaaaaaaaaaaaaaaa")));
+	}
+
+	@Test
+	public void testThat_receiveRequest_isWorking() throws Exception {
+
+		// arrange
+		String aLongString = "aaaaaaaaaa";
+		StringResult body = new StringResult(aLongString);
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(post(URL + "/receive")
+				.contentType(MediaType.APPLICATION_JSON_UTF8_VALUE)
+				.content(objectMapper.writeValueAsBytes(body)));
+
+		// assert
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+				.andExpect(jsonPath("$.result").value(aLongString.length()));
+	}
+
+	@Test
+	public void testThat_receiveStreamRequest_isWorking() throws Exception {
+
+		// arrange
+		byte[] body = new byte[200000];
+		Arrays.fill(body, (byte) 'a');
+		CRC32 crc32 = new CRC32();
+		crc32.update(body);
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(post(URL + "/receive-stream")
+				.contentType(MediaType.APPLICATION_OCTET_STREAM)
+				.content(body));
+
+		// assert
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+				.andExpect(jsonPath("$.result").value(body.length))
+				.andExpect(jsonPath("$.crc32").value(crc32.getValue()))
+				.andExpect(jsonPath("$.megaBytesPerSecond").isNumber());
+	}
+
+	@Test
+	public void testThat_memoryRequest_isWorking() throws Exception {
+
+		// arrange
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/memory?factor=100"));
+
+		// assert
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+				.andExpect(jsonPath("$.result").value(1051501));
+	}
+
+	@Test
+	public void testThat_memoryRequest_fastAndFormatted_haveSameSize() throws Exception {
+
+		// arrange
+		final String url = URL + "/memory?factor=300";
+
+		// act
+		ResultActions fast = this.mockLoadTestResource.perform(get(url));
+		ResultActions formatted = this.mockLoadTestResource.perform(get(url + "&fast=false"));
+
+		// assert
+		fast.andExpect(status().isOk()).andExpect(jsonPath("$.result").value(9454501));
+		formatted.andExpect(status().isOk()).andExpect(jsonPath("$.result").value(9454501));
+	}
+
+	@Test
+	public void testThat_memoryRequest_rejects_badFactor() throws Exception {
+
+		// act
+		ResultActions negative = this.mockLoadTestResource.perform(get(URL + "/memory?factor=-1"));
+		ResultActions negativeFormatted = this.mockLoadTestResource.perform(get(URL + "/memory?factor=-1&fast=false"));
+		ResultActions tooLarge = this.mockLoadTestResource.perform(get(URL + "/memory?factor=100000&emit=true"));
+
+		// assert
+		negative.andExpect(status().isBadRequest());
+		negativeFormatted.andExpect(status().isBadRequest());
+		tooLarge.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void testThat_memoryEmitRequest_streams_theCountedJson() throws Exception {
+
+		// act
+		MvcResult mvcResult = this.mockLoadTestResource.perform(get(URL + "/memory?factor=100&emit=true"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		ResultActions resultActions = this.mockLoadTestResource.perform(asyncDispatch(mvcResult));
+
+		// assert
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+				.andExpect(jsonPath("$.0000000099[99]").value("0123456789-0123456789-0123456789-0123456789-0123456-00000000000000000000000000000000000000000099000099"));
+		assertThat(mvcResult.getResponse().getContentAsByteArray()).hasSize(1051501);
+	}
+
+	@Test
+	public void testThat_memoryEmitRequest_streams_theCountedJson_withoutFast() throws Exception {
+
+		// act
+		MvcResult mvcResult = this.mockLoadTestResource.perform(get(URL + "/memory?factor=10&fast=false&emit=true"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		ResultActions resultActions = this.mockLoadTestResource.perform(asyncDispatch(mvcResult));
+
+		// assert
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.0000000009[9]").value("0123456789-0123456789-0123456789-0123456789-0123456-00000000000000000000000000000000000000000009000009"));
+		this.mockLoadTestResource.perform(get(URL + "/memory?factor=10&fast=false"))
+				.andExpect(jsonPath("$.result").value(mvcResult.getResponse().getContentAsByteArray().length));
+	}
+
+	@Test
+	public void testThat_sseRequest_sendsAllEvents_andCompletes() throws Exception {
+
+		// act
+		MvcResult mvcResult = this.mockLoadTestResource.perform(get(URL + "/sse-time-by-second?nrOfEvents=3&eventsPerSecond=100&payloadSize=16"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mvcResult.getAsyncResult(5000);
+
+		// assert
+		String content = mvcResult.getResponse().getContentAsString();
+		assertThat(content).contains("id:0", "id:1", "id:2", "event:sse-time-by-second", "aaaaaaaaaaaaaaaa");
+		assertThat(content).doesNotContain("id:3");
+	}
+
+	@Test
+	public void testThat_sseRequest_rejects_tooHighRate() throws Exception {
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/sse-time-by-second?eventsPerSecond=1000000"));
+
+		// assert
+		resultActions.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void testThat_memoryPressureRequest_isWorking_forAllShapes() throws Exception {
+
+		for (String shape : new String[] { "wide-map", "deep-list", "large-array" }) {
+
+			// act
+			ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/memory-pressure?kiloBytes=64&shape=" + shape));
+
+			// assert
+			resultActions
+					.andExpect(status().isOk())
+					.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+					.andExpect(jsonPath("$.result").value(65536))
+					.andExpect(jsonPath("$.gcCount").isNumber())
+					.andExpect(jsonPath("$.gcTimeMilliseconds").isNumber());
+		}
+	}
+
+	@Test
+	public void testThat_memoryPressureRequest_retains_inRing() throws Exception {
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/memory-pressure?kiloBytes=16&ring=true"));
+
+		// assert
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.retainedBytes").value(org.hamcrest.Matchers.greaterThanOrEqualTo(16384)));
+	}
+
+	@Test
+	public void testThat_memoryPressureRequest_rejects_tooMuchRetention() throws Exception {
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/memory-pressure?kiloBytes=1048576&retainMs=1000"));
+
+		// assert
+		resultActions.andExpect(status().isServiceUnavailable());
+	}
+
+	@Test
+	public void testThat_memoryPressureRequest_rejects_tooManyKiloBytes() throws Exception {
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/memory-pressure?kiloBytes=2147483647"));
+
+		// assert
+		resultActions.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void testThat_scenarioRequest_runsNamedScenario() throws Exception {
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/scenario?name=test-local"));
+
+		// assert
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+				.andExpect(jsonPath("$.name").value("test-local"))
+				.andExpect(jsonPath("$.result", length(is(100))))
+				.andExpect(jsonPath("$.steps.length()").value(6))
+				.andExpect(jsonPath("$.steps[0].type").value("sleep"))
+				.andExpect(jsonPath("$.steps[0].durationMilliseconds").value(org.hamcrest.Matchers.greaterThanOrEqualTo(5.0)))
+				.andExpect(jsonPath("$.steps[2].result").value(55))
+				.andExpect(jsonPath("$.steps[3].result").value(65536));
+	}
+
+	@Test
+	public void testThat_scenarioRequest_rejects_unknownNameAndBadSteps() throws Exception {
+
+		// act
+		ResultActions unknownName = this.mockLoadTestResource.perform(get(URL + "/scenario?name=unknown"));
+		ResultActions badType = this.mockLoadTestResource.perform(post(URL + "/scenario")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"type\":\"sleep\",\"value\":1},{\"type\":\"teleport\"}]"));
+		ResultActions badValue = this.mockLoadTestResource.perform(post(URL + "/scenario")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"type\":\"fib\",\"value\":-1}]"));
+
+		// assert
+		unknownName.andExpect(status().isNotFound());
+		badType.andExpect(status().isBadRequest());
+		badValue.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void testThat_memoryOffHeapRequest_retains_untilReleased() throws Exception {
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/memory-offheap?megaBytes=4&ttlMs=60000"));
+
+		// assert
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
+				.andExpect(jsonPath("$.result").value(4194304))
+				.andExpect(jsonPath("$.retainedBytes").value(4194304))
+				.andExpect(jsonPath("$.rssAfterBytes").isNumber());
+
+		// act
+		resultActions = this.mockLoadTestResource.perform(get(URL + "/memory-offheap?release=true"));
+
+		// assert
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.result").value(4194304))
+				.andExpect(jsonPath("$.retainedBytes").value(0));
+	}
+
+	@Test
+	public void testThat_memoryOffHeapRequest_frees_equalAllocations_afterTtl() throws Exception {
+
+		// arrange
+		this.mockLoadTestResource.perform(get(URL + "/memory-offheap?megaBytes=4&ttlMs=200"))
+				.andExpect(status().isOk());
+
+		// act
+		ResultActions resultActions = this.mockLoadTestResource.perform(get(URL + "/memory-offheap?megaBytes=4&ttlMs=200"));
+		resultActions
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.retainedBytes").value(8388608));
+		Thread.sleep(1000);
+
+		// assert (nothing left to release)
+		this.mockLoadTestResource.perform(get(URL + "/memory-offheap?release=true"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.result").value(0))
+				.andExpect(jsonPath("$.retainedBytes").value(0));
+	}
+
+	private static ObjectMapper createObjectMapper() {
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
+		mapper.registerModule(new JavaTimeModule());
+		return mapper;
+	}
+
+	public static Matcher<String> length(Matcher<? super Integer> matcher) {
+		return new FeatureMatcher<String, Integer>(matcher, "a String of length that", "length") {
+			@Override
+			protected Integer featureValueOf(String actual) {
+				return actual.length();
+			}
+		};
+	}
+}
@@ -1,157 +1,592 @@
-package de.datev.samples.loadtest.boundary;
-
-import org.junit.Ignore;
-import org.junit.Test;
-import org.junit.runner.RunWith;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.boot.test.web.client.TestRestTemplate;
-import org.springframework.boot.web.server.LocalServerPort;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
-import org.springframework.http.codec.ServerSentEvent;
-import org.springframework.test.context.junit4.SpringRunner;
-
-import java.util.Map;
-
-import static org.assertj.core.api.Assertions.assertThat;
-
-@RunWith(SpringRunner.class)
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
-public class TestFacetResourceIntTest {
-
-    @LocalServerPort
-    private int randomServerPort;
-
-    private String URL = "/api/test";
-
-    @Autowired
-    private TestRestTemplate restTemplate;
-
-    @Test
-    public void testThat_sleepRequest_isWorking() {
-
-        // act
-        ResponseEntity<StringResult> result = this.restTemplate.getForEntity(URL + "/sleep?ms=40", StringResult.class);
-
-        // assert
-        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(result.getBody()).isNotNull();
-        assertThat(result.getBody().getResult()).isEqualTo("OK");
-    }
-
-    @Test
-    public void testThat_fib_isWorking() {
-
-        // act
-        ResponseEntity<NumberResult> result = this.restTemplate.getForEntity(URL + "/fib?input=10", NumberResult.class);
-
-        // assert
-        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(result.getBody()).isNotNull();
-        assertThat(result.getBody().getResult()).isEqualTo(55);
-    }
-
-    @Test
-    public void testThat_remoteFib_isWorking() {
-
-        // act
-        ResponseEntity<NumberResult> result = this.restTemplate.getForEntity(URL + "/remote-fib?input=7", NumberResult.class);
-
-        // assert
-        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(result.getBody()).isNotNull();
-        assertThat(result.getBody().getResult()).isEqualTo(13);
-    }
-
-    @Test
-    public void testThat_remoteRequest_isWorking_with_sleep() {
-
-        // arrange
-        String remoteUrl = "http://localhost:" + randomServerPort + URL + "/sleep?ms=10";
-        ParameterizedTypeReference typeReference = new ParameterizedTypeReference<StatusResult<StringResult>>(){};
-
-        // act
-        ResponseEntity<StatusResult<StringResult>> result = this.restTemplate.exchange(
-                URL + "/remote?url=" + remoteUrl, HttpMethod.GET, null, typeReference);
-
-        // assert
-        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(result.getBody()).isNotNull();
-        assertThat(result.getBody().getStatus()).isEqualTo(200);
-        assertThat(result.getBody().getResult().getResult()).isEqualTo("OK");
-    }
-
-    @Test
-    public void testThat_remoteRequest_isWorking_with_fib() {
-
-        // arrange
-        String remoteUrl = "http://localhost:" + randomServerPort + URL + "/fib?input=5";
-        ParameterizedTypeReference typeReference = new ParameterizedTypeReference<StatusResult<NumberResult>>(){};
-
-        // act
-        ResponseEntity<StatusResult<NumberResult>> result = this.restTemplate.exchange(
-                URL + "/remote?url=" + remoteUrl, HttpMethod.GET, null, typeReference);
-
-        // assert
-        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(result.getBody()).isNotNull();
-        assertThat(result.getBody().getStatus()).isEqualTo(200);
-        assertThat(result.getBody().getResult().getResult()).isEqualTo(5);
-    }
-
-    @Ignore
-    @Test
-    public void testThat_streamSseEventsEachSecond_isWorking() {
-
-        // arrange
-        ParameterizedTypeReference<ServerSentEvent<String>> type = new ParameterizedTypeReference<ServerSentEvent<String>>() {};
-
-        // TODO!
-    }
-
-    @Test
-    public void testThat_getRequestUrl_isWorking() {
-
-        // act
-        ResponseEntity<StringResult> result = this.restTemplate.getForEntity(
-                URL + "/echo-url", StringResult.class);
-
-        // assert
-        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(result.getBody()).isNotNull();
-        assertThat(result.getBody().getResult()).isEqualTo("http://localhost:" + this.randomServerPort + URL + "/echo-url");
-    }
-
-    @Test
-    public void testThat_getRequestHeader_isWorking() {
-
-        // act
-        ParameterizedTypeReference typeReference = new ParameterizedTypeReference<Map<String,String>>(){};
-        ResponseEntity<Map<String,String>> result = this.restTemplate.exchange(
-                URL + "/echo-header", HttpMethod.GET, null, typeReference);
-
-        // assert
-        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(result.getBody()).isNotNull();
-        assertThat(result.getBody().entrySet().size()).isGreaterThanOrEqualTo(1);
-        assertThat(result.getBody().get("user-agent")).contains("Java");
-    }
-
-    @Test
-    public void testThat_getSystemInfo_isWorking() {
-
-        // act
-        ParameterizedTypeReference typeReference = new ParameterizedTypeReference<Map<String,String>>(){};
-        ResponseEntity<Map<String,String>> result = this.restTemplate.exchange(
-                URL + "/system-info", HttpMethod.GET, null, typeReference);
-
-        // assert
-        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
-        assertThat(result.getBody()).isNotNull();
-        assertThat(result.getBody().entrySet().size()).isGreaterThanOrEqualTo(1);
-        assertThat(result.getBody().get("file.separator")).isNotNull();
-    }
-}
+package de.datev.samples.loadtest.boundary;
+
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import de.datev.samples.loadtest.config.EmbeddedServerInfo;
+import de.datev.samples.loadtest.config.LoadTestConfiguration;
+import de.datev.samples.loadtest.control.ScenarioStep;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class TestFacetResourceIntTest {
+
+    @LocalServerPort
+    private int randomServerPort;
+
+    private String URL = "/api/test";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private EmbeddedServerInfo embeddedServerInfo;
+
+    @Autowired
+    private LoadTestConfiguration loadTestConfiguration;
+
+    @Autowired
+    private PoolingHttpClientConnectionManager httpClientConnectionManager;
+
+    @Autowired
+    private ServerProperties serverProperties;
+
+    @Test
+    public void testThat_sleepRequest_isWorking() {
+
+        // act
+        ResponseEntity<StringResult> result = this.restTemplate.getForEntity(URL + "/sleep?ms=40", StringResult.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().getResult()).isEqualTo("OK");
+    }
+
+    @Test
+    public void testThat_sleepAsyncRequest_isWorking() {
+
+        // act
+        ResponseEntity<StringResult> result = this.restTemplate.getForEntity(URL + "/sleep-async?ms=40", StringResult.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().getResult()).isEqualTo("OK");
+    }
+
+    @Test
+    public void testThat_fib_isWorking() {
+
+        // act
+        ResponseEntity<NumberResult> result = this.restTemplate.getForEntity(URL + "/fib?input=10", NumberResult.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().getResult()).isEqualTo(55);
+    }
+
+    @Test
+    public void testThat_remoteFib_isWorking() {
+
+        // act
+        ResponseEntity<NumberResult> result = this.restTemplate.getForEntity(URL + "/remote-fib?input=7", NumberResult.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().getResult()).isEqualTo(13);
+    }
+
+    @Test
+    public void testThat_remoteFib_isWorking_parallel() {
+
+        // act
+        ResponseEntity<NumberResult> result = this.restTemplate.getForEntity(URL + "/remote-fib?input=7&parallel=true", NumberResult.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().getResult()).isEqualTo(13);
+    }
+
+    @Test
+    public void testThat_remoteRequest_isWorking_with_sleep() {
+
+        // arrange
+        String remoteUrl = "http://localhost:" + randomServerPort + URL + "/sleep?ms=10";
+        ParameterizedTypeReference typeReference = new ParameterizedTypeReference<StatusResult<StringResult>>(){};
+
+        // act
+        ResponseEntity<StatusResult<StringResult>> result = this.restTemplate.exchange(
+                URL + "/remote?url=" + remoteUrl, HttpMethod.GET, null, typeReference);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().getStatus()).isEqualTo(200);
+        assertThat(result.getBody().getResult().getResult()).isEqualTo("OK");
+    }
+
+    @Test
+    public void testThat_remoteRequest_isWorking_with_fib() {
+
+        // arrange
+        String remoteUrl = "http://localhost:" + randomServerPort + URL + "/fib?input=5";
+        ParameterizedTypeReference typeReference = new ParameterizedTypeReference<StatusResult<NumberResult>>(){};
+
+        // act
+        ResponseEntity<StatusResult<NumberResult>> result = this.restTemplate.exchange(
+                URL + "/remote?url=" + remoteUrl, HttpMethod.GET, null, typeReference);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().getStatus()).isEqualTo(200);
+        assertThat(result.getBody().getResult().getResult()).isEqualTo(5);
+    }
+
+    @Test
+    public void testThat_scatterRequest_isWorking() {
+
+        // arrange
+        String remoteUrl1 = "http://localhost:" + randomServerPort + URL + "/fib?input=5";
+        String remoteUrl2 = "http://localhost:" + randomServerPort + URL + "/sleep?ms=10";
+        ParameterizedTypeReference typeReference = new ParameterizedTypeReference<StatusResult<List<BranchResult>>>(){};
+
+        // act
+        ResponseEntity<StatusResult<List<BranchResult>>> result = this.restTemplate.exchange(
+                URL + "/scatter?width=3&depth=2&url=" + remoteUrl1 + "&url=" + remoteUrl2, HttpMethod.GET, null, typeReference);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().getStatus()).isEqualTo(200);
+        assertThat(result.getBody().getResult()).hasSize(3);
+        assertThat(result.getBody().getResult()).allMatch(branch -> branch.getStatus() == 200);
+    }
+
+    @Test
+    public void testThat_scatterRequest_reports_deadline() {
+
+        // arrange
+        String remoteUrl = "http://localhost:" + randomServerPort + URL + "/sleep-async?ms=500";
+        ParameterizedTypeReference typeReference = new ParameterizedTypeReference<StatusResult<List<BranchResult>>>(){};
+
+        // act
+        ResponseEntity<StatusResult<List<BranchResult>>> result = this.restTemplate.exchange(
+                URL + "/scatter?width=2&deadlineMs=50&url=" + remoteUrl, HttpMethod.GET, null, typeReference);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().getStatus()).isEqualTo(504);
+        assertThat(result.getBody().getResult()).hasSize(2);
+    }
+
+    @Test
+    public void testThat_returnBlocksStreamedRequest_isWorking_with_range() {
+
+        // arrange
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RANGE, "bytes=0-99");
+
+        // act
+        ResponseEntity<String> result = this.restTemplate.exchange(
+                URL + "/return-blocks-streamed?numberOfKiloByteBlocks=10&blockSize=65536", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(result.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 0-99/10240");
+        assertThat(result.getBody()).hasSize(100);
+    }
+
+    @Test
+    public void testThat_returnBlocksDirectRequest_isWorking_with_sendfile() {
+
+        // arrange (only Tomcat supports sendfile, the other servers write the blocks)
+        String expectedMode = "tomcat".equals(this.embeddedServerInfo.getEffectiveConfiguration().get("webserver.type"))
+                ? "sendfile" : "stream";
+
+        // act
+        ResponseEntity<String> result = this.restTemplate.getForEntity(
+                URL + "/return-blocks-direct?numberOfKiloByteBlocks=100&sendfile=true", String.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getHeaders().getFirst("X-Transfer-Mode")).isEqualTo(expectedMode);
+        assertThat(result.getBody()).hasSize(102400);
+        assertThat(result.getBody()).doesNotContainPattern("[^a]");
+    }
+
+    @Test
+    public void testThat_returnBlocksDirectRequest_recordsThroughput() {
+
+        // arrange
+        this.restTemplate.getForEntity(URL + "/return-blocks-direct?numberOfKiloByteBlocks=100", String.class);
+        this.restTemplate.getForEntity(URL + "/return-blocks?numberOfKiloByteBlocks=100", String.class);
+
+        // act
+        ResponseEntity<String> result = this.restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody())
+                .contains("loadtest_facet_throughput_count{facet=\"return-blocks-direct\",mode=\"stream\"")
+                .contains("loadtest_facet_throughput_count{facet=\"return-blocks\",mode=\"stream\"");
+    }
+
+    @Test
+    public void testThat_httpClientPoolMetrics_areExposed() {
+
+        // arrange
+        this.restTemplate.getForEntity(URL + "/remote?url=http://localhost:" + randomServerPort + URL + "/fib?input=1", String.class);
+        ParameterizedTypeReference typeReference = new ParameterizedTypeReference<Map<String,Object>>(){};
+
+        // act
+        ResponseEntity<Map<String,Object>> result = this.restTemplate.exchange(
+                "/actuator/metrics/http.client.pool.available", HttpMethod.GET, null, typeReference);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().get("name")).isEqualTo("http.client.pool.available");
+    }
+
+    @Test
+    public void testThat_httpClientPool_coversTheServerThreads() {
+
+        // act
+        int maxPerRoute = this.httpClientConnectionManager.getDefaultMaxPerRoute();
+
+        // assert ("/remote-fib" holds a thread and a connection per level)
+        assertThat(maxPerRoute).isGreaterThanOrEqualTo(this.serverProperties.getTomcat().getMaxThreads());
+        assertThat(this.httpClientConnectionManager.getMaxTotal()).isGreaterThanOrEqualTo(maxPerRoute);
+    }
+
+    @Test
+    public void testThat_facetLatency_isExposedForPrometheus() {
+
+        // arrange
+        this.restTemplate.getForEntity(URL + "/fib?input=10", NumberResult.class);
+        this.restTemplate.getForEntity(URL + "/remote-fib?input=3", NumberResult.class);
+        this.restTemplate.getForEntity(URL + "/remote-fib?input=3&parallel=true", NumberResult.class);
+
+        // act
+        ResponseEntity<String> result = this.restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody())
+                .contains("loadtest_facet_latency_seconds{")
+                .contains("facet=\"fib\"")
+                .contains("param=\"input\"")
+                .contains("bucket=\"16\"")
+                .contains("quantile=\"0.999\"")
+                .contains("loadtest_facet_local_seconds_count{")
+                .contains("loadtest_facet_downstream_seconds_count{client=\"rest-template\"")
+                .contains("loadtest_facet_downstream_seconds_count{client=\"web-client\"")
+                .contains("handler=\"remoteFibonacciParallelRequest\"");
+    }
+
+    @Test
+    public void testThat_facetAllocationAndInflight_areExposedForPrometheus() {
+
+        // arrange
+        this.restTemplate.getForEntity(URL + "/return?size=65536&cache=false", StringResult.class);
+
+        // act
+        ResponseEntity<String> result = this.restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody())
+                .contains("loadtest_facet_inflight ")
+                .contains("loadtest_facet_allocated_bytes_count{facet=\"return\"");
+    }
+
+    @Test
+    public void testThat_scenarioPostRequest_callsRemoteSteps() {
+
+        // arrange
+        List<ScenarioStep> steps = Arrays.asList(
+                new ScenarioStep("remote", null, "$PROTOCOL$://$HOST$:$PORT$/api/test/fib?input=10"),
+                new ScenarioStep("remote", null, "$PROTOCOL$://$HOST$:$PORT$/api/test/unknown"),
+                new ScenarioStep("return", 20L, null));
+
+        // act
+        ResponseEntity<ScenarioResult> result = this.restTemplate.postForEntity(URL + "/scenario", steps, ScenarioResult.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().getResult()).hasSize(20);
+        assertThat(result.getBody().getSteps()).hasSize(3);
+        assertThat(result.getBody().getSteps().get(0).getStatus()).isEqualTo(200);
+        assertThat(result.getBody().getSteps().get(0).getUrl()).isEqualTo("http://localhost:" + randomServerPort + "/api/test/fib?input=10");
+        assertThat(result.getBody().getSteps().get(1).getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    public void testThat_driverRun_isWorking_withClosedModel() {
+
+        // act
+        ResponseEntity<DriverResult> result = this.restTemplate.getForEntity(
+                "/api/driver/run?concurrency=2&durationMs=300&url=$PROTOCOL$://$HOST$:$PORT$/api/test/fib?input=1",
+                DriverResult.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().getModel()).isEqualTo("closed");
+        assertThat(result.getBody().getRequests()).isGreaterThan(0);
+        assertThat(result.getBody().getErrors()).isEqualTo(0);
+        assertThat(result.getBody().getStatusCounts()).containsKey("200");
+        assertThat(result.getBody().getMaxMilliseconds()).isGreaterThan(0.0);
+    }
+
+    @Test
+    public void testThat_driverRun_isNotRecordedAsDownstream() {
+
+        // arrange
+        this.restTemplate.getForEntity(URL + "/remote-fib?input=2&parallel=true", NumberResult.class);
+        String downstreamUrl = "/actuator/metrics/loadtest.facet.downstream?tag=client:web-client";
+        ParameterizedTypeReference typeReference = new ParameterizedTypeReference<Map<String,Object>>(){};
+        ResponseEntity<Map<String,Object>> before = this.restTemplate.exchange(
+                downstreamUrl, HttpMethod.GET, null, typeReference);
+
+        // act
+        ResponseEntity<DriverResult> result = this.restTemplate.getForEntity(
+                "/api/driver/run?concurrency=2&durationMs=300&url=$PROTOCOL$://$HOST$:$PORT$/api/test/fib?input=1",
+                DriverResult.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().getRequests()).isGreaterThan(0);
+        ResponseEntity<Map<String,Object>> after = this.restTemplate.exchange(
+                downstreamUrl, HttpMethod.GET, null, typeReference);
+        assertThat(after.getBody()).isNotNull();
+        assertThat(after.getBody().get("measurements")).isEqualTo(before.getBody().get("measurements"));
+    }
+
+    @Test
+    public void testThat_driverRun_sendsAtRate_withOpenModel() {
+
+        // act
+        ResponseEntity<DriverResult> result = this.restTemplate.getForEntity(
+                "/api/driver/run?model=open&rate=200&durationMs=500&url=$PROTOCOL$://$HOST$:$PORT$/api/test/sleep?ms=1",
+                DriverResult.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().getRequests()).isEqualTo(100);
+        assertThat(result.getBody().getDropped()).isEqualTo(0);
+        assertThat(result.getBody().getStatusCounts()).containsEntry("200", 100L);
+    }
+
+    @Test
+    public void testThat_driverRun_rejects_openModelWithoutRate() {
+
+        // act
+        ResponseEntity<DriverResult> result = this.restTemplate.getForEntity(
+                "/api/driver/run?model=open&url=$PROTOCOL$://$HOST$:$PORT$/api/test/fib", DriverResult.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void testThat_driverCoordinate_mergesWorkers_andReportsFailedWorker() {
+
+        // act
+        ResponseEntity<DriverResult> result = this.restTemplate.getForEntity(
+                "/api/driver/coordinate?worker=$PROTOCOL$://$HOST$:$PORT$&worker=http://localhost:1&startDelayMs=200"
+                        + "&model=open&rate=100&durationMs=500&url=$PROTOCOL$://$HOST$:$PORT$/api/test/fib?input=1",
+                DriverResult.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().getRequests()).isEqualTo(50);
+        assertThat(result.getBody().getStatusCounts()).containsEntry("200", 50L);
+        assertThat(result.getBody().getMaxMilliseconds()).isGreaterThan(0.0);
+        assertThat(result.getBody().getWorkers()).hasSize(2);
+        assertThat(result.getBody().getWorkers().get(0).getError()).isNull();
+        assertThat(result.getBody().getWorkers().get(0).getHistogram()).isNull();
+        assertThat(result.getBody().getWorkers().get(1).getError()).isNotNull();
+    }
+
+    @Test
+    public void testThat_driverCoordinate_rejects_malformedWorker() {
+
+        // act
+        ResponseEntity<DriverResult> result = this.restTemplate.getForEntity(
+                "/api/driver/coordinate?worker=$PROTOCOL$://$HOST$:$PORT$&worker=localhost:1"
+                        + "&url=$PROTOCOL$://$HOST$:$PORT$/api/test/fib?input=1", DriverResult.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void testThat_driverCoordinate_rejects_tooManyWorkers() {
+
+        // arrange
+        StringBuilder workers = new StringBuilder();
+        for (int i = 0; i <= this.loadTestConfiguration.getDriverMaxWorkers(); i++) {
+            workers.append("worker=http://localhost:1&");
+        }
+
+        // act
+        ResponseEntity<DriverResult> result = this.restTemplate.getForEntity(
+                "/api/driver/coordinate?" + workers + "url=$PROTOCOL$://$HOST$:$PORT$/api/test/fib?input=1",
+                DriverResult.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void testThat_webSocketEcho_isWorking() throws Exception {
+
+        // arrange
+        BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+        WebSocketSession session = connect("/api/ws/echo", messages);
+
+        // act
+        session.sendMessage(new TextMessage("hello"));
+
+        // assert
+        assertThat(messages.poll(5, TimeUnit.SECONDS)).isEqualTo("hello");
+        session.close();
+    }
+
+    @Test
+    public void testThat_webSocketPush_sendsCountMessages() throws Exception {
+
+        // arrange
+        BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+
+        // act
+        WebSocketSession session = connect("/api/ws/push?rate=100&size=64&count=3", messages);
+
+        // assert
+        for (int i = 0; i < 3; i++) {
+            assertThat(messages.poll(5, TimeUnit.SECONDS)).hasSize(64);
+        }
+        assertThat(messages.poll(200, TimeUnit.MILLISECONDS)).isNull();
+        session.close();
+    }
+
+    @Test
+    public void testThat_webSocketBroadcast_reachesAllSessions() throws Exception {
+
+        // arrange
+        BlockingQueue<String> messages1 = new LinkedBlockingQueue<>();
+        BlockingQueue<String> messages2 = new LinkedBlockingQueue<>();
+        WebSocketSession session1 = connect("/api/ws/broadcast", messages1);
+        WebSocketSession session2 = connect("/api/ws/broadcast", messages2);
+        ParameterizedTypeReference<Map<String,Object>> typeReference = new ParameterizedTypeReference<Map<String,Object>>(){};
+
+        // act
+        session1.sendMessage(new TextMessage("to all"));
+
+        // assert
+        assertThat(messages1.poll(5, TimeUnit.SECONDS)).isEqualTo("to all");
+        assertThat(messages2.poll(5, TimeUnit.SECONDS)).isEqualTo("to all");
+        ResponseEntity<Map<String,Object>> result = this.restTemplate.exchange(
+                "/actuator/websocket", HttpMethod.GET, null, typeReference);
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).containsKeys("sessions", "messagesReceived", "messagesSent", "details");
+        session1.close();
+        session2.close();
+    }
+
+    private WebSocketSession connect(String path, BlockingQueue<String> messages) throws Exception {
+
+        TextWebSocketHandler handler = new TextWebSocketHandler() {
+            @Override
+            protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+                messages.add(message.getPayload());
+            }
+        };
+        return new StandardWebSocketClient()
+                .doHandshake(handler, "ws://localhost:" + randomServerPort + path)
+                .get(5, TimeUnit.SECONDS);
+    }
+
+    @Ignore
+    @Test
+    public void testThat_streamSseEventsEachSecond_isWorking() {
+
+        // arrange
+        ParameterizedTypeReference<ServerSentEvent<String>> type = new ParameterizedTypeReference<ServerSentEvent<String>>() {};
+
+        // TODO!
+    }
+
+    @Test
+    public void testThat_getRequestUrl_isWorking() {
+
+        // act
+        ResponseEntity<StringResult> result = this.restTemplate.getForEntity(
+                URL + "/echo-url", StringResult.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().getResult()).isEqualTo("http://localhost:" + this.randomServerPort + URL + "/echo-url");
+    }
+
+    @Test
+    public void testThat_getRequestHeader_isWorking() {
+
+        // act
+        ParameterizedTypeReference typeReference = new ParameterizedTypeReference<Map<String,String>>(){};
+        ResponseEntity<Map<String,String>> result = this.restTemplate.exchange(
+                URL + "/echo-header", HttpMethod.GET, null, typeReference);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().entrySet().size()).isGreaterThanOrEqualTo(1);
+        // header names are case insensitive, Tomcat returns them in lower case, Undertow and Jetty as sent
+        Map<String,String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        headers.putAll(result.getBody());
+        assertThat(headers.get("user-agent")).contains("Java");
+    }
+
+    @Test
+    public void testThat_getSystemInfo_isWorking() {
+
+        // act
+        ParameterizedTypeReference typeReference = new ParameterizedTypeReference<Map<String,String>>(){};
+        ResponseEntity<Map<String,String>> result = this.restTemplate.exchange(
+                URL + "/system-info", HttpMethod.GET, null, typeReference);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().entrySet().size()).isGreaterThanOrEqualTo(1);
+        assertThat(result.getBody().get("file.separator")).isNotNull();
+        assertThat(result.getBody().get("webserver.type")).isIn("tomcat", "undertow", "jetty");
+        if (System.getProperty("embedded.server") != null) {
+            assertThat(result.getBody().get("webserver.type")).isEqualTo(System.getProperty("embedded.server"));
+        }
+        assertThat(result.getBody().get("webserver.port")).isEqualTo(Integer.toString(this.randomServerPort));
+        assertThat(result.getBody().get("webserver.acceptCount")).isEqualTo("123");
+        assertThat(result.getBody().get("webserver.maxThreads")).isNotNull();
+    }
+}
@@ -0,0 +1,164 @@
+package de.datev.samples.loadtest.boundary;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The non-blocking facets, with the application started as a WebFlux application like in the "reactive" profile.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+public class TestReactiveFacetResourceIntTest {
+
+    @LocalServerPort
+    private int randomServerPort;
+
+    private String URL = "/api/test";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    public void testThat_sleepRequest_isWorking() {
+
+        // act
+        ResponseEntity<StringResult> result = this.restTemplate.getForEntity(URL + "/sleep?ms=40", StringResult.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().getResult()).isEqualTo("OK");
+    }
+
+    @Test
+    public void testThat_sleepRequest_rejects_badMs() {
+
+        // act
+        ResponseEntity<String> negative = this.restTemplate.getForEntity(URL + "/sleep?ms=-1", String.class);
+        ResponseEntity<String> tooLong = this.restTemplate.getForEntity(URL + "/sleep-async?ms=60001", String.class);
+
+        // assert
+        assertThat(negative.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(tooLong.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void testThat_fibAndCpuRequest_areWorking() {
+
+        // act
+        ResponseEntity<NumberResult> fib = this.restTemplate.getForEntity(URL + "/fib?input=10", NumberResult.class);
+        ResponseEntity<NumberResult> cpu = this.restTemplate.getForEntity(URL + "/cpu?micros=1000", NumberResult.class);
+        ResponseEntity<NumberResult> badFib = this.restTemplate.getForEntity(URL + "/fib?input=101", NumberResult.class);
+
+        // assert
+        assertThat(fib.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(fib.getBody()).isNotNull();
+        assertThat(fib.getBody().getResult()).isEqualTo(55);
+        assertThat(cpu.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(badFib.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void testThat_remoteRequest_isWorking() {
+
+        // act
+        ResponseEntity<StatusResult<NumberResult>> result = this.restTemplate.exchange(
+                URL + "/remote?url=$PROTOCOL$://$HOST$:$PORT$/api/test/fib?input=10", HttpMethod.GET, null,
+                new ParameterizedTypeReference<StatusResult<NumberResult>>() {});
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().getStatus()).isEqualTo(200);
+        assertThat(result.getBody().getResult().getResult()).isEqualTo(55);
+    }
+
+    @Test
+    public void testThat_remoteFibonacciRequest_isWorking_sequentialAndParallel() {
+
+        // act
+        ResponseEntity<NumberResult> sequential = this.restTemplate.getForEntity(URL + "/remote-fib?input=5", NumberResult.class);
+        ResponseEntity<NumberResult> parallel = this.restTemplate.getForEntity(URL + "/remote-fib?input=5&parallel=true", NumberResult.class);
+
+        // assert
+        assertThat(sequential.getBody()).isNotNull();
+        assertThat(sequential.getBody().getResult()).isEqualTo(5);
+        assertThat(parallel.getBody()).isNotNull();
+        assertThat(parallel.getBody().getResult()).isEqualTo(5);
+    }
+
+    @Test
+    public void testThat_returnBlocksRequest_isWorking() {
+
+        // act
+        ResponseEntity<String> result = this.restTemplate.getForEntity(
+                URL + "/return-blocks?numberOfKiloByteBlocks=10&blockSize=4096", String.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getHeaders().getContentLength()).isEqualTo(10240);
+        assertThat(result.getBody()).hasSize(10240);
+    }
+
+    @Test
+    public void testThat_returnBlocksRequest_isWorking_with_oddBlockSize() {
+
+        // act (3 blocks of 3000 bytes and a last block of 1240 bytes, all views of the shared block)
+        ResponseEntity<String> result = this.restTemplate.getForEntity(
+                URL + "/return-blocks?numberOfKiloByteBlocks=10&blockSize=3000", String.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).hasSize(10240);
+        assertThat(result.getBody()).doesNotContainPattern("[^a]");
+    }
+
+    @Test
+    public void testThat_returnBlocksRequest_rejects_negativeNumberOfBlocks() {
+
+        // act
+        ResponseEntity<String> result = this.restTemplate.getForEntity(
+                URL + "/return-blocks?numberOfKiloByteBlocks=-1", String.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    public void testThat_streamSseEventsEachSecond_sendsAllEvents() {
+
+        // act
+        ResponseEntity<String> result = this.restTemplate.getForEntity(
+                URL + "/sse-time-by-second?nrOfEvents=3&eventsPerSecond=100&payloadSize=8", String.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().split("event:sse-time-by-second", -1)).hasSize(4);
+        assertThat(result.getBody()).contains(" aaaaaaaa");
+    }
+
+    @Test
+    public void testThat_getRequestUrl_isWorking() {
+
+        // act
+        ResponseEntity<StringResult> result = this.restTemplate.getForEntity(URL + "/echo-url?x=1", StringResult.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody()).isNotNull();
+        assertThat(result.getBody().getResult()).isEqualTo("http://localhost:" + this.randomServerPort + URL + "/echo-url");
+    }
+}
@@ -0,0 +1,129 @@
+package de.datev.samples.loadtest.boundary;
+
+import de.datev.samples.loadtest.config.EmbeddedServerInfo;
+import de.datev.samples.loadtest.control.VirtualThreads;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * The servlet facets with app-config.server-virtual-threads. The tests are skipped below Java 21 and on Jetty, which
+ * keeps its thread pool; run them with a Java 21 JAVA_HOME, the concurrency test with -Dserver=undertow.
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = { "app-config.server-virtual-threads=true", "app-config.server-max-threads=2" })
+public class TestVirtualThreadsIntTest {
+
+    @LocalServerPort
+    private int randomServerPort;
+
+    private String URL = "/api/test";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private EmbeddedServerInfo embeddedServerInfo;
+
+    // Before the application context is loaded: Jetty does not even start with 2 threads
+    @BeforeClass
+    public static void assumeVirtualThreads() {
+        assumeTrue("Virtual threads need Java 21 or later", VirtualThreads.isSupported());
+        assumeFalse("Jetty keeps its thread pool", "jetty".equals(System.getProperty("embedded.server")));
+    }
+
+    @Test
+    public void testThat_blockingRequests_areNotLimitedByMaxThreads() throws Exception {
+
+        // arrange (one connection per request, the pool of the TestRestTemplate would serialize them)
+        assumeFalse("Tomcat pins the virtual threads to max-threads carriers",
+                "tomcat".equals(this.embeddedServerInfo.getEffectiveConfiguration().get("webserver.type")));
+        RestTemplate client = new RestTemplate(new SimpleClientHttpRequestFactory());
+        String sleepUrl = "http://localhost:" + this.randomServerPort + URL + "/sleep?ms=1000";
+        ExecutorService clients = Executors.newFixedThreadPool(10);
+        List<Future<ResponseEntity<StringResult>>> results = new ArrayList<>();
+
+        // act
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            results.add(clients.submit(() -> client.getForEntity(sleepUrl, StringResult.class)));
+        }
+        for (Future<ResponseEntity<StringResult>> result : results) {
+            assertThat(result.get(30, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.OK);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        clients.shutdown();
+
+        // assert (2 platform threads would need 5 seconds)
+        assertThat(elapsedMillis).isLessThan(4000);
+    }
+
+    @Test
+    public void testThat_receiveStreamRequest_isWorking_withPooledBuffers() {
+
+        // arrange
+        byte[] body = new byte[200000];
+        Arrays.fill(body, (byte) 'a');
+        CRC32 crc32 = new CRC32();
+        crc32.update(body);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+
+        // act
+        ResponseEntity<UploadResult> first = this.restTemplate.postForEntity(
+                URL + "/receive-stream", new HttpEntity<>(body, headers), UploadResult.class);
+        ResponseEntity<UploadResult> second = this.restTemplate.postForEntity(
+                URL + "/receive-stream", new HttpEntity<>(body, headers), UploadResult.class);
+
+        // assert
+        for (ResponseEntity<UploadResult> result : Arrays.asList(first, second)) {
+            assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+            assertThat(result.getBody()).isNotNull();
+            assertThat(result.getBody().getResult()).isEqualTo(body.length);
+            assertThat(result.getBody().getCrc32()).isEqualTo(crc32.getValue());
+        }
+    }
+
+    @Test
+    public void testThat_facetAllocation_isNotRecorded_onVirtualThreads() {
+
+        // arrange
+        this.restTemplate.getForEntity(URL + "/return?size=65536&cache=false", StringResult.class);
+
+        // act
+        ResponseEntity<String> result = this.restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        // assert
+        assertThat(result.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(result.getBody())
+                .contains("loadtest_facet_latency_seconds_count{")
+                .contains("facet=\"return\"")
+                .doesNotContain("loadtest_facet_allocated_bytes_count{facet=\"return\"");
+    }
+}
@@ -0,0 +1,106 @@
+package de.datev.samples.loadtest.config;
+
+import de.datev.samples.loadtest.control.VirtualThreads;
+import org.apache.coyote.AbstractProtocol;
+import org.apache.coyote.ProtocolHandler;
+import org.apache.coyote.http11.Http11NioProtocol;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.embedded.tomcat.TomcatWebServer;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Applies app-config.server-* to Tomcat (maven profile "tomcat", the default). Runs after Spring Boot's own
+ * customizers, so the settings win over server.tomcat.*, if they are set (> 0). With server-virtual-threads each
+ * request is handled on a new virtual thread instead of the pool of max-threads platform threads. Tomcat 9.0 keeps
+ * the virtual thread pinned to its carrier during the request, so the virtual threads get max-threads carriers,
+ * and blocking requests are still limited to that number; Undertow does not pin them.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class EmbeddedServerConfiguration {
+
+    private static final Logger LOGGER = LogManager.getLogger(EmbeddedServerConfiguration.class);
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> embeddedServerCustomizer(
+            LoadTestConfiguration loadTestConfiguration) {
+
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            final ProtocolHandler handler = connector.getProtocolHandler();
+            if (!(handler instanceof AbstractProtocol)) {
+                LOGGER.warn("Cannot tune Tomcat protocol handler {}", handler);
+                return;
+            }
+            final AbstractProtocol<?> protocol = (AbstractProtocol<?>) handler;
+            if (loadTestConfiguration.getServerMaxThreads() > 0) {
+                protocol.setMaxThreads(loadTestConfiguration.getServerMaxThreads());
+            }
+            if (loadTestConfiguration.getServerMinSpareThreads() > 0) {
+                protocol.setMinSpareThreads(loadTestConfiguration.getServerMinSpareThreads());
+            }
+            if (loadTestConfiguration.getServerAcceptors() > 0) {
+                protocol.setAcceptorThreadCount(loadTestConfiguration.getServerAcceptors());
+            }
+            if (loadTestConfiguration.getServerSelectors() > 0 && protocol instanceof Http11NioProtocol) {
+                ((Http11NioProtocol) protocol).setPollerThreadCount(loadTestConfiguration.getServerSelectors());
+            }
+            if (loadTestConfiguration.getServerMaxConnections() > 0) {
+                protocol.setMaxConnections(loadTestConfiguration.getServerMaxConnections());
+            }
+            if (loadTestConfiguration.getServerAcceptCount() > 0) {
+                protocol.setAcceptCount(loadTestConfiguration.getServerAcceptCount());
+            }
+            if (loadTestConfiguration.getServerBufferSize() > 0) {
+                final String bufferSize = Integer.toString(loadTestConfiguration.getServerBufferSize());
+                protocol.setProperty("socket.appReadBufSize", bufferSize);
+                protocol.setProperty("socket.appWriteBufSize", bufferSize);
+            }
+            if (loadTestConfiguration.isServerVirtualThreads()) {
+                if (VirtualThreads.isSupported()) {
+                    // Tomcat 9.0 processes a request inside synchronized (socketWrapper), so a blocking request
+                    // pins its carrier thread; without more carriers than CPUs fewer requests would run than before
+                    VirtualThreads.setMinimumParallelism(protocol.getMaxThreads());
+                    protocol.setExecutor(VirtualThreads.newThreadPerTaskExecutor("tomcat-virtual-"));
+                    LOGGER.info("Requests run on virtual threads, loadtest.facet.allocated is not recorded");
+                    LOGGER.warn("Tomcat pins the virtual threads while a request is processed, blocking requests are "
+                            + "limited to {} carrier threads (-Djdk.virtualThreadScheduler.parallelism)",
+                            System.getProperty("jdk.virtualThreadScheduler.parallelism"));
+                } else {
+                    LOGGER.warn("Virtual threads need Java 21 or later, Tomcat keeps its thread pool");
+                }
+            }
+        });
+    }
+
+    @Bean
+    public EmbeddedServerInspector embeddedServerInspector() {
+
+        return (webServer, configuration) -> {
+            if (!(webServer instanceof TomcatWebServer)) {
+                return;
+            }
+            final ProtocolHandler handler = ((TomcatWebServer) webServer).getTomcat().getConnector().getProtocolHandler();
+            configuration.put("protocol", handler.getClass().getSimpleName());
+            if (!(handler instanceof AbstractProtocol)) {
+                return;
+            }
+            final AbstractProtocol<?> protocol = (AbstractProtocol<?>) handler;
+            configuration.put("maxThreads", Integer.toString(protocol.getMaxThreads()));
+            configuration.put("minSpareThreads", Integer.toString(protocol.getMinSpareThreads()));
+            configuration.put("acceptors", Integer.toString(protocol.getAcceptorThreadCount()));
+            if (protocol instanceof Http11NioProtocol) {
+                configuration.put("selectors", Integer.toString(((Http11NioProtocol) protocol).getPollerThreadCount()));
+            }
+            configuration.put("maxConnections", Integer.toString(protocol.getMaxConnections()));
+            configuration.put("acceptCount", Integer.toString(protocol.getAcceptCount()));
+            configuration.put("bufferSize", protocol.getProperty("socket.appReadBufSize"));
+            configuration.put("executor", protocol.getExecutor() == null ? "internal"
+                    : protocol.getExecutor().getClass().getName());
+        };
+    }
+}
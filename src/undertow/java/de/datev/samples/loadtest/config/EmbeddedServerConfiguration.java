@@ -0,0 +1,119 @@
+package de.datev.samples.loadtest.config;
+
+import de.datev.samples.loadtest.control.VirtualThreads;
+import io.undertow.Undertow;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServer;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
+import org.xnio.Option;
+import org.xnio.OptionMap;
+import org.xnio.Options;
+import org.xnio.XnioWorker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+
+/**
+ * Applies app-config.server-* to Undertow (maven profile "undertow"). Runs after Spring Boot's own customizers, so
+ * the settings win over server.undertow.*, if they are set (> 0). Undertow accepts connections on its IO threads
+ * (server-selectors), there are no separate acceptor threads. server-max-connections suspends accepting at that
+ * number of connections (XNIO's connection high water mark). With server-virtual-threads the servlet requests are
+ * dispatched to a new virtual thread each instead of the XNIO worker pool.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class EmbeddedServerConfiguration {
+
+    private static final Logger LOGGER = LogManager.getLogger(EmbeddedServerConfiguration.class);
+
+    // Undertow's default, if no backlog is set
+    private static final int DEFAULT_BACKLOG = 1000;
+
+    @Bean
+    public WebServerFactoryCustomizer<UndertowServletWebServerFactory> embeddedServerCustomizer(
+            LoadTestConfiguration loadTestConfiguration) {
+
+        return factory -> {
+            if (loadTestConfiguration.isServerVirtualThreads()) {
+                if (VirtualThreads.isSupported()) {
+                    factory.addDeploymentInfoCustomizers(deploymentInfo ->
+                            deploymentInfo.setExecutor(VirtualThreads.newThreadPerTaskExecutor("undertow-virtual-")));
+                    LOGGER.info("Requests run on virtual threads, loadtest.facet.allocated is not recorded");
+                } else {
+                    LOGGER.warn("Virtual threads need Java 21 or later, Undertow keeps its worker pool");
+                }
+            }
+            factory.addBuilderCustomizers(builder -> {
+                if (loadTestConfiguration.getServerMaxThreads() > 0) {
+                    builder.setWorkerThreads(loadTestConfiguration.getServerMaxThreads());
+                }
+                if (loadTestConfiguration.getServerMinSpareThreads() > 0) {
+                    builder.setWorkerOption(Options.WORKER_TASK_CORE_THREADS, loadTestConfiguration.getServerMinSpareThreads());
+                }
+                if (loadTestConfiguration.getServerSelectors() > 0) {
+                    builder.setIoThreads(loadTestConfiguration.getServerSelectors());
+                }
+                if (loadTestConfiguration.getServerMaxConnections() > 0) {
+                    builder.setSocketOption(Options.CONNECTION_HIGH_WATER, loadTestConfiguration.getServerMaxConnections());
+                    builder.setSocketOption(Options.CONNECTION_LOW_WATER, loadTestConfiguration.getServerMaxConnections());
+                }
+                if (loadTestConfiguration.getServerAcceptCount() > 0) {
+                    builder.setSocketOption(Options.BACKLOG, loadTestConfiguration.getServerAcceptCount());
+                }
+                if (loadTestConfiguration.getServerBufferSize() > 0) {
+                    builder.setBufferSize(loadTestConfiguration.getServerBufferSize());
+                }
+            });
+        };
+    }
+
+    // Undertow does not expose its settings, they are read from the private fields of the server
+    @Bean
+    public EmbeddedServerInspector embeddedServerInspector() {
+
+        return (webServer, configuration) -> {
+            if (!(webServer instanceof UndertowServletWebServer)) {
+                return;
+            }
+            final Undertow undertow = (Undertow) readField(UndertowServletWebServer.class, "undertow", webServer);
+            final XnioWorker worker = undertow.getWorker();
+            configuration.put("maxThreads", String.valueOf(workerOption(worker, Options.WORKER_TASK_MAX_THREADS)));
+            configuration.put("minSpareThreads", String.valueOf(workerOption(worker, Options.WORKER_TASK_CORE_THREADS)));
+            configuration.put("acceptors", "0");
+            configuration.put("selectors", Integer.toString(worker.getIoThreadCount()));
+            final OptionMap socketOptions = (OptionMap) readField(Undertow.class, "socketOptions", undertow);
+            configuration.put("maxConnections", socketOptions.contains(Options.CONNECTION_HIGH_WATER)
+                    ? Integer.toString(socketOptions.get(Options.CONNECTION_HIGH_WATER, 0)) : "unlimited");
+            configuration.put("acceptCount", Integer.toString(socketOptions.get(Options.BACKLOG, DEFAULT_BACKLOG)));
+            configuration.put("bufferSize", readField(Undertow.class, "bufferSize", undertow).toString());
+            configuration.put("directBuffers", readField(Undertow.class, "directBuffers", undertow).toString());
+            configuration.put("executor", worker.getClass().getName());
+        };
+    }
+
+    private static Integer workerOption(XnioWorker worker, Option<Integer> option) {
+
+        try {
+            return worker.getOption(option);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Object readField(Class<?> type, String name, Object target) {
+
+        final Field field = ReflectionUtils.findField(type, name);
+        if (field == null) {
+            throw new IllegalStateException("No field " + name + " in " + type);
+        }
+        ReflectionUtils.makeAccessible(field);
+        return ReflectionUtils.getField(field, target);
+    }
+}